@@ -0,0 +1,170 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.DataSourceHealthProber;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.datasource.factory.HikariDataSourceFactory;
+import com.example.multids.datasource.fault.FaultInjectingDataSourceFactory;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Sustained routed load over two in-memory H2 pools while every iteration injects a fault into the primary and
+// clears it again. JMH reports the borrow latency percentiles; each iteration prints time-to-failover,
+// time-to-failback and the borrows that failed in between.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class FailoverBenchmark {
+
+    private static final String PRIMARY = "primary";
+    private static final Duration FAULT_DELAY = Duration.ofMillis(500);
+    private static final Duration FAULT_DURATION = Duration.ofSeconds(1);
+
+    @Param({"kill", "flaky"})
+    private String fault;
+
+    private final LongAdder errors = new LongAdder();
+    private final TransitionObserver transitions = new TransitionObserver();
+    private FaultInjectingDataSourceFactory primaryFactory;
+    private SequencedMap<String, ManagedDataSource> datasources;
+    private DataSourceHealthProber prober;
+    private HealingRoutingDataSource routing;
+    private Thread chaos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        primaryFactory = new FaultInjectingDataSourceFactory(new HikariDataSourceFactory());
+        datasources = new LinkedHashMap<>();
+        datasources.put(PRIMARY, new ManagedDataSource(
+                PRIMARY, h2("failover-primary"), primaryFactory, new JdbcDataSourceHealthStrategy()));
+        datasources.put("secondary", new ManagedDataSource(
+                "secondary", h2("failover-secondary"), new HikariDataSourceFactory(), new JdbcDataSourceHealthStrategy()));
+        routing = new HealingRoutingDataSource(datasources);
+        routing.setObserver(transitions);
+        prober = new DataSourceHealthProber(new MultiDataSourceRegistry(datasources), Duration.ofMillis(50));
+        prober.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void startFault() {
+        primaryFactory.faults().reset();
+        datasources.get(PRIMARY).healIfNeeded();
+        errors.reset();
+        transitions.reset();
+        chaos = Thread.ofVirtual().name("failover-chaos").start(this::injectAndClear);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws InterruptedException {
+        chaos.join();
+        System.out.printf("%n  %s: failover %s, failback %s, errors during transitions %d%n",
+                fault,
+                millis(transitions.injected, transitions.failedOver),
+                millis(transitions.cleared, transitions.failedBack),
+                errors.sum());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        prober.close();
+        primaryFactory.faults().reset();
+        for (ManagedDataSource dataSource : datasources.values()) {
+            if (dataSource.current() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean borrow() {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getAutoCommit();
+        } catch (SQLException ex) {
+            errors.increment();
+            return false;
+        }
+    }
+
+    private void injectAndClear() {
+        try {
+            Thread.sleep(FAULT_DELAY);
+            transitions.injected = System.nanoTime();
+            if ("kill".equals(fault)) {
+                primaryFactory.kill();
+            } else {
+                primaryFactory.faults().setFailureRate(0.5d);
+            }
+            Thread.sleep(FAULT_DURATION);
+            transitions.cleared = System.nanoTime();
+            primaryFactory.faults().reset();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String millis(long from, long to) {
+        if (from == 0L || to == 0L) {
+            return "not observed";
+        }
+        return String.format("%.1f ms", (to - from) / 1_000_000.0d);
+    }
+
+    private static SingleDatasourceProperties h2(String name) {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(16);
+        return properties;
+    }
+
+    // First borrow served away from the primary after the fault, and first served by it again once cleared.
+    private static final class TransitionObserver implements RoutingObserver {
+        private volatile long injected;
+        private volatile long failedOver;
+        private volatile long cleared;
+        private volatile long failedBack;
+
+        void reset() {
+            injected = 0L;
+            failedOver = 0L;
+            cleared = 0L;
+            failedBack = 0L;
+        }
+
+        @Override
+        public void routed(String key, boolean readOnly, boolean failover) {
+            if (cleared != 0L) {
+                if (failedBack == 0L && PRIMARY.equals(key)) {
+                    failedBack = System.nanoTime();
+                }
+            } else if (injected != 0L && failedOver == 0L && !PRIMARY.equals(key)) {
+                failedOver = System.nanoTime();
+            }
+        }
+    }
+}
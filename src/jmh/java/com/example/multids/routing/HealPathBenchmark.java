@@ -0,0 +1,59 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of a request that finds every datasource down: an on-demand heal pass (probe, rebuild, drain) or fail-fast.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HealPathBenchmark {
+
+    @Param({"1", "3", "32"})
+    private int datasourceCount;
+
+    @Param({"true", "false"})
+    private boolean healOnDemand;
+
+    private HealingRoutingDataSource routing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        for (int i = 0; i < datasourceCount; i++) {
+            datasources.put("ds" + i, new ManagedDataSource(
+                    "ds" + i, new SingleDatasourceProperties(), p -> BenchmarkDataSources.noop(), (d, q) -> false));
+        }
+        routing = new HealingRoutingDataSource(datasources);
+        routing.setHealOnDemand(healOnDemand);
+    }
+
+    @Benchmark
+    public SQLException allDown() {
+        try {
+            routing.getConnection();
+        } catch (SQLException ex) {
+            return ex;
+        }
+        throw new IllegalStateException("Expected every datasource to be down");
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.factory.HikariDataSourceFactory;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Borrow-and-return of one connection from the same in-memory H2 pool, raw versus through each wrapping layer.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBorrowBenchmark {
+
+    private HikariDataSource pool;
+    private ManagedDataSource managed;
+    private HealingRoutingDataSource routing;
+    private final RoutingContext context = RoutingContext.preferDatasource("primary");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:router-borrow;DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(4);
+        properties.setMinimumIdle(4);
+        pool = (HikariDataSource) new HikariDataSourceFactory().create(properties);
+        managed = new ManagedDataSource("primary", properties, p -> pool, new JdbcDataSourceHealthStrategy());
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", managed);
+        routing = new HealingRoutingDataSource(datasources);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public boolean direct() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public boolean managed() throws SQLException {
+        try (Connection connection = managed.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public boolean routed() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+
+    // Binds the routing context around every borrow, so the scoped-value binding is part of the measured cost.
+    @Benchmark
+    public boolean routedWithContext() throws Exception {
+        return context.call(this::routed);
+    }
+}
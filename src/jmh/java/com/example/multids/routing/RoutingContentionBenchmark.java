@@ -0,0 +1,73 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Routed borrows over no-op pools, so only the router, lease accounting and circuit breaker are under contention.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingContentionBenchmark {
+
+    @Param({"1", "3"})
+    private int datasourceCount;
+
+    private HealingRoutingDataSource routing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        // Equal priorities put every datasource in one tier, so the power-of-two-choices pick is exercised.
+        properties.setPriority(1);
+        for (int i = 0; i < datasourceCount; i++) {
+            datasources.put("ds" + i, new ManagedDataSource(
+                    "ds" + i, properties, p -> BenchmarkDataSources.noop(), (d, q) -> true));
+        }
+        routing = new HealingRoutingDataSource(datasources);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void borrow01Thread() throws SQLException {
+        routing.getConnection().close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void borrow04Threads() throws SQLException {
+        routing.getConnection().close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void borrow16Threads() throws SQLException {
+        routing.getConnection().close();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void borrow64Threads() throws SQLException {
+        routing.getConnection().close();
+    }
+}
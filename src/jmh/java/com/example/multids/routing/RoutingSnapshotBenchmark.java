@@ -0,0 +1,67 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingSnapshotBenchmark {
+
+    @Param({"1", "3", "32"})
+    private int datasourceCount;
+
+    private SequencedMap<String, ManagedDataSource> datasources;
+    private HealingRoutingDataSource routing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        datasources = new LinkedHashMap<>();
+        for (int i = 0; i < datasourceCount; i++) {
+            datasources.put("ds" + i, new ManagedDataSource(
+                    "ds" + i, new SingleDatasourceProperties(), p -> BenchmarkDataSources.noop(), (d, q) -> true));
+        }
+        // Worst case for a scan: only the lowest-priority datasource is healthy.
+        ManagedDataSource lowestPriority = datasources.lastEntry().getValue();
+        for (ManagedDataSource dataSource : datasources.values()) {
+            if (dataSource != lowestPriority) {
+                dataSource.markUnhealthy();
+            }
+        }
+        routing = new HealingRoutingDataSource(datasources);
+    }
+
+    @Benchmark
+    public Object snapshotLookup() {
+        return routing.determineCurrentLookupKey();
+    }
+
+    @Benchmark
+    public Object entrySetScan() {
+        for (Map.Entry<String, ManagedDataSource> entry : datasources.entrySet()) {
+            if (entry.getValue().isMarkedHealthy()) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("No healthy datasource available");
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.factory.HikariDataSourceFactory;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.SequencedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 10,000 borrowers started at once against one in-memory H2 pool of 50 connections, each holding its connection
+// for a millisecond of simulated I/O. Measures the time until every borrower is done, on platform versus virtual
+// threads and with and without the admission limit; borrows that failed are printed per iteration.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBorrowBenchmark {
+
+    private static final int BORROWERS = 10_000;
+    private static final int POOL_SIZE = 50;
+    private static final Duration HOLD = Duration.ofMillis(1);
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"false", "true"})
+    private boolean admission;
+
+    private final LongAdder failures = new LongAdder();
+    private HikariDataSource pool;
+    private HealingRoutingDataSource routing;
+    private ThreadFactory threadFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:virtual-borrow;DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(POOL_SIZE);
+        properties.setMinimumIdle(POOL_SIZE);
+        if (admission) {
+            properties.setAdmissionTimeout(Duration.ofSeconds(30));
+        }
+        pool = (HikariDataSource) new HikariDataSourceFactory().create(properties);
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", new ManagedDataSource(
+                "primary", properties, p -> pool, new JdbcDataSourceHealthStrategy()));
+        routing = new HealingRoutingDataSource(datasources);
+        threadFactory = "virtual".equals(threads) ? Thread.ofVirtual().factory() : Thread.ofPlatform().factory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportFailures() {
+        if (failures.sum() > 0) {
+            System.out.println("failed borrows: " + failures.sumThenReset());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public void borrowers() {
+        // Closing the executor waits for every borrower to finish.
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory)) {
+            for (int i = 0; i < BORROWERS; i++) {
+                executor.execute(this::borrowAndHold);
+            }
+        }
+    }
+
+    private void borrowAndHold() {
+        try (Connection connection = routing.getConnection()) {
+            Thread.sleep(HOLD);
+        } catch (SQLException ex) {
+            failures.increment();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+        }
+    }
+}
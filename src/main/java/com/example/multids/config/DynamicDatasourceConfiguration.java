@@ -1,21 +1,42 @@
 package com.example.multids.config;
 
+import com.example.multids.config.properties.CircuitBreakerProperties;
 import com.example.multids.config.properties.DynamicDatasourcesProperties;
+import com.example.multids.config.properties.HealthProbeProperties;
+import com.example.multids.config.properties.LatencyRoutingProperties;
+import com.example.multids.config.properties.PoolSizingProperties;
+import com.example.multids.config.properties.ReaderSelection;
+import com.example.multids.config.properties.RoutingProperties;
 import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.config.properties.StartupProperties;
+import com.example.multids.datasource.ConnectionBudget;
+import com.example.multids.datasource.ConnectionBudgetBalancer;
+import com.example.multids.datasource.DataSourceHealthProber;
+import com.example.multids.datasource.DynamicDataSourceManager;
 import com.example.multids.datasource.ManagedDataSource;
 import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.datasource.ParallelDataSourceInitializer;
+import com.example.multids.datasource.PoolSizeController;
 import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.health.ConnectionValidationHealthStrategy;
 import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import com.example.multids.datasource.health.TcpPreCheckHealthStrategy;
 import com.example.multids.routing.HealingRoutingDataSource;
-import java.util.Collections;
+import com.example.multids.routing.LeastOutstandingReaderSelectionStrategy;
+import com.example.multids.routing.PowerOfTwoChoicesSelectionStrategy;
+import com.example.multids.routing.ReaderSelectionStrategy;
+import com.example.multids.routing.RoundRobinReaderSelectionStrategy;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SequencedMap;
 import javax.sql.DataSource;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 @Configuration
 @EnableConfigurationProperties(DynamicDatasourcesProperties.class)
@@ -31,34 +52,213 @@ public class DynamicDatasourceConfiguration {
             throw new IllegalStateException("app.datasources must define at least one datasource");
         }
 
-        Map<String, ManagedDataSource> managedDataSources = new LinkedHashMap<>();
         for (Map.Entry<String, SingleDatasourceProperties> entry : properties.getDatasources().entrySet()) {
             validateDatasource(entry.getKey(), entry.getValue());
-            managedDataSources.put(
-                    entry.getKey(),
-                    new ManagedDataSource(entry.getKey(), entry.getValue(), dataSourceFactory, dataSourceHealthStrategy)
-            );
         }
-        return new MultiDataSourceRegistry(Collections.unmodifiableMap(new LinkedHashMap<>(managedDataSources)));
+        StartupProperties startup = properties.getStartup();
+        if (startup.getTimeout() == null || startup.getTimeout().isZero() || startup.getTimeout().isNegative()) {
+            throw new IllegalStateException("app.startup.timeout must be positive");
+        }
+
+        ConnectionBudget connectionBudget = connectionBudget(properties);
+
+        Map<String, ManagedDataSource> managedDataSources = new ParallelDataSourceInitializer(
+                dataSourceFactory, dataSourceHealthStrategy, startup.getTimeout(), startup.isWarmUp(), connectionBudget)
+                .initialize(properties.getDatasources());
+        return new MultiDataSourceRegistry(managedDataSources, connectionBudget);
+    }
+
+    @Bean
+    public DynamicDataSourceManager dynamicDataSourceManager(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties,
+            DataSourceFactory dataSourceFactory,
+            DataSourceHealthStrategy dataSourceHealthStrategy
+    ) {
+        StartupProperties startup = properties.getStartup();
+        ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(dataSourceFactory,
+                dataSourceHealthStrategy, startup.getTimeout(), startup.isWarmUp(), registry.getConnectionBudget());
+        return new DynamicDataSourceManager(registry, initializer, DynamicDatasourceConfiguration::validateDatasource);
     }
 
     @Bean
     @Primary
-    public DataSource routingDataSource(
-            MultiDataSourceRegistry registry
+    public DataSourceHealthStrategy dataSourceHealthStrategy(
+            DynamicDatasourcesProperties properties,
+            JdbcDataSourceHealthStrategy queryHealthStrategy
+    ) {
+        HealthProbeProperties healthProbe = properties.getHealthProbe();
+        if (healthProbe.getMode() == null) {
+            throw new IllegalStateException("app.health-probe.mode must be set");
+        }
+        return switch (healthProbe.getMode()) {
+            case QUERY -> queryHealthStrategy;
+            case CONNECTION_VALIDATION -> {
+                Duration timeout = healthProbe.getValidationTimeout();
+                if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+                    throw new IllegalStateException("app.health-probe.validation-timeout must be positive");
+                }
+                Duration livenessWindow = healthProbe.getLivenessWindow();
+                if (livenessWindow == null || livenessWindow.isNegative()) {
+                    throw new IllegalStateException("app.health-probe.liveness-window must be >= 0");
+                }
+                yield new ConnectionValidationHealthStrategy(timeout, livenessWindow);
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public DataSourceHealthProber dataSourceHealthProber(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties
+    ) {
+        HealthProbeProperties healthProbe = properties.getHealthProbe();
+        if (healthProbe.getInterval() == null || healthProbe.getInterval().isZero()
+                || healthProbe.getInterval().isNegative()) {
+            throw new IllegalStateException("app.health-probe.interval must be positive");
+        }
+        DataSourceHealthProber prober = new DataSourceHealthProber(registry, healthProbe.getInterval());
+        if (healthProbe.isEnabled()) {
+            prober.start();
+        }
+        return prober;
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolSizeController poolSizeController(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties
     ) {
-        SequencedMap<String, ManagedDataSource> orderedDataSources = new LinkedHashMap<>();
-        Map<Object, Object> targets = new LinkedHashMap<>();
-        for (Map.Entry<String, ManagedDataSource> entry : registry.datasources().entrySet()) {
-            orderedDataSources.put(entry.getKey(), entry.getValue());
-            targets.put(entry.getKey(), entry.getValue());
-        }
-        HealingRoutingDataSource routingDataSource = new HealingRoutingDataSource(orderedDataSources);
-        routingDataSource.setTargetDataSources(targets);
+        PoolSizingProperties poolSizing = properties.getPoolSizing();
+        if (poolSizing.getInterval() == null || poolSizing.getInterval().isZero()
+                || poolSizing.getInterval().isNegative()) {
+            throw new IllegalStateException("app.pool-sizing.interval must be positive");
+        }
+        if (!(poolSizing.getGrowUtilization() > 0.0d && poolSizing.getGrowUtilization() <= 1.0d)) {
+            throw new IllegalStateException("app.pool-sizing.grow-utilization must be > 0 and <= 1");
+        }
+        if (!(poolSizing.getShrinkUtilization() >= 0.0d
+                && poolSizing.getShrinkUtilization() < poolSizing.getGrowUtilization())) {
+            throw new IllegalStateException("app.pool-sizing.shrink-utilization must be >= 0 and below grow-utilization");
+        }
+        if (poolSizing.getStableIntervals() < 1) {
+            throw new IllegalStateException("app.pool-sizing.stable-intervals must be >= 1");
+        }
+        PoolSizeController controller = new PoolSizeController(registry, poolSizing);
+        if (poolSizing.isEnabled()) {
+            controller.start();
+        }
+        return controller;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ConnectionBudgetBalancer connectionBudgetBalancer(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties
+    ) {
+        Duration interval = properties.getConnectionBudget().getRebalanceInterval();
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalStateException("app.connection-budget.rebalance-interval must be positive");
+        }
+        ConnectionBudgetBalancer balancer =
+                new ConnectionBudgetBalancer(registry, registry.getConnectionBudget(), interval);
+        if (registry.getConnectionBudget().isLimited()) {
+            balancer.start();
+        }
+        return balancer;
+    }
+
+    // DataSourceTransactionManager borrows its connection before it marks the transaction read-only, so the router
+    // would see every transaction as read-write. The lazy proxy defers the borrow to the first statement, by which
+    // time @Transactional(readOnly = true) is visible and the borrow goes to a reader.
+    @Bean
+    @Primary
+    public DataSource dataSource(HealingRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HealingRoutingDataSource routingDataSource(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties
+    ) {
+        SequencedMap<String, ManagedDataSource> datasources = registry.datasources();
+        HealingRoutingDataSource routingDataSource = new HealingRoutingDataSource(datasources);
+        RoutingProperties routing = properties.getRouting();
+        if (routing.getHealTimeout() == null || routing.getHealTimeout().isZero()
+                || routing.getHealTimeout().isNegative()) {
+            throw new IllegalStateException("app.routing.heal-timeout must be positive");
+        }
+        if (routing.getFailoverAttempts() < 1) {
+            throw new IllegalStateException("app.routing.failover-attempts must be >= 1");
+        }
+        if (routing.getFailoverTimeout() == null || routing.getFailoverTimeout().isZero()
+                || routing.getFailoverTimeout().isNegative()) {
+            throw new IllegalStateException("app.routing.failover-timeout must be positive");
+        }
+        // With the prober running, recovery is its job and a request thread should not block on a heal.
+        routingDataSource.setHealOnDemand(routing.getHealOnDemand() == null
+                ? !properties.getHealthProbe().isEnabled()
+                : routing.getHealOnDemand());
+        routingDataSource.setHealTimeout(routing.getHealTimeout());
+        routingDataSource.setFailoverAttempts(routing.getFailoverAttempts());
+        routingDataSource.setFailoverTimeout(routing.getFailoverTimeout());
+        routingDataSource.setReaderSelectionStrategy(readerSelectionStrategy(routing.getReaderSelection()));
+        LatencyRoutingProperties latency = routing.getLatency();
+        if (latency != null && latency.isEnabled()) {
+            validateLatencyRouting(latency);
+            routingDataSource.setLatencyDemotionMultiple(latency.getDemotionMultiple());
+            routingDataSource.setLatencyFloor(latency.getMinimumLatency());
+            routingDataSource.setLatencyEvaluationInterval(latency.getEvaluationInterval());
+            routingDataSource.setLatencyRouting(true);
+        }
+        routingDataSource.setTargetDataSources(new LinkedHashMap<>(datasources));
         routingDataSource.afterPropertiesSet();
+        registry.addListener(routingDataSource::setDatasources);
         return routingDataSource;
     }
 
+    private static ConnectionBudget connectionBudget(DynamicDatasourcesProperties properties) {
+        Integer maximumConnections = properties.getConnectionBudget().getMaximumConnections();
+        if (maximumConnections == null) {
+            return ConnectionBudget.unlimited();
+        }
+        // Every pool keeps its minimum size, and a rebuild needs one more connection while the old pool drains.
+        int required = 1;
+        for (SingleDatasourceProperties datasource : properties.getDatasources().values()) {
+            required += datasource.getAdaptiveMinimumPoolSize() == null ? 1 : datasource.getAdaptiveMinimumPoolSize();
+        }
+        if (maximumConnections < required) {
+            throw new IllegalStateException("app.connection-budget.maximum-connections must be >= " + required
+                    + " (the minimum pool size of every datasource plus one for a rebuild)");
+        }
+        return new ConnectionBudget(maximumConnections);
+    }
+
+    private static void validateLatencyRouting(LatencyRoutingProperties latency) {
+        if (!(latency.getDemotionMultiple() > 1.0d)) {
+            throw new IllegalStateException("app.routing.latency.demotion-multiple must be > 1");
+        }
+        if (latency.getMinimumLatency() == null || latency.getMinimumLatency().isNegative()) {
+            throw new IllegalStateException("app.routing.latency.minimum-latency must be >= 0");
+        }
+        if (latency.getEvaluationInterval() == null || latency.getEvaluationInterval().isZero()
+                || latency.getEvaluationInterval().isNegative()) {
+            throw new IllegalStateException("app.routing.latency.evaluation-interval must be positive");
+        }
+    }
+
+    private static ReaderSelectionStrategy readerSelectionStrategy(ReaderSelection readerSelection) {
+        if (readerSelection == null) {
+            throw new IllegalStateException("app.routing.reader-selection must be set");
+        }
+        return switch (readerSelection) {
+            case ROUND_ROBIN -> new RoundRobinReaderSelectionStrategy();
+            case LEAST_OUTSTANDING -> new LeastOutstandingReaderSelectionStrategy();
+            case POWER_OF_TWO_CHOICES -> new PowerOfTwoChoicesSelectionStrategy();
+        };
+    }
+
     private static void validateDatasource(String name, SingleDatasourceProperties properties) {
         if (name == null || name.isBlank()) {
             throw new IllegalStateException("app.datasources contains a blank datasource key");
@@ -75,5 +275,69 @@ public class DynamicDatasourceConfiguration {
         if (properties.getMaximumPoolSize() < 1) {
             throw new IllegalStateException("app.datasources." + name + ".maximum-pool-size must be >= 1");
         }
+        if (properties.getMinimumIdle() != null
+                && (properties.getMinimumIdle() < 0 || properties.getMinimumIdle() > properties.getMaximumPoolSize())) {
+            throw new IllegalStateException(
+                    "app.datasources." + name + ".minimum-idle must be between 0 and maximum-pool-size");
+        }
+        Integer adaptiveMinimum = properties.getAdaptiveMinimumPoolSize();
+        if (adaptiveMinimum != null && (adaptiveMinimum < 1 || adaptiveMinimum > properties.getMaximumPoolSize())) {
+            throw new IllegalStateException(
+                    "app.datasources." + name + ".adaptive-minimum-pool-size must be between 1 and maximum-pool-size");
+        }
+        Integer adaptiveMaximum = properties.getAdaptiveMaximumPoolSize();
+        if (adaptiveMaximum != null && adaptiveMaximum < properties.getMaximumPoolSize()) {
+            throw new IllegalStateException(
+                    "app.datasources." + name + ".adaptive-maximum-pool-size must be >= maximum-pool-size");
+        }
+        if (properties.getTags() != null
+                && properties.getTags().stream().anyMatch(tag -> tag == null || tag.isBlank())) {
+            throw new IllegalStateException("app.datasources." + name + ".tags must not contain blank tags");
+        }
+        if (properties.getIdleTimeout() != null
+                && (properties.getIdleTimeout().isZero() || properties.getIdleTimeout().isNegative())) {
+            throw new IllegalStateException("app.datasources." + name + ".idle-timeout must be positive");
+        }
+        if (properties.getDrainTimeout() != null && properties.getDrainTimeout().isNegative()) {
+            throw new IllegalStateException("app.datasources." + name + ".drain-timeout must be >= 0");
+        }
+        Duration probeTimeout = properties.getProbeTimeout();
+        if (probeTimeout == null || probeTimeout.isZero() || probeTimeout.isNegative()) {
+            throw new IllegalStateException("app.datasources." + name + ".probe-timeout must be positive");
+        }
+        if (properties.isTcpPreCheck() && TcpPreCheckHealthStrategy.endpointOf(properties.getUrl()).isEmpty()) {
+            throw new IllegalStateException("app.datasources." + name + ".tcp-pre-check requires a url with a host");
+        }
+        Duration admissionTimeout = properties.getAdmissionTimeout();
+        if (admissionTimeout != null && (admissionTimeout.isZero() || admissionTimeout.isNegative())) {
+            throw new IllegalStateException("app.datasources." + name + ".admission-timeout must be positive");
+        }
+        if (properties.getSoftEvictAttempts() < 0) {
+            throw new IllegalStateException("app.datasources." + name + ".soft-evict-attempts must be >= 0");
+        }
+        CircuitBreakerProperties circuitBreaker = properties.getCircuitBreaker();
+        if (circuitBreaker != null && circuitBreaker.isEnabled()) {
+            validateCircuitBreaker(name, circuitBreaker);
+        }
+    }
+
+    private static void validateCircuitBreaker(String name, CircuitBreakerProperties properties) {
+        String prefix = "app.datasources." + name + ".circuit-breaker.";
+        if (properties.getSlidingWindowSize() < 1) {
+            throw new IllegalStateException(prefix + "sliding-window-size must be >= 1");
+        }
+        if (properties.getMinimumNumberOfCalls() < 1
+                || properties.getMinimumNumberOfCalls() > properties.getSlidingWindowSize()) {
+            throw new IllegalStateException(prefix + "minimum-number-of-calls must be between 1 and sliding-window-size");
+        }
+        if (properties.getFailureRateThreshold() <= 0 || properties.getFailureRateThreshold() > 100) {
+            throw new IllegalStateException(prefix + "failure-rate-threshold must be > 0 and <= 100");
+        }
+        if (properties.getOpenDuration() == null || properties.getOpenDuration().isNegative()) {
+            throw new IllegalStateException(prefix + "open-duration must be >= 0");
+        }
+        if (properties.getPermittedCallsInHalfOpenState() < 1) {
+            throw new IllegalStateException(prefix + "permitted-calls-in-half-open-state must be >= 1");
+        }
     }
 }
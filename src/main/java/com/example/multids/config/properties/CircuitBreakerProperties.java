@@ -0,0 +1,84 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public class CircuitBreakerProperties {
+
+    private boolean enabled;
+    private int slidingWindowSize = 20;
+    private int minimumNumberOfCalls = 10;
+    private float failureRateThreshold = 50.0f;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 3;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CircuitBreakerProperties that)) {
+            return false;
+        }
+        return enabled == that.enabled
+                && slidingWindowSize == that.slidingWindowSize
+                && minimumNumberOfCalls == that.minimumNumberOfCalls
+                && Float.compare(failureRateThreshold, that.failureRateThreshold) == 0
+                && Objects.equals(openDuration, that.openDuration)
+                && permittedCallsInHalfOpenState == that.permittedCallsInHalfOpenState;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, slidingWindowSize, minimumNumberOfCalls, failureRateThreshold,
+                openDuration, permittedCallsInHalfOpenState);
+    }
+}
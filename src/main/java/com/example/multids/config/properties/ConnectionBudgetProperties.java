@@ -0,0 +1,25 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class ConnectionBudgetProperties {
+
+    private Integer maximumConnections;
+    private Duration rebalanceInterval = Duration.ofSeconds(10);
+
+    public Integer getMaximumConnections() {
+        return maximumConnections;
+    }
+
+    public void setMaximumConnections(Integer maximumConnections) {
+        this.maximumConnections = maximumConnections;
+    }
+
+    public Duration getRebalanceInterval() {
+        return rebalanceInterval;
+    }
+
+    public void setRebalanceInterval(Duration rebalanceInterval) {
+        this.rebalanceInterval = rebalanceInterval;
+    }
+}
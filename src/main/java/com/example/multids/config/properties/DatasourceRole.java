@@ -0,0 +1,6 @@
+package com.example.multids.config.properties;
+
+public enum DatasourceRole {
+    WRITER,
+    READER
+}
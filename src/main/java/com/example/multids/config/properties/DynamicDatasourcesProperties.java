@@ -8,6 +8,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class DynamicDatasourcesProperties {
 
     private Map<String, SingleDatasourceProperties> datasources = new LinkedHashMap<>();
+    private HealthProbeProperties healthProbe = new HealthProbeProperties();
+    private RoutingProperties routing = new RoutingProperties();
+    private StartupProperties startup = new StartupProperties();
+    private PoolSizingProperties poolSizing = new PoolSizingProperties();
+    private ConnectionBudgetProperties connectionBudget = new ConnectionBudgetProperties();
 
     public Map<String, SingleDatasourceProperties> getDatasources() {
         return datasources;
@@ -16,4 +21,44 @@ public class DynamicDatasourcesProperties {
     public void setDatasources(Map<String, SingleDatasourceProperties> datasources) {
         this.datasources = datasources;
     }
+
+    public HealthProbeProperties getHealthProbe() {
+        return healthProbe;
+    }
+
+    public void setHealthProbe(HealthProbeProperties healthProbe) {
+        this.healthProbe = healthProbe;
+    }
+
+    public RoutingProperties getRouting() {
+        return routing;
+    }
+
+    public void setRouting(RoutingProperties routing) {
+        this.routing = routing;
+    }
+
+    public StartupProperties getStartup() {
+        return startup;
+    }
+
+    public void setStartup(StartupProperties startup) {
+        this.startup = startup;
+    }
+
+    public PoolSizingProperties getPoolSizing() {
+        return poolSizing;
+    }
+
+    public void setPoolSizing(PoolSizingProperties poolSizing) {
+        this.poolSizing = poolSizing;
+    }
+
+    public ConnectionBudgetProperties getConnectionBudget() {
+        return connectionBudget;
+    }
+
+    public void setConnectionBudget(ConnectionBudgetProperties connectionBudget) {
+        this.connectionBudget = connectionBudget;
+    }
 }
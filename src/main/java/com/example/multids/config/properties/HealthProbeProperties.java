@@ -0,0 +1,52 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class HealthProbeProperties {
+
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(5);
+    private HealthCheckMode mode = HealthCheckMode.QUERY;
+    private Duration validationTimeout = Duration.ofSeconds(5);
+    private Duration livenessWindow = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public HealthCheckMode getMode() {
+        return mode;
+    }
+
+    public void setMode(HealthCheckMode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout(Duration validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    public Duration getLivenessWindow() {
+        return livenessWindow;
+    }
+
+    public void setLivenessWindow(Duration livenessWindow) {
+        this.livenessWindow = livenessWindow;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class LatencyRoutingProperties {
+
+    private boolean enabled;
+    private double demotionMultiple = 3.0d;
+    private Duration minimumLatency = Duration.ofMillis(5);
+    private Duration evaluationInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getDemotionMultiple() {
+        return demotionMultiple;
+    }
+
+    public void setDemotionMultiple(double demotionMultiple) {
+        this.demotionMultiple = demotionMultiple;
+    }
+
+    public Duration getMinimumLatency() {
+        return minimumLatency;
+    }
+
+    public void setMinimumLatency(Duration minimumLatency) {
+        this.minimumLatency = minimumLatency;
+    }
+
+    public Duration getEvaluationInterval() {
+        return evaluationInterval;
+    }
+
+    public void setEvaluationInterval(Duration evaluationInterval) {
+        this.evaluationInterval = evaluationInterval;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class PoolSizingProperties {
+
+    private boolean enabled;
+    private Duration interval = Duration.ofSeconds(10);
+    private double growUtilization = 0.8d;
+    private double shrinkUtilization = 0.3d;
+    private int stableIntervals = 3;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public double getGrowUtilization() {
+        return growUtilization;
+    }
+
+    public void setGrowUtilization(double growUtilization) {
+        this.growUtilization = growUtilization;
+    }
+
+    public double getShrinkUtilization() {
+        return shrinkUtilization;
+    }
+
+    public void setShrinkUtilization(double shrinkUtilization) {
+        this.shrinkUtilization = shrinkUtilization;
+    }
+
+    public int getStableIntervals() {
+        return stableIntervals;
+    }
+
+    public void setStableIntervals(int stableIntervals) {
+        this.stableIntervals = stableIntervals;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.multids.config.properties;
+
+public enum ReaderSelection {
+    ROUND_ROBIN,
+    LEAST_OUTSTANDING,
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,62 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class RoutingProperties {
+
+    // Unset means heal on demand only when the background health prober is disabled.
+    private Boolean healOnDemand;
+    private Duration healTimeout = Duration.ofSeconds(10);
+    private int failoverAttempts = 3;
+    private Duration failoverTimeout = Duration.ofSeconds(5);
+    private ReaderSelection readerSelection = ReaderSelection.ROUND_ROBIN;
+    private LatencyRoutingProperties latency = new LatencyRoutingProperties();
+
+    public Boolean getHealOnDemand() {
+        return healOnDemand;
+    }
+
+    public void setHealOnDemand(Boolean healOnDemand) {
+        this.healOnDemand = healOnDemand;
+    }
+
+    public Duration getHealTimeout() {
+        return healTimeout;
+    }
+
+    public void setHealTimeout(Duration healTimeout) {
+        this.healTimeout = healTimeout;
+    }
+
+    public int getFailoverAttempts() {
+        return failoverAttempts;
+    }
+
+    public void setFailoverAttempts(int failoverAttempts) {
+        this.failoverAttempts = failoverAttempts;
+    }
+
+    public Duration getFailoverTimeout() {
+        return failoverTimeout;
+    }
+
+    public void setFailoverTimeout(Duration failoverTimeout) {
+        this.failoverTimeout = failoverTimeout;
+    }
+
+    public ReaderSelection getReaderSelection() {
+        return readerSelection;
+    }
+
+    public void setReaderSelection(ReaderSelection readerSelection) {
+        this.readerSelection = readerSelection;
+    }
+
+    public LatencyRoutingProperties getLatency() {
+        return latency;
+    }
+
+    public void setLatency(LatencyRoutingProperties latency) {
+        this.latency = latency;
+    }
+}
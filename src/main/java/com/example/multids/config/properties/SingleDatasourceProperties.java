@@ -1,5 +1,10 @@
 package com.example.multids.config.properties;
 
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
 public class SingleDatasourceProperties {
 
     private String url;
@@ -7,7 +12,22 @@ public class SingleDatasourceProperties {
     private String password;
     private String driverClassName;
     private String validationQuery = "SELECT 1";
+    private Duration probeTimeout = Duration.ofSeconds(5);
+    private boolean tcpPreCheck;
     private int maximumPoolSize = 10;
+    private Integer minimumIdle;
+    private Integer adaptiveMinimumPoolSize;
+    private Integer adaptiveMaximumPoolSize;
+    private DatasourceRole role = DatasourceRole.WRITER;
+    private Integer priority;
+    private Set<String> tags = new LinkedHashSet<>();
+    private boolean lazy;
+    private Duration idleTimeout;
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    private int softEvictAttempts = 2;
+    private Duration healWaitTimeout = Duration.ofSeconds(10);
+    private Duration admissionTimeout;
+    private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
 
     public String getUrl() {
         return url;
@@ -49,6 +69,22 @@ public class SingleDatasourceProperties {
         this.validationQuery = validationQuery;
     }
 
+    public Duration getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    public void setProbeTimeout(Duration probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+
+    public boolean isTcpPreCheck() {
+        return tcpPreCheck;
+    }
+
+    public void setTcpPreCheck(boolean tcpPreCheck) {
+        this.tcpPreCheck = tcpPreCheck;
+    }
+
     public int getMaximumPoolSize() {
         return maximumPoolSize;
     }
@@ -56,4 +92,145 @@ public class SingleDatasourceProperties {
     public void setMaximumPoolSize(int maximumPoolSize) {
         this.maximumPoolSize = maximumPoolSize;
     }
+
+    public Integer getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(Integer minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public Integer getAdaptiveMinimumPoolSize() {
+        return adaptiveMinimumPoolSize;
+    }
+
+    public void setAdaptiveMinimumPoolSize(Integer adaptiveMinimumPoolSize) {
+        this.adaptiveMinimumPoolSize = adaptiveMinimumPoolSize;
+    }
+
+    public Integer getAdaptiveMaximumPoolSize() {
+        return adaptiveMaximumPoolSize;
+    }
+
+    public void setAdaptiveMaximumPoolSize(Integer adaptiveMaximumPoolSize) {
+        this.adaptiveMaximumPoolSize = adaptiveMaximumPoolSize;
+    }
+
+    public DatasourceRole getRole() {
+        return role;
+    }
+
+    public void setRole(DatasourceRole role) {
+        this.role = role;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+        this.tags = tags;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public void setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+
+    public int getSoftEvictAttempts() {
+        return softEvictAttempts;
+    }
+
+    public void setSoftEvictAttempts(int softEvictAttempts) {
+        this.softEvictAttempts = softEvictAttempts;
+    }
+
+    public Duration getHealWaitTimeout() {
+        return healWaitTimeout;
+    }
+
+    public void setHealWaitTimeout(Duration healWaitTimeout) {
+        this.healWaitTimeout = healWaitTimeout;
+    }
+
+    public Duration getAdmissionTimeout() {
+        return admissionTimeout;
+    }
+
+    public void setAdmissionTimeout(Duration admissionTimeout) {
+        this.admissionTimeout = admissionTimeout;
+    }
+
+    public CircuitBreakerProperties getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Value equality lets a configuration refresh rebuild only the datasources whose settings changed.
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SingleDatasourceProperties that)) {
+            return false;
+        }
+        return tcpPreCheck == that.tcpPreCheck
+                && maximumPoolSize == that.maximumPoolSize
+                && lazy == that.lazy
+                && softEvictAttempts == that.softEvictAttempts
+                && Objects.equals(url, that.url)
+                && Objects.equals(username, that.username)
+                && Objects.equals(password, that.password)
+                && Objects.equals(driverClassName, that.driverClassName)
+                && Objects.equals(validationQuery, that.validationQuery)
+                && Objects.equals(probeTimeout, that.probeTimeout)
+                && Objects.equals(minimumIdle, that.minimumIdle)
+                && Objects.equals(adaptiveMinimumPoolSize, that.adaptiveMinimumPoolSize)
+                && Objects.equals(adaptiveMaximumPoolSize, that.adaptiveMaximumPoolSize)
+                && role == that.role
+                && Objects.equals(priority, that.priority)
+                && Objects.equals(tags, that.tags)
+                && Objects.equals(idleTimeout, that.idleTimeout)
+                && Objects.equals(drainTimeout, that.drainTimeout)
+                && Objects.equals(healWaitTimeout, that.healWaitTimeout)
+                && Objects.equals(admissionTimeout, that.admissionTimeout)
+                && Objects.equals(circuitBreaker, that.circuitBreaker);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, username, driverClassName, maximumPoolSize, role, priority);
+    }
 }
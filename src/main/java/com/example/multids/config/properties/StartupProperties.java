@@ -0,0 +1,25 @@
+package com.example.multids.config.properties;
+
+import java.time.Duration;
+
+public class StartupProperties {
+
+    private Duration timeout = Duration.ofSeconds(30);
+    private boolean warmUp;
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+}
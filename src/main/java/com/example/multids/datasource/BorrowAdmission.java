@@ -0,0 +1,118 @@
+package com.example.multids.datasource;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Admits at most as many concurrent borrows as the pool has connections. Borrowers past the limit park in FIFO
+// order on a semaphore, which on a virtual thread releases the carrier, instead of queueing inside the pool. The
+// limit follows the pool as it is resized or rebuilt, and a permit is held until the leased connection is closed.
+final class BorrowAdmission {
+
+    private static final BorrowAdmission UNLIMITED = new BorrowAdmission();
+
+    private final Permits permits;
+    private final long timeoutNanos;
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private int limit;
+
+    private BorrowAdmission() {
+        this.permits = null;
+        this.timeoutNanos = 0L;
+        this.limit = Integer.MAX_VALUE;
+    }
+
+    BorrowAdmission(int limit, Duration timeout) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
+        Objects.requireNonNull(timeout, "timeout is required");
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.permits = new Permits(limit);
+        this.timeoutNanos = timeout.toNanos();
+        this.limit = limit;
+    }
+
+    static BorrowAdmission unlimited() {
+        return UNLIMITED;
+    }
+
+    boolean isLimited() {
+        return permits != null;
+    }
+
+    int getLimit() {
+        resizeLock.lock();
+        try {
+            return limit;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    int getAvailablePermits() {
+        return permits == null ? Integer.MAX_VALUE : permits.availablePermits();
+    }
+
+    int getWaitingBorrowers() {
+        return permits == null ? 0 : permits.getQueueLength();
+    }
+
+    void acquire(String datasource) throws SQLException {
+        if (permits == null) {
+            return;
+        }
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Datasource " + datasource + " admitted no borrow within "
+                        + Duration.ofNanos(timeoutNanos) + " (limit " + getLimit() + ", "
+                        + permits.getQueueLength() + " waiting)");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(
+                    "Interrupted while waiting for admission to datasource " + datasource, ex);
+        }
+    }
+
+    void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    // Shrinking takes permits away as borrows return them, so connections already admitted are never revoked.
+    void resize(int newLimit) {
+        if (permits == null || newLimit < 1) {
+            return;
+        }
+        resizeLock.lock();
+        try {
+            int delta = newLimit - limit;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.reduce(-delta);
+            }
+            limit = newLimit;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    private static final class Permits extends Semaphore {
+        private Permits(int permits) {
+            super(permits, true);
+        }
+
+        private void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.multids.datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.example.multids.BorrowFailure")
+@Label("Borrow Failure")
+@Category({"Multi Datasource", "Borrow"})
+@Description("A connection borrow failed or was rejected by the circuit breaker")
+@Enabled(false)
+class BorrowFailureEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("Outcome")
+    @Description("Exception class of the failure")
+    String outcome;
+
+    @Label("Message")
+    String message;
+
+    @Label("Borrow Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long borrowTime;
+}
@@ -0,0 +1,195 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.CircuitBreakerProperties;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+
+    private static final int NO_OUTCOME = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+
+    private final boolean enabled;
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final long openDurationNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final LongSupplier nanoClock;
+    private final TransitionListener transitionListener;
+
+    private final AtomicIntegerArray window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger recordedCalls = new AtomicInteger();
+    private final AtomicInteger recordedFailures = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+    private final ReentrantLock transitionLock = new ReentrantLock();
+
+    private volatile CircuitState state;
+    private volatile long openedAtNanos;
+
+    // When disabled the breaker keeps the original semantics: any failure opens, any success closes.
+    public CircuitBreaker(
+            CircuitBreakerProperties properties,
+            boolean initiallyClosed,
+            LongSupplier nanoClock,
+            TransitionListener transitionListener
+    ) {
+        Objects.requireNonNull(properties, "properties are required");
+        this.enabled = properties.isEnabled();
+        this.minimumNumberOfCalls = properties.getMinimumNumberOfCalls();
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openDurationNanos = properties.getOpenDuration() == null ? 0L : properties.getOpenDuration().toNanos();
+        this.permittedCallsInHalfOpenState = properties.getPermittedCallsInHalfOpenState();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock is required");
+        this.transitionListener = Objects.requireNonNull(transitionListener, "transitionListener is required");
+        this.window = new AtomicIntegerArray(enabled ? Math.max(1, properties.getSlidingWindowSize()) : 1);
+        this.state = initiallyClosed ? CircuitState.CLOSED : CircuitState.OPEN;
+        // A datasource that is already down at startup may be probed right away.
+        this.openedAtNanos = nanoClock.getAsLong() - openDurationNanos;
+    }
+
+    public CircuitState state() {
+        return state;
+    }
+
+    public boolean isRoutable() {
+        return state != CircuitState.OPEN;
+    }
+
+    public boolean tryAcquirePermission() {
+        if (!enabled) {
+            return true;
+        }
+        CircuitState current = state;
+        if (current == CircuitState.CLOSED) {
+            return true;
+        }
+        if (current == CircuitState.OPEN) {
+            return false;
+        }
+        int permits = halfOpenPermits.get();
+        while (permits > 0) {
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+            permits = halfOpenPermits.get();
+        }
+        return false;
+    }
+
+    // Hands back a half-open trial permit taken by a call that never reached the database.
+    public void releasePermission() {
+        if (enabled && state == CircuitState.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public void onSuccess() {
+        CircuitState current = state;
+        if (!enabled) {
+            if (current != CircuitState.CLOSED) {
+                transition(current, CircuitState.CLOSED);
+            }
+            return;
+        }
+        if (current == CircuitState.CLOSED) {
+            record(SUCCESS);
+        } else if (current == CircuitState.HALF_OPEN
+                && halfOpenSuccesses.incrementAndGet() >= permittedCallsInHalfOpenState) {
+            transition(CircuitState.HALF_OPEN, CircuitState.CLOSED);
+        }
+    }
+
+    public void onFailure() {
+        CircuitState current = state;
+        if (!enabled || current == CircuitState.HALF_OPEN) {
+            if (current != CircuitState.OPEN) {
+                transition(current, CircuitState.OPEN);
+            }
+            return;
+        }
+        if (current == CircuitState.CLOSED && record(FAILURE)) {
+            transition(CircuitState.CLOSED, CircuitState.OPEN);
+        }
+    }
+
+    public void trip() {
+        CircuitState current = state;
+        if (current != CircuitState.OPEN) {
+            transition(current, CircuitState.OPEN);
+        }
+    }
+
+    public boolean allowsProbe() {
+        return !enabled
+                || state != CircuitState.OPEN
+                || nanoClock.getAsLong() - openedAtNanos >= openDurationNanos;
+    }
+
+    public void onProbeSuccess() {
+        CircuitState current = state;
+        if (current != CircuitState.OPEN) {
+            return;
+        }
+        transition(CircuitState.OPEN, enabled ? CircuitState.HALF_OPEN : CircuitState.CLOSED);
+    }
+
+    public void onProbeFailure() {
+        CircuitState current = state;
+        if (current == CircuitState.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        } else {
+            transition(current, CircuitState.OPEN);
+        }
+    }
+
+    private boolean record(int outcome) {
+        int slot = (int) (cursor.getAndIncrement() % window.length());
+        int previous = window.getAndSet(slot, outcome);
+        int calls = previous == NO_OUTCOME ? recordedCalls.incrementAndGet() : recordedCalls.get();
+        int failures = recordedFailures.addAndGet((outcome == FAILURE ? 1 : 0) - (previous == FAILURE ? 1 : 0));
+        return outcome == FAILURE
+                && calls >= minimumNumberOfCalls
+                && failures * 100.0f >= failureRateThreshold * calls;
+    }
+
+    private void transition(CircuitState expected, CircuitState target) {
+        transitionLock.lock();
+        try {
+            if (state != expected) {
+                return;
+            }
+            if (target == CircuitState.OPEN) {
+                openedAtNanos = nanoClock.getAsLong();
+            } else if (target == CircuitState.HALF_OPEN) {
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(permittedCallsInHalfOpenState);
+            } else {
+                resetWindow();
+            }
+            state = target;
+        } finally {
+            transitionLock.unlock();
+        }
+        transitionListener.transitioned(expected, target);
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < window.length(); i++) {
+            window.set(i, NO_OUTCOME);
+        }
+        recordedCalls.set(0);
+        recordedFailures.set(0);
+    }
+
+    @FunctionalInterface
+    public interface TransitionListener {
+        void transitioned(CircuitState from, CircuitState to);
+    }
+}
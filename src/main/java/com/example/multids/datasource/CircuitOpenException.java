@@ -0,0 +1,10 @@
+package com.example.multids.datasource;
+
+import java.sql.SQLTransientConnectionException;
+
+public class CircuitOpenException extends SQLTransientConnectionException {
+
+    public CircuitOpenException(String datasourceName) {
+        super("Circuit breaker for datasource " + datasourceName + " is not admitting borrows");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.multids.datasource;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
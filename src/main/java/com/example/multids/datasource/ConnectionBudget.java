@@ -0,0 +1,91 @@
+package com.example.multids.datasource;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+// Ledger of the maximum-pool-size of every open pool, draining ones included. Pools are charged when they are
+// created or grown and credited when they shrink or close, and a request the budget cannot cover is trimmed
+// rather than allowed to overshoot.
+public class ConnectionBudget {
+
+    private final int maximumConnections;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile IntConsumer reclaimer = connections -> { };
+    private int granted;
+
+    public ConnectionBudget(int maximumConnections) {
+        if (maximumConnections < 1) {
+            throw new IllegalArgumentException("maximumConnections must be >= 1");
+        }
+        this.maximumConnections = maximumConnections;
+    }
+
+    public static ConnectionBudget unlimited() {
+        return new ConnectionBudget(Integer.MAX_VALUE);
+    }
+
+    public boolean isLimited() {
+        return maximumConnections != Integer.MAX_VALUE;
+    }
+
+    public int getMaximumConnections() {
+        return maximumConnections;
+    }
+
+    public int getGrantedConnections() {
+        lock.lock();
+        try {
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAvailableConnections() {
+        lock.lock();
+        try {
+            return maximumConnections - granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Asked to shrink other pools when a new pool cannot get its minimum; runs outside the ledger lock.
+    public void setReclaimer(IntConsumer reclaimer) {
+        this.reclaimer = Objects.requireNonNull(reclaimer, "reclaimer is required");
+    }
+
+    // Grants up to the requested connections, or nothing when fewer than minimum are left after reclaiming.
+    int acquire(int connections, int minimum) {
+        int grant = tryAcquire(connections, minimum);
+        if (grant == 0 && minimum > 0) {
+            reclaimer.accept(minimum - getAvailableConnections());
+            grant = tryAcquire(connections, minimum);
+        }
+        return grant;
+    }
+
+    void release(int connections) {
+        lock.lock();
+        try {
+            granted = Math.max(0, granted - connections);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int tryAcquire(int connections, int minimum) {
+        lock.lock();
+        try {
+            int grant = Math.min(connections, maximumConnections - granted);
+            if (grant <= 0 || grant < minimum) {
+                return 0;
+            }
+            granted += grant;
+            return grant;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.multids.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Splits a connection budget into per-datasource shares. Every datasource keeps its minimum pool size, connections
+// in use or awaited are covered next in priority order, and what is left goes to routable datasources in priority
+// order up to the size their pool asks for. Shares are recomputed on an interval, when the registry changes and
+// when a datasource becomes routable or unroutable, so capacity follows the active datasource on failover.
+public class ConnectionBudgetBalancer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionBudgetBalancer.class);
+
+    private final MultiDataSourceRegistry registry;
+    private final ConnectionBudget budget;
+    private final Duration interval;
+    private final ScheduledExecutorService executor;
+    private final ReentrantLock balanceLock = new ReentrantLock();
+    private final AtomicBoolean rebalancePending = new AtomicBoolean();
+    private final Set<ManagedDataSource> observed = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private ScheduledFuture<?> task;
+
+    public ConnectionBudgetBalancer(MultiDataSourceRegistry registry, ConnectionBudget budget, Duration interval) {
+        this.registry = Objects.requireNonNull(registry, "registry is required");
+        this.budget = Objects.requireNonNull(budget, "budget is required");
+        this.interval = Objects.requireNonNull(interval, "interval is required");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("datasource-budget-balancer").daemon().factory()
+        );
+    }
+
+    // Apportions the budget once before returning, so pools leave their startup floor straight away.
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (task != null) {
+                return;
+            }
+            budget.setReclaimer(this::reclaim);
+            registry.addListener(datasources -> {
+                observe(datasources.values());
+                requestRebalance();
+            });
+            observe(registry.datasources().values());
+            rebalance();
+            long millis = interval.toMillis();
+            task = executor.scheduleWithFixedDelay(this::rebalance, millis, millis, TimeUnit.MILLISECONDS);
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        lifecycleLock.lock();
+        try {
+            return task != null && !executor.isShutdown();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public void rebalance() {
+        balanceLock.lock();
+        try {
+            Map<ManagedDataSource, Integer> shares = apportion(ranked());
+            // Shrink first so growing pools only take capacity that has already been handed back.
+            shares.forEach((dataSource, share) -> {
+                if (share < dataSource.getConnectionShare()) {
+                    apply(dataSource, share);
+                }
+            });
+            shares.forEach((dataSource, share) -> {
+                if (share >= dataSource.getConnectionShare()) {
+                    apply(dataSource, share);
+                }
+            });
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    Map<ManagedDataSource, Integer> apportion(List<ManagedDataSource> ranked) {
+        Map<ManagedDataSource, Integer> shares = new LinkedHashMap<>();
+        int remaining = budget.getMaximumConnections();
+        for (ManagedDataSource dataSource : ranked) {
+            shares.put(dataSource, dataSource.getMinimumPoolSize());
+            remaining -= dataSource.getMinimumPoolSize();
+        }
+        for (ManagedDataSource dataSource : ranked) {
+            remaining -= grant(shares, dataSource, Math.min(demand(dataSource), wanted(dataSource)), remaining);
+        }
+        for (ManagedDataSource dataSource : ranked) {
+            if (dataSource.isMarkedHealthy()) {
+                remaining -= grant(shares, dataSource, wanted(dataSource), remaining);
+            }
+        }
+        return shares;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static int grant(Map<ManagedDataSource, Integer> shares, ManagedDataSource dataSource, int upTo,
+            int remaining) {
+        int added = Math.clamp(upTo - shares.get(dataSource), 0, Math.max(0, remaining));
+        shares.merge(dataSource, added, Integer::sum);
+        return added;
+    }
+
+    private static int demand(ManagedDataSource dataSource) {
+        try {
+            return dataSource.getPoolUsage().map(usage -> usage.active() + usage.awaiting()).orElse(0);
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Reading pool usage failed for datasource {}", dataSource.getName(), ex);
+            return 0;
+        }
+    }
+
+    private static int wanted(ManagedDataSource dataSource) {
+        return Math.max(dataSource.getMinimumPoolSize(), dataSource.getDesiredPoolSize());
+    }
+
+    // Same order as routing: explicit priority first, configured position for ties and for datasources without one.
+    private List<ManagedDataSource> ranked() {
+        List<ManagedDataSource> ranked = new ArrayList<>(registry.datasources().values());
+        Map<ManagedDataSource, Integer> positions = new LinkedHashMap<>();
+        for (ManagedDataSource dataSource : ranked) {
+            positions.put(dataSource, positions.size());
+        }
+        ranked.sort(Comparator.<ManagedDataSource>comparingInt(
+                        dataSource -> dataSource.getPriority().orElse(positions.get(dataSource)))
+                .thenComparingInt(positions::get));
+        return ranked;
+    }
+
+    private void apply(ManagedDataSource dataSource, int share) {
+        try {
+            dataSource.setConnectionShare(share);
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Applying a connection share of {} failed for datasource {}", share, dataSource.getName(), ex);
+        }
+    }
+
+    // Lowest priority first, and only from datasources that are not busy creating or resizing a pool themselves.
+    private void reclaim(int connections) {
+        List<ManagedDataSource> ranked = ranked();
+        int reclaimed = 0;
+        for (int i = ranked.size() - 1; i >= 0 && reclaimed < connections; i--) {
+            try {
+                reclaimed += ranked.get(i).yieldConnections(connections - reclaimed);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Reclaiming connections failed for datasource {}", ranked.get(i).getName(), ex);
+            }
+        }
+    }
+
+    private void observe(Iterable<ManagedDataSource> datasources) {
+        for (ManagedDataSource dataSource : datasources) {
+            if (observed.add(dataSource)) {
+                dataSource.addHealthStateListener((changed, healthy) -> requestRebalance());
+            }
+        }
+    }
+
+    // Listeners fire on borrow and registry threads that may hold datasource locks, so the work is handed off and
+    // bursts of transitions collapse into one pass.
+    private void requestRebalance() {
+        if (!rebalancePending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                rebalancePending.set(false);
+                rebalance();
+            });
+        } catch (RejectedExecutionException ex) {
+            rebalancePending.set(false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.multids.datasource;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class ConnectionLeases {
+
+    private final ConnectionLeases total;
+    private final AtomicInteger leased = new AtomicInteger();
+    private volatile Runnable onDrained;
+
+    ConnectionLeases() {
+        this(null);
+    }
+
+    ConnectionLeases(ConnectionLeases total) {
+        this.total = total;
+    }
+
+    int leased() {
+        return leased.get();
+    }
+
+    boolean isDraining() {
+        return onDrained != null;
+    }
+
+    // Reserves before the borrow so a draining pool is never closed underneath a borrower.
+    boolean tryReserve() {
+        increment();
+        if (onDrained != null) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    Connection lease(Connection connection) {
+        return lease(connection, BorrowAdmission.unlimited());
+    }
+
+    Connection lease(Connection connection, BorrowAdmission admission) {
+        return new LeasedConnection(connection, this, admission);
+    }
+
+    void release() {
+        if (total != null) {
+            total.leased.decrementAndGet();
+        }
+        if (leased.decrementAndGet() == 0) {
+            Runnable drained = onDrained;
+            if (drained != null) {
+                drained.run();
+            }
+        }
+    }
+
+    void drain(Runnable onDrained) {
+        this.onDrained = onDrained;
+    }
+
+    private void increment() {
+        if (total != null) {
+            total.leased.incrementAndGet();
+        }
+        leased.incrementAndGet();
+    }
+}
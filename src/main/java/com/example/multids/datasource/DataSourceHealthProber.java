@@ -0,0 +1,121 @@
+package com.example.multids.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DataSourceHealthProber implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceHealthProber.class);
+
+    private final MultiDataSourceRegistry registry;
+    private final Duration interval;
+    private final ScheduledExecutorService executor;
+    private final ThreadFactory healThreadFactory = Thread.ofVirtual().name("datasource-background-heal-", 0).factory();
+    private final Executor healExecutor = task -> healThreadFactory.newThread(task).start();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private ScheduledFuture<?> task;
+
+    public DataSourceHealthProber(MultiDataSourceRegistry registry, Duration interval) {
+        this.registry = Objects.requireNonNull(registry, "registry is required");
+        this.interval = Objects.requireNonNull(interval, "interval is required");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("datasource-health-prober").daemon().factory()
+        );
+    }
+
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (task == null) {
+                long millis = interval.toMillis();
+                task = executor.scheduleWithFixedDelay(this::runOnce, millis, millis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        lifecycleLock.lock();
+        try {
+            return task != null && !executor.isShutdown();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public void runOnce() {
+        probeUnhealthy();
+        releaseIdle();
+    }
+
+    // Heals every unhealthy datasource on its own virtual thread, so one slow database does not hold back the
+    // others. A round waits at most one interval; heals still running then finish in the background and later
+    // rounds join them instead of starting another.
+    public void probeUnhealthy() {
+        long deadline = System.nanoTime() + interval.toNanos();
+        List<CompletableFuture<Void>> heals = new ArrayList<>();
+        for (ManagedDataSource dataSource : registry.datasources().values()) {
+            if (!dataSource.isMarkedHealthy()) {
+                heals.add(CompletableFuture.runAsync(() -> healQuietly(dataSource), healExecutor));
+            }
+        }
+        if (heals.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(heals.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            LOGGER.warn("Background heals did not settle within {}", interval);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // healQuietly never completes exceptionally.
+        }
+    }
+
+    private static void healQuietly(ManagedDataSource dataSource) {
+        try {
+            if (dataSource.healIfNeeded() || dataSource.isMarkedHealthy()) {
+                LOGGER.info("Datasource {} recovered", dataSource.getName());
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Background heal failed for datasource {}", dataSource.getName(), ex);
+        }
+    }
+
+    public void releaseIdle() {
+        for (ManagedDataSource dataSource : registry.datasources().values()) {
+            try {
+                if (dataSource.releaseIfIdle()) {
+                    LOGGER.info("Released idle pool of lazy datasource {}", dataSource.getName());
+                }
+            } catch (Exception ex) {
+                LOGGER.warn("Releasing idle pool failed for datasource {}", dataSource.getName(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.multids.datasource;
+
+// Called inline on the borrow path: implementations must not block and should not allocate.
+public interface DataSourceObserver {
+
+    default void borrowSucceeded(ManagedDataSource dataSource, long latencyNanos) {
+    }
+
+    default void borrowFailed(ManagedDataSource dataSource, Exception failure) {
+    }
+
+    default void healCompleted(ManagedDataSource dataSource, HealOutcome outcome, long durationNanos) {
+    }
+
+    default void poolReplaced(ManagedDataSource dataSource) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SequencedMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+// Adds, removes, reorders and reconfigures datasources at runtime. New pools are created, probed and warmed
+// before they are published; the pools they replace drain in the background.
+public class DynamicDataSourceManager {
+
+    private final MultiDataSourceRegistry registry;
+    private final ParallelDataSourceInitializer initializer;
+    private final BiConsumer<String, SingleDatasourceProperties> validator;
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    public DynamicDataSourceManager(
+            MultiDataSourceRegistry registry,
+            ParallelDataSourceInitializer initializer,
+            BiConsumer<String, SingleDatasourceProperties> validator
+    ) {
+        this.registry = Objects.requireNonNull(registry, "registry is required");
+        this.initializer = Objects.requireNonNull(initializer, "initializer is required");
+        this.validator = Objects.requireNonNull(validator, "validator is required");
+    }
+
+    public ManagedDataSource add(String name, SingleDatasourceProperties properties) {
+        changeLock.lock();
+        try {
+            if (registry.datasources().containsKey(name)) {
+                throw new IllegalArgumentException("Datasource " + name + " already exists");
+            }
+            return publish(name, properties);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    public ManagedDataSource update(String name, SingleDatasourceProperties properties) {
+        changeLock.lock();
+        try {
+            if (!registry.datasources().containsKey(name)) {
+                throw new IllegalArgumentException("Datasource " + name + " does not exist");
+            }
+            return publish(name, properties);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    public boolean remove(String name) {
+        changeLock.lock();
+        try {
+            if (!registry.datasources().containsKey(name)) {
+                return false;
+            }
+            registry.update(current -> {
+                current.remove(name);
+                return current;
+            });
+            return true;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    public void reorder(List<String> names) {
+        Objects.requireNonNull(names, "names are required");
+        changeLock.lock();
+        try {
+            SequencedMap<String, ManagedDataSource> current = registry.datasources();
+            if (names.size() != current.size() || !new HashSet<>(names).equals(current.keySet())) {
+                throw new IllegalArgumentException("names must list every datasource exactly once");
+            }
+            registry.update(previous -> {
+                SequencedMap<String, ManagedDataSource> reordered = new LinkedHashMap<>();
+                for (String name : names) {
+                    reordered.put(name, previous.get(name));
+                }
+                return reordered;
+            });
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    // Configuration-refresh hook: the given map becomes the full, ordered set of datasources. Unchanged ones
+    // keep their pools, changed ones are rebuilt, and missing ones are removed, all in a single publication.
+    public void apply(Map<String, SingleDatasourceProperties> datasources) {
+        if (datasources == null || datasources.isEmpty()) {
+            throw new IllegalStateException("app.datasources must define at least one datasource");
+        }
+        datasources.forEach(validator);
+        changeLock.lock();
+        try {
+            SequencedMap<String, ManagedDataSource> current = registry.datasources();
+            Map<String, SingleDatasourceProperties> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, SingleDatasourceProperties> entry : datasources.entrySet()) {
+                ManagedDataSource existing = current.get(entry.getKey());
+                if (existing == null || !existing.getProperties().equals(entry.getValue())) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Map<String, ManagedDataSource> created = changed.isEmpty() ? Map.of() : initializer.initialize(changed);
+            registry.update(previous -> {
+                SequencedMap<String, ManagedDataSource> next = new LinkedHashMap<>();
+                for (String name : datasources.keySet()) {
+                    next.put(name, created.getOrDefault(name, previous.get(name)));
+                }
+                return next;
+            });
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private ManagedDataSource publish(String name, SingleDatasourceProperties properties) {
+        validator.accept(name, properties);
+        ManagedDataSource created = initializer.initialize(Map.of(name, properties)).get(name);
+        registry.update(current -> {
+            // Replacing an existing key keeps its position.
+            current.put(name, created);
+            return current;
+        });
+        return created;
+    }
+}
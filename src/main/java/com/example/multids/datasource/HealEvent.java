@@ -0,0 +1,22 @@
+package com.example.multids.datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.multids.Heal")
+@Label("Datasource Heal")
+@Category({"Multi Datasource", "Health"})
+@Description("One heal of a datasource, from the first probe to its outcome")
+@Enabled(false)
+class HealEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,13 @@
+package com.example.multids.datasource;
+
+public enum HealOutcome {
+    SKIPPED,
+    ALREADY_HEALTHY,
+    REPAIRED,
+    REPLACED,
+    FAILED;
+
+    public boolean recovered() {
+        return this == REPAIRED || this == REPLACED;
+    }
+}
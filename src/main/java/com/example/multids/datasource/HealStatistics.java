@@ -0,0 +1,3 @@
+package com.example.multids.datasource;
+
+public record HealStatistics(long attempts, long coalescedCallers, long waitTimeouts) { }
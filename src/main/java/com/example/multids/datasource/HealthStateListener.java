@@ -0,0 +1,6 @@
+package com.example.multids.datasource;
+
+@FunctionalInterface
+public interface HealthStateListener {
+    void healthChanged(ManagedDataSource dataSource, boolean healthy);
+}
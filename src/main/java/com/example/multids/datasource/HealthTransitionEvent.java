@@ -0,0 +1,34 @@
+package com.example.multids.datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.example.multids.HealthTransition")
+@Label("Health Transition")
+@Category({"Multi Datasource", "Health"})
+@Description("A datasource changed circuit state")
+@Enabled(false)
+class HealthTransitionEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("Outcome")
+    @Description("The new circuit state")
+    String outcome;
+
+    @Label("Previous State")
+    String previousState;
+
+    @Label("Routable")
+    boolean routable;
+
+    @Label("Time In Previous State")
+    @Timespan(Timespan.NANOSECONDS)
+    long previousStateTime;
+}
@@ -0,0 +1,19 @@
+package com.example.multids.datasource;
+
+import java.time.Duration;
+
+public record LatencyStatistics(
+        Duration borrowLatency,
+        long borrowSamples,
+        Duration probeLatency,
+        long probeSamples
+) {
+
+    public boolean hasSamples() {
+        return borrowSamples > 0 || probeSamples > 0;
+    }
+
+    public Duration routingLatency() {
+        return borrowSamples > 0 ? borrowLatency : probeLatency;
+    }
+}
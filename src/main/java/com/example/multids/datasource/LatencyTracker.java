@@ -0,0 +1,36 @@
+package com.example.multids.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyTracker {
+
+    static final double SMOOTHING = 0.2d;
+
+    private static final long UNSET = Double.doubleToRawLongBits(Double.NaN);
+
+    private final AtomicLong averageBits = new AtomicLong(UNSET);
+    private final LongAdder samples = new LongAdder();
+
+    void record(long nanos) {
+        samples.increment();
+        long current;
+        long next;
+        do {
+            current = averageBits.get();
+            double average = Double.longBitsToDouble(current);
+            double updated = Double.isNaN(average) ? nanos : average + SMOOTHING * (nanos - average);
+            next = Double.doubleToRawLongBits(updated);
+        } while (!averageBits.compareAndSet(current, next));
+    }
+
+    Duration average() {
+        double average = Double.longBitsToDouble(averageBits.get());
+        return Double.isNaN(average) ? Duration.ZERO : Duration.ofNanos(Math.round(average));
+    }
+
+    long samples() {
+        return samples.sum();
+    }
+}
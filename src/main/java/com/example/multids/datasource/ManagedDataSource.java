@@ -1,81 +1,748 @@
 package com.example.multids.datasource;
 
+import com.example.multids.config.properties.CircuitBreakerProperties;
+import com.example.multids.config.properties.DatasourceRole;
 import com.example.multids.config.properties.SingleDatasourceProperties;
 import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
 import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import com.example.multids.datasource.health.HealthCheckResult;
+import com.example.multids.datasource.health.TcpPreCheckHealthStrategy;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
+import org.slf4j.LoggerFactory;
 
 public class ManagedDataSource implements DataSource {
 
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(ManagedDataSource.class);
+    private static final DataSourceObserver NO_OBSERVER = new DataSourceObserver() { };
+
     private final String name;
     private final SingleDatasourceProperties properties;
     private final DataSourceFactory dataSourceFactory;
     private final DataSourceHealthStrategy healthStrategy;
-    private final AtomicReference<DataSource> delegate;
-    private volatile boolean healthy;
+    private final ConnectionBudget budget;
+    private final BorrowAdmission admission;
+    private final AtomicReference<Pool> delegate;
+    private final AtomicReference<CompletableFuture<Boolean>> inFlightHeal = new AtomicReference<>();
+    private final LongAdder healAttempts = new LongAdder();
+    private final LongAdder coalescedHealCallers = new LongAdder();
+    private final LongAdder healWaitTimeouts = new LongAdder();
+    private final AtomicInteger failedSoftEvictions = new AtomicInteger();
+    private final LongAdder softEvictions = new LongAdder();
+    private final LongAdder repairedInPlace = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder healProbeNanos = new LongAdder();
+    private final LongAdder softEvictNanos = new LongAdder();
+    private final LongAdder rebuildNanos = new LongAdder();
+    private final List<HealthStateListener> healthStateListeners = new CopyOnWriteArrayList<>();
+    private final CircuitBreaker circuitBreaker;
+    private final ConnectionLeases leases = new ConnectionLeases();
+    private final Set<Pool> drainingPools = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory drainThreadFactory = Thread.ofVirtual().name("datasource-drain-", 0).factory();
+    private final Executor drainExecutor = task -> drainThreadFactory.newThread(task).start();
+    private final ThreadFactory probeThreadFactory = Thread.ofVirtual().name("datasource-probe-", 0).factory();
+    private final LongAdder healthyProbes = new LongAdder();
+    private final LongAdder unhealthyProbes = new LongAdder();
+    private final LongAdder timedOutProbes = new LongAdder();
+    private volatile HealthCheckResult lastProbeResult;
+    private final LatencyTracker borrowLatency = new LatencyTracker();
+    private final LatencyTracker probeLatency = new LatencyTracker();
+    private final ReentrantLock materializeLock = new ReentrantLock();
+    private volatile long lastUsedNanos = System.nanoTime();
+    private volatile long stateSinceNanos = System.nanoTime();
+    private volatile DataSourceObserver observer = NO_OBSERVER;
+    private volatile boolean retired;
+    private volatile int desiredPoolSize;
+    private volatile int connectionShare;
 
     public ManagedDataSource(
             String name,
             SingleDatasourceProperties properties,
             DataSourceFactory dataSourceFactory,
             DataSourceHealthStrategy healthStrategy
+    ) {
+        this(name, properties, dataSourceFactory, healthStrategy, true);
+    }
+
+    public ManagedDataSource(
+            String name,
+            SingleDatasourceProperties properties,
+            DataSourceFactory dataSourceFactory,
+            DataSourceHealthStrategy healthStrategy,
+            boolean probeOnCreate
+    ) {
+        this(name, properties, dataSourceFactory, healthStrategy, probeOnCreate, ConnectionBudget.unlimited());
+    }
+
+    public ManagedDataSource(
+            String name,
+            SingleDatasourceProperties properties,
+            DataSourceFactory dataSourceFactory,
+            DataSourceHealthStrategy healthStrategy,
+            boolean probeOnCreate,
+            ConnectionBudget budget
     ) {
         this.name = Objects.requireNonNull(name, "name is required");
         this.properties = Objects.requireNonNull(properties, "properties are required");
         this.dataSourceFactory = Objects.requireNonNull(dataSourceFactory, "dataSourceFactory is required");
-        this.healthStrategy = Objects.requireNonNull(healthStrategy, "healthStrategy is required");
-        this.delegate = new AtomicReference<>(this.dataSourceFactory.create(this.properties));
-        this.healthy = healthStrategy.isHealthy(current(), properties.getValidationQuery());
+        Objects.requireNonNull(healthStrategy, "healthStrategy is required");
+        // Unreachable hosts are rejected by a TCP connect before paying for a JDBC handshake.
+        this.healthStrategy = properties.isTcpPreCheck()
+                ? new TcpPreCheckHealthStrategy(healthStrategy, properties.getUrl())
+                : healthStrategy;
+        this.budget = Objects.requireNonNull(budget, "budget is required");
+        this.desiredPoolSize = properties.getMaximumPoolSize();
+        // Within a budget a pool starts at its floor until the balancer hands out a share.
+        this.connectionShare = budget.isLimited() ? getMinimumPoolSize() : Integer.MAX_VALUE;
+        // A lazy datasource has no pool until first use and is assumed routable until a borrow says otherwise.
+        this.delegate = new AtomicReference<>(properties.isLazy() ? null : newPool());
+        Duration admissionTimeout = properties.getAdmissionTimeout();
+        this.admission = admissionTimeout == null
+                ? BorrowAdmission.unlimited()
+                : new BorrowAdmission(isMaterialized() ? delegate.get().size().get() : poolSizeTarget(0),
+                        admissionTimeout);
+        // Without an initial probe the datasource starts unhealthy until verifyHealth() or a heal says otherwise.
+        boolean initiallyHealthy = properties.isLazy() || probeOnCreate && probe(current());
+        CircuitBreakerProperties circuitBreakerProperties = properties.getCircuitBreaker() == null
+                ? new CircuitBreakerProperties()
+                : properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(
+                circuitBreakerProperties, initiallyHealthy, System::nanoTime, this::onCircuitTransition);
     }
 
     public String getName() {
         return name;
     }
 
+    public DatasourceRole getRole() {
+        return properties.getRole() == null ? DatasourceRole.WRITER : properties.getRole();
+    }
+
+    public OptionalInt getPriority() {
+        Integer priority = properties.getPriority();
+        return priority == null ? OptionalInt.empty() : OptionalInt.of(priority);
+    }
+
+    public Set<String> getTags() {
+        return properties.getTags() == null ? Set.of() : properties.getTags();
+    }
+
+    SingleDatasourceProperties getProperties() {
+        return properties;
+    }
+
+    int getMinimumPoolSize() {
+        Integer minimum = properties.getAdaptiveMinimumPoolSize();
+        return minimum == null ? 1 : minimum;
+    }
+
+    int getDesiredPoolSize() {
+        return desiredPoolSize;
+    }
+
+    int getConnectionShare() {
+        return connectionShare;
+    }
+
+    public int getLeasedConnections() {
+        return leases.leased();
+    }
+
+    public int getWaitingBorrowers() {
+        return admission.getWaitingBorrowers();
+    }
+
+    BorrowAdmission getAdmission() {
+        return admission;
+    }
+
     public DataSource current() {
-        return delegate.get();
+        return activePool().dataSource();
+    }
+
+    public int getDrainingPools() {
+        return drainingPools.size();
+    }
+
+    public int getDrainingLeasedConnections() {
+        int leased = 0;
+        for (Pool pool : drainingPools) {
+            leased += pool.leases().leased();
+        }
+        return leased;
+    }
+
+    public boolean isMaterialized() {
+        return delegate.get() != null;
+    }
+
+    public boolean releaseIfIdle() {
+        Duration idleTimeout = properties.getIdleTimeout();
+        if (!properties.isLazy() || idleTimeout == null || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            return false;
+        }
+        Pool active;
+        materializeLock.lock();
+        try {
+            active = delegate.get();
+            if (active == null || active.leases().leased() > 0
+                    || System.nanoTime() - lastUsedNanos < idleTimeout.toNanos()) {
+                return false;
+            }
+            delegate.set(null);
+        } finally {
+            materializeLock.unlock();
+        }
+        drain(active);
+        return true;
+    }
+
+    public Optional<PoolUsage> getPoolUsage() {
+        Pool active = delegate.get();
+        return active == null ? Optional.empty() : dataSourceFactory.usage(active.dataSource());
+    }
+
+    // The pool follows the smaller of the size asked for here and the share of the connection budget.
+    boolean resizePool(int maximumPoolSize) {
+        desiredPoolSize = maximumPoolSize;
+        return resizeToTarget();
+    }
+
+    boolean setConnectionShare(int share) {
+        connectionShare = share;
+        return resizeToTarget();
+    }
+
+    // Gives up to the requested connections back to the budget without waiting for a busy datasource.
+    int yieldConnections(int connections) {
+        if (!materializeLock.tryLock()) {
+            return 0;
+        }
+        try {
+            Pool active = delegate.get();
+            if (active == null) {
+                return 0;
+            }
+            int size = active.size().get();
+            int target = Math.max(getMinimumPoolSize(), size - connections);
+            if (target >= size || !resize(active, target)) {
+                return 0;
+            }
+            connectionShare = Math.min(connectionShare, target);
+            return size - target;
+        } finally {
+            materializeLock.unlock();
+        }
+    }
+
+    private boolean resizeToTarget() {
+        materializeLock.lock();
+        try {
+            Pool active = delegate.get();
+            if (active == null) {
+                return false;
+            }
+            int size = active.size().get();
+            int target = poolSizeTarget(0);
+            if (target > size) {
+                target = size + budget.acquire(target - size, 0);
+            }
+            return target != size && resize(active, target);
+        } finally {
+            materializeLock.unlock();
+        }
+    }
+
+    // Minimum-idle follows the new size unless configured lower. Growth must already be charged to the budget.
+    private boolean resize(Pool pool, int target) {
+        int size = pool.size().get();
+        Integer minimumIdle = properties.getMinimumIdle();
+        boolean resized = false;
+        try {
+            resized = dataSourceFactory.resize(pool.dataSource(), target,
+                    minimumIdle == null ? target : Math.min(minimumIdle, target));
+        } finally {
+            if (!resized && target > size) {
+                budget.release(target - size);
+            }
+        }
+        if (!resized) {
+            return false;
+        }
+        if (target < size) {
+            budget.release(size - target);
+            if (budget.isLimited()) {
+                // Surplus connections would otherwise stay open until they retire; the budget wants them back now.
+                dataSourceFactory.softEvict(pool.dataSource());
+            }
+        }
+        pool.size().set(target);
+        if (delegate.get() == pool) {
+            admission.resize(target);
+        }
+        return true;
+    }
+
+    private int poolSizeTarget(int reserved) {
+        return Math.max(1, Math.min(desiredPoolSize, connectionShare - drainingConnections() - reserved));
+    }
+
+    private int drainingConnections() {
+        int connections = 0;
+        for (Pool pool : drainingPools) {
+            connections += pool.size().get();
+        }
+        return connections;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    // Takes the datasource out of service for good: later borrows fail and the pool drains like a replaced one.
+    public void retire() {
+        Pool active;
+        materializeLock.lock();
+        try {
+            if (retired) {
+                return;
+            }
+            retired = true;
+            active = delegate.getAndSet(null);
+        } finally {
+            materializeLock.unlock();
+        }
+        if (active != null) {
+            drain(active);
+        }
+    }
+
+    private Pool activePool() {
+        Pool active = delegate.get();
+        return active != null ? active : materialize();
+    }
+
+    private Pool materialize() {
+        materializeLock.lock();
+        try {
+            if (retired) {
+                throw new IllegalStateException("Datasource " + name + " has been retired");
+            }
+            Pool active = delegate.get();
+            if (active == null) {
+                active = newPool();
+                lastUsedNanos = System.nanoTime();
+                delegate.set(active);
+                admission.resize(active.size().get());
+            }
+            return active;
+        } finally {
+            materializeLock.unlock();
+        }
+    }
+
+    private Pool newPool() {
+        int size = budget.acquire(poolSizeTarget(0), 1);
+        if (size == 0) {
+            throw new IllegalStateException("Connection budget of " + budget.getMaximumConnections()
+                    + " connections has no room for a pool of datasource " + name);
+        }
+        return newPool(size);
+    }
+
+    private Pool newPool(int size) {
+        try {
+            return new Pool(dataSourceFactory.create(properties, size), new ConnectionLeases(leases),
+                    new AtomicInteger(size));
+        } catch (RuntimeException | Error ex) {
+            budget.release(size);
+            throw ex;
+        }
+    }
+
+    // Within a budget the old pool keeps only what is still checked out while it drains, so the old and the new
+    // pool together never hold more than the datasource's share. Null when the budget has no room left.
+    private Pool replacementFor(Pool active) {
+        if (budget.isLimited()) {
+            int keep = Math.max(1, active.leases().leased());
+            if (keep < active.size().get()) {
+                resize(active, keep);
+            }
+        }
+        int size = budget.acquire(poolSizeTarget(active.size().get()), 1);
+        return size == 0 ? null : newPool(size);
+    }
+
+    private void drain(Pool pool) {
+        Duration grace = properties.getDrainTimeout();
+        PoolClosedEvent event = new PoolClosedEvent();
+        event.begin();
+        AtomicBoolean closed = new AtomicBoolean();
+        Consumer<String> close = outcome -> {
+            if (closed.compareAndSet(false, true)) {
+                drainingPools.remove(pool);
+                int leased = pool.leases().leased();
+                closeQuietly(pool.dataSource());
+                budget.release(pool.size().get());
+                if (event.shouldCommit()) {
+                    event.datasource = name;
+                    event.outcome = outcome;
+                    event.leasedConnections = leased;
+                    event.commit();
+                }
+            }
+        };
+        if (grace == null || grace.isZero() || grace.isNegative()) {
+            pool.leases().drain(() -> { });
+            close.accept("closed");
+            return;
+        }
+
+        drainingPools.add(pool);
+        // The last lease to come back closes the pool off the borrower's thread.
+        pool.leases().drain(() -> drainExecutor.execute(() -> close.accept("drained")));
+        if (pool.leases().leased() == 0) {
+            close.accept("drained");
+            return;
+        }
+        CompletableFuture.delayedExecutor(grace.toNanos(), TimeUnit.NANOSECONDS, drainExecutor).execute(() -> {
+            if (!closed.get()) {
+                LOGGER.warn("Closing drained pool of datasource {} with {} connections still leased after {}",
+                        name, pool.leases().leased(), grace);
+                close.accept("forced");
+            }
+        });
     }
 
     public boolean isMarkedHealthy() {
-        return healthy;
+        return circuitBreaker.isRoutable();
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitBreaker.state();
     }
 
     public void markUnhealthy() {
-        this.healthy = false;
+        circuitBreaker.trip();
+    }
+
+    public void addHealthStateListener(HealthStateListener listener) {
+        healthStateListeners.add(Objects.requireNonNull(listener, "listener is required"));
+    }
+
+    public void removeHealthStateListener(HealthStateListener listener) {
+        healthStateListeners.remove(listener);
+    }
+
+    public void setObserver(DataSourceObserver observer) {
+        this.observer = Objects.requireNonNull(observer, "observer is required");
     }
 
     public boolean healIfNeeded() {
-        DataSource active = delegate.get();
-        if (healthStrategy.isHealthy(active, properties.getValidationQuery())) {
-            healthy = true;
+        if (retired) {
             return false;
         }
+        CompletableFuture<Boolean> flight = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlightHeal.compareAndExchange(null, flight);
+        if (existing != null) {
+            return awaitInFlightHeal(existing);
+        }
 
-        synchronized (this) {
-            DataSource latest = delegate.get();
-            if (healthStrategy.isHealthy(latest, properties.getValidationQuery())) {
-                healthy = true;
-                return false;
+        healAttempts.increment();
+        HealEvent event = new HealEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            HealOutcome outcome = heal();
+            observer.healCompleted(this, outcome, System.nanoTime() - started);
+            commitHeal(event, outcome);
+            flight.complete(outcome.recovered());
+            return outcome.recovered();
+        } catch (RuntimeException | Error ex) {
+            observer.healCompleted(this, HealOutcome.FAILED, System.nanoTime() - started);
+            commitHeal(event, HealOutcome.FAILED);
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightHeal.set(null);
+        }
+    }
+
+    public boolean verifyHealth() {
+        if (!isMaterialized() || !circuitBreaker.allowsProbe()) {
+            return isMarkedHealthy();
+        }
+        if (probe(current())) {
+            failedSoftEvictions.set(0);
+            circuitBreaker.onProbeSuccess();
+            return true;
+        }
+        circuitBreaker.onProbeFailure();
+        return false;
+    }
+
+    public int warmUp() {
+        if (!isMaterialized()) {
+            return 0;
+        }
+        int size = activePool().size().get();
+        int target = properties.getMinimumIdle() == null ? size : Math.min(properties.getMinimumIdle(), size);
+        // Hold every connection until the last one is borrowed so the pool has to open distinct connections.
+        List<Connection> borrowed = new ArrayList<>(target);
+        try {
+            DataSource active = current();
+            while (borrowed.size() < target) {
+                borrowed.add(active.getConnection());
+            }
+        } catch (SQLException | RuntimeException ex) {
+            // Warm-up is best effort; whatever was opened stays in the pool.
+        } finally {
+            for (Connection connection : borrowed) {
+                closeQuietly(connection);
+            }
+        }
+        return borrowed.size();
+    }
+
+    public HealStatistics getHealStatistics() {
+        return new HealStatistics(healAttempts.sum(), coalescedHealCallers.sum(), healWaitTimeouts.sum());
+    }
+
+    public RepairStatistics getRepairStatistics() {
+        return new RepairStatistics(
+                softEvictions.sum(),
+                repairedInPlace.sum(),
+                rebuilds.sum(),
+                Duration.ofNanos(healProbeNanos.sum()),
+                Duration.ofNanos(softEvictNanos.sum()),
+                Duration.ofNanos(rebuildNanos.sum()));
+    }
+
+    public ProbeStatistics getProbeStatistics() {
+        return new ProbeStatistics(healthyProbes.sum(), unhealthyProbes.sum(), timedOutProbes.sum());
+    }
+
+    public Optional<HealthCheckResult> getLastProbeResult() {
+        return Optional.ofNullable(lastProbeResult);
+    }
+
+    public LatencyStatistics getLatencyStatistics() {
+        return new LatencyStatistics(
+                borrowLatency.average(), borrowLatency.samples(), probeLatency.average(), probeLatency.samples());
+    }
+
+    private HealOutcome heal() {
+        if (!circuitBreaker.allowsProbe()) {
+            return HealOutcome.SKIPPED;
+        }
+
+        Pool active = activePool();
+        long started = System.nanoTime();
+        boolean healthy = probe(active.dataSource());
+        healProbeNanos.add(System.nanoTime() - started);
+        if (healthy) {
+            failedSoftEvictions.set(0);
+            circuitBreaker.onProbeSuccess();
+            return HealOutcome.ALREADY_HEALTHY;
+        }
+
+        if (failedSoftEvictions.get() < properties.getSoftEvictAttempts()) {
+            started = System.nanoTime();
+            boolean evicted = dataSourceFactory.softEvict(active.dataSource());
+            boolean repaired = evicted && probe(active.dataSource());
+            if (evicted) {
+                softEvictions.increment();
+                softEvictNanos.add(System.nanoTime() - started);
+                if (repaired) {
+                    failedSoftEvictions.set(0);
+                    repairedInPlace.increment();
+                    circuitBreaker.onProbeSuccess();
+                    return HealOutcome.REPAIRED;
+                }
+                // Keep the pool until in-place repair has failed on enough consecutive heals.
+                if (failedSoftEvictions.incrementAndGet() < properties.getSoftEvictAttempts()) {
+                    circuitBreaker.onProbeFailure();
+                    return HealOutcome.FAILED;
+                }
+            }
+        }
+
+        if (failedSoftEvictions.get() == 0) {
+            // Without a repair attempt, re-probe once so a single transient failure does not cost a pool.
+            started = System.nanoTime();
+            healthy = probe(active.dataSource());
+            healProbeNanos.add(System.nanoTime() - started);
+            if (healthy) {
+                circuitBreaker.onProbeSuccess();
+                return HealOutcome.ALREADY_HEALTHY;
+            }
+        }
+
+        failedSoftEvictions.set(0);
+        rebuilds.increment();
+        PoolReplacedEvent replacedEvent = new PoolReplacedEvent();
+        replacedEvent.begin();
+        started = System.nanoTime();
+        Pool replacement;
+        materializeLock.lock();
+        try {
+            replacement = replacementFor(active);
+            if (replacement != null && !delegate.compareAndSet(active, replacement)) {
+                // Retired or released while the heal ran: nobody will borrow from the replacement.
+                drain(replacement);
+                return HealOutcome.FAILED;
+            }
+            if (replacement != null) {
+                admission.resize(replacement.size().get());
+            }
+        } finally {
+            materializeLock.unlock();
+        }
+        if (replacement == null) {
+            LOGGER.warn("Connection budget of {} connections has no room to rebuild the pool of datasource {}",
+                    budget.getMaximumConnections(), name);
+            circuitBreaker.onProbeFailure();
+            return HealOutcome.FAILED;
+        }
+        boolean replacementHealthy = probe(replacement.dataSource());
+        rebuildNanos.add(System.nanoTime() - started);
+        if (replacedEvent.shouldCommit()) {
+            replacedEvent.datasource = name;
+            replacedEvent.outcome = replacementHealthy ? "healthy" : "unhealthy";
+            replacedEvent.commit();
+        }
+        if (replacementHealthy) {
+            circuitBreaker.onProbeSuccess();
+        } else {
+            circuitBreaker.onProbeFailure();
+        }
+        observer.poolReplaced(this);
+        drain(active);
+        return replacementHealthy ? HealOutcome.REPLACED : HealOutcome.FAILED;
+    }
+
+    private boolean probe(DataSource dataSource) {
+        long started = System.nanoTime();
+        HealthCheckResult result = check(dataSource);
+        lastProbeResult = result;
+        switch (result) {
+            case HEALTHY -> {
+                healthyProbes.increment();
+                probeLatency.record(System.nanoTime() - started);
+            }
+            case UNHEALTHY -> unhealthyProbes.increment();
+            case TIMED_OUT -> {
+                timedOutProbes.increment();
+                LOGGER.warn("Health probe of datasource {} timed out after {}", name, properties.getProbeTimeout());
+            }
+        }
+        return result.isHealthy();
+    }
+
+    private HealthCheckResult check(DataSource dataSource) {
+        Duration timeout = properties.getProbeTimeout();
+        String validationQuery = properties.getValidationQuery();
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return healthStrategy.check(dataSource, validationQuery, null);
+        }
+
+        // The strategy bounds its own statements; this deadline also covers connection acquisition and drivers
+        // that ignore query timeouts, so a silent database cannot hold a heal or request thread.
+        FutureTask<HealthCheckResult> task =
+                new FutureTask<>(() -> healthStrategy.check(dataSource, validationQuery, timeout));
+        probeThreadFactory.newThread(task).start();
+        try {
+            return task.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            task.cancel(true);
+            return HealthCheckResult.TIMED_OUT;
+        } catch (InterruptedException ex) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return HealthCheckResult.UNHEALTHY;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
             }
+            return HealthCheckResult.UNHEALTHY;
+        }
+    }
 
-            DataSource replacement = dataSourceFactory.create(properties);
-            delegate.set(replacement);
-            boolean replacementHealthy = healthStrategy.isHealthy(replacement, properties.getValidationQuery());
-            healthy = replacementHealthy;
-            closeQuietly(latest);
-            return replacementHealthy;
+    private void onCircuitTransition(CircuitState from, CircuitState to) {
+        long now = System.nanoTime();
+        long previousStateNanos = now - stateSinceNanos;
+        stateSinceNanos = now;
+        HealthTransitionEvent event = new HealthTransitionEvent();
+        if (event.shouldCommit()) {
+            event.datasource = name;
+            event.outcome = to.name();
+            event.previousState = from.name();
+            event.routable = to != CircuitState.OPEN;
+            event.previousStateTime = previousStateNanos;
+            event.commit();
+        }
+        boolean wasRoutable = from != CircuitState.OPEN;
+        boolean routable = to != CircuitState.OPEN;
+        if (wasRoutable == routable) {
+            return;
+        }
+        for (HealthStateListener listener : healthStateListeners) {
+            listener.healthChanged(this, routable);
         }
     }
 
-    void closeQuietly(DataSource dataSource) {
-        if (dataSource instanceof AutoCloseable autoCloseable) {
+    private boolean awaitInFlightHeal(CompletableFuture<Boolean> flight) {
+        coalescedHealCallers.increment();
+        Duration waitTimeout = properties.getHealWaitTimeout();
+        try {
+            if (waitTimeout == null || waitTimeout.isZero() || waitTimeout.isNegative()) {
+                return flight.getNow(false);
+            }
+            return flight.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            healWaitTimeouts.increment();
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | RuntimeException ex) {
+            // The in-flight caller surfaces the failure; followers only observe the outcome.
+            return false;
+        }
+    }
+
+    void closeQuietly(Object resource) {
+        if (resource instanceof AutoCloseable autoCloseable) {
             try {
                 autoCloseable.close();
             } catch (Exception ignored) {
@@ -86,24 +753,81 @@ public class ManagedDataSource implements DataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
+        return borrow(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return borrow(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    // The circuit is checked before admission so a borrower aimed at an open datasource fails over at once instead
+    // of waiting out the admission timeout behind stuck leases. Timing out at admission says the pool is saturated,
+    // not that the database failed, so it hands back any half-open trial permit and does not count against the circuit.
+    private Connection borrow(PoolBorrower borrower) throws SQLException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            CircuitOpenException rejection = new CircuitOpenException(name);
+            observer.borrowFailed(this, rejection);
+            commitBorrowFailure(rejection, 0L);
+            throw rejection;
+        }
+        long admitting = System.nanoTime();
+        try {
+            admission.acquire(name);
+        } catch (SQLException ex) {
+            circuitBreaker.releasePermission();
+            observer.borrowFailed(this, ex);
+            commitBorrowFailure(ex, System.nanoTime() - admitting);
+            throw ex;
+        }
+        long started = System.nanoTime();
+        lastUsedNanos = started;
         try {
-            Connection connection = current().getConnection();
-            healthy = true;
+            Connection connection = borrowFromCurrent(borrower);
+            long latency = System.nanoTime() - started;
+            borrowLatency.record(latency);
+            circuitBreaker.onSuccess();
+            observer.borrowSucceeded(this, latency);
             return connection;
         } catch (SQLException | RuntimeException ex) {
-            markUnhealthy();
+            admission.release();
+            circuitBreaker.onFailure();
+            observer.borrowFailed(this, ex);
+            commitBorrowFailure(ex, System.nanoTime() - started);
             throw ex;
         }
     }
 
-    @Override
-    public Connection getConnection(String username, String password) throws SQLException {
+    // Events are created only on the failure path, so a healthy borrow never touches JFR.
+    private void commitBorrowFailure(Exception failure, long borrowNanos) {
+        BorrowFailureEvent event = new BorrowFailureEvent();
+        if (event.shouldCommit()) {
+            event.datasource = name;
+            event.outcome = failure.getClass().getName();
+            event.message = failure.getMessage();
+            event.borrowTime = borrowNanos;
+            event.commit();
+        }
+    }
+
+    private void commitHeal(HealEvent event, HealOutcome outcome) {
+        if (event.shouldCommit()) {
+            event.datasource = name;
+            event.outcome = outcome.name();
+            event.commit();
+        }
+    }
+
+    private Connection borrowFromCurrent(PoolBorrower borrower) throws SQLException {
+        Pool pool = activePool();
+        // A pool that started draining between the read and the reservation takes no new borrows.
+        while (!pool.leases().tryReserve()) {
+            pool = activePool();
+        }
         try {
-            Connection connection = current().getConnection(username, password);
-            healthy = true;
-            return connection;
+            return pool.leases().lease(borrower.borrow(pool.dataSource()), admission);
         } catch (SQLException | RuntimeException ex) {
-            markUnhealthy();
+            pool.leases().release();
             throw ex;
         }
     }
@@ -142,4 +866,11 @@ public class ManagedDataSource implements DataSource {
     public Logger getParentLogger() throws SQLFeatureNotSupportedException {
         return current().getParentLogger();
     }
+
+    private record Pool(DataSource dataSource, ConnectionLeases leases, AtomicInteger size) { }
+
+    @FunctionalInterface
+    private interface PoolBorrower {
+        Connection borrow(DataSource dataSource) throws SQLException;
+    }
 }
@@ -1,5 +1,86 @@
 package com.example.multids.datasource;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.SequencedMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
-public record MultiDataSourceRegistry(Map<String, ManagedDataSource> datasources) { }
+// Readers get an immutable snapshot; updates copy it, publish the copy and then drain whatever dropped out.
+public class MultiDataSourceRegistry {
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConnectionBudget connectionBudget;
+    private volatile SequencedMap<String, ManagedDataSource> datasources;
+
+    public MultiDataSourceRegistry(Map<String, ManagedDataSource> datasources) {
+        this(datasources, ConnectionBudget.unlimited());
+    }
+
+    public MultiDataSourceRegistry(Map<String, ManagedDataSource> datasources, ConnectionBudget connectionBudget) {
+        this.datasources = snapshotOf(Objects.requireNonNull(datasources, "datasources are required"));
+        this.connectionBudget = Objects.requireNonNull(connectionBudget, "connectionBudget is required");
+    }
+
+    // Shared by every pool of the registered datasources, including pools created after startup.
+    public ConnectionBudget getConnectionBudget() {
+        return connectionBudget;
+    }
+
+    public SequencedMap<String, ManagedDataSource> datasources() {
+        return datasources;
+    }
+
+    public void addListener(RegistryListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener is required"));
+    }
+
+    public void update(UnaryOperator<SequencedMap<String, ManagedDataSource>> change) {
+        Objects.requireNonNull(change, "change is required");
+        List<ManagedDataSource> retired = new ArrayList<>();
+        updateLock.lock();
+        try {
+            SequencedMap<String, ManagedDataSource> previous = datasources;
+            SequencedMap<String, ManagedDataSource> next = snapshotOf(
+                    Objects.requireNonNull(change.apply(new LinkedHashMap<>(previous)), "datasources are required"));
+            if (next.isEmpty()) {
+                throw new IllegalStateException("app.datasources must define at least one datasource");
+            }
+            datasources = next;
+            // Listeners run under the lock so they observe updates in the order they were published.
+            for (RegistryListener listener : listeners) {
+                listener.datasourcesChanged(next);
+            }
+            for (ManagedDataSource dataSource : previous.values()) {
+                if (!containsInstance(next, dataSource)) {
+                    retired.add(dataSource);
+                }
+            }
+        } finally {
+            updateLock.unlock();
+        }
+        // Routing has moved on by now, so only borrows already in flight still hold the retired pools.
+        for (ManagedDataSource dataSource : retired) {
+            dataSource.retire();
+        }
+    }
+
+    private static boolean containsInstance(Map<String, ManagedDataSource> datasources, ManagedDataSource candidate) {
+        for (ManagedDataSource dataSource : datasources.values()) {
+            if (dataSource == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SequencedMap<String, ManagedDataSource> snapshotOf(Map<String, ManagedDataSource> datasources) {
+        return Collections.unmodifiableSequencedMap(new LinkedHashMap<>(datasources));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ParallelDataSourceInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelDataSourceInitializer.class);
+
+    private final DataSourceFactory dataSourceFactory;
+    private final DataSourceHealthStrategy healthStrategy;
+    private final Duration timeout;
+    private final boolean warmUp;
+    private final ConnectionBudget connectionBudget;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("datasource-startup-", 0).factory();
+    private final Executor executor = task -> threadFactory.newThread(task).start();
+
+    public ParallelDataSourceInitializer(
+            DataSourceFactory dataSourceFactory,
+            DataSourceHealthStrategy healthStrategy,
+            Duration timeout,
+            boolean warmUp
+    ) {
+        this(dataSourceFactory, healthStrategy, timeout, warmUp, ConnectionBudget.unlimited());
+    }
+
+    public ParallelDataSourceInitializer(
+            DataSourceFactory dataSourceFactory,
+            DataSourceHealthStrategy healthStrategy,
+            Duration timeout,
+            boolean warmUp,
+            ConnectionBudget connectionBudget
+    ) {
+        this.dataSourceFactory = Objects.requireNonNull(dataSourceFactory, "dataSourceFactory is required");
+        this.healthStrategy = Objects.requireNonNull(healthStrategy, "healthStrategy is required");
+        this.timeout = Objects.requireNonNull(timeout, "timeout is required");
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.warmUp = warmUp;
+        this.connectionBudget = Objects.requireNonNull(connectionBudget, "connectionBudget is required");
+    }
+
+    public Map<String, ManagedDataSource> initialize(Map<String, SingleDatasourceProperties> datasources) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<String, CompletableFuture<ManagedDataSource>> creations = new LinkedHashMap<>();
+        for (Map.Entry<String, SingleDatasourceProperties> entry : datasources.entrySet()) {
+            creations.put(entry.getKey(), CompletableFuture.supplyAsync(
+                    () -> new ManagedDataSource(entry.getKey(), entry.getValue(), dataSourceFactory, healthStrategy,
+                            false, connectionBudget),
+                    executor));
+        }
+
+        Map<String, ManagedDataSource> created = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<ManagedDataSource>> creation : creations.entrySet()) {
+            created.put(creation.getKey(), awaitCreation(creation.getKey(), creation.getValue(), deadline));
+        }
+
+        List<CompletableFuture<Void>> readiness = new ArrayList<>(created.size());
+        for (ManagedDataSource dataSource : created.values()) {
+            readiness.add(CompletableFuture.runAsync(() -> prepare(dataSource), executor));
+        }
+        try {
+            CompletableFuture.allOf(readiness.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Unfinished probes keep running and mark their datasource healthy when they succeed.
+            LOGGER.warn("Datasource startup probes did not finish within {}; unfinished datasources start unhealthy",
+                    timeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // prepare never completes exceptionally.
+        }
+        return created;
+    }
+
+    private ManagedDataSource awaitCreation(String name, CompletableFuture<ManagedDataSource> creation, long deadline) {
+        try {
+            return creation.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Datasource " + name + " was not created within " + timeout, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating datasource " + name, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Datasource " + name + " could not be created", ex.getCause());
+        }
+    }
+
+    private void prepare(ManagedDataSource dataSource) {
+        try {
+            if (dataSource.verifyHealth() && warmUp) {
+                int opened = dataSource.warmUp();
+                LOGGER.debug("Warmed up datasource {} with {} connections", dataSource.getName(), opened);
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Startup probe failed for datasource {}", dataSource.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.multids.datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.multids.PoolClosed")
+@Label("Pool Closed")
+@Category({"Multi Datasource", "Pool"})
+@Description("A replaced or idle pool was closed; the duration covers its drain")
+@Enabled(false)
+class PoolClosedEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("Outcome")
+    @Description("closed, drained or forced")
+    String outcome;
+
+    @Label("Leased Connections At Close")
+    int leasedConnections;
+}
@@ -0,0 +1,22 @@
+package com.example.multids.datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.multids.PoolReplaced")
+@Label("Pool Replaced")
+@Category({"Multi Datasource", "Pool"})
+@Description("A heal built a new pool and probed it")
+@Enabled(false)
+class PoolReplacedEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,163 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.PoolSizingProperties;
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.factory.PoolUsage;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Grows pools that run hot and shrinks pools that sit idle or unhealthy, within each datasource's adaptive bounds.
+// Utilization between the shrink and grow thresholds resets the trend, and a pool moves only after the same signal
+// has been seen for stable-intervals evaluations in a row, so a pool does not flap around a single threshold.
+public class PoolSizeController implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolSizeController.class);
+
+    private final MultiDataSourceRegistry registry;
+    private final Duration interval;
+    private final double growUtilization;
+    private final double shrinkUtilization;
+    private final int stableIntervals;
+    private final ScheduledExecutorService executor;
+    private final ReentrantLock evaluationLock = new ReentrantLock();
+    private final Map<ManagedDataSource, Trend> trends = new HashMap<>();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private ScheduledFuture<?> task;
+
+    public PoolSizeController(MultiDataSourceRegistry registry, PoolSizingProperties properties) {
+        this.registry = Objects.requireNonNull(registry, "registry is required");
+        Objects.requireNonNull(properties, "properties are required");
+        this.interval = Objects.requireNonNull(properties.getInterval(), "interval is required");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        if (!(properties.getShrinkUtilization() >= 0.0d
+                && properties.getShrinkUtilization() < properties.getGrowUtilization()
+                && properties.getGrowUtilization() <= 1.0d)) {
+            throw new IllegalArgumentException("utilization thresholds must satisfy 0 <= shrink < grow <= 1");
+        }
+        if (properties.getStableIntervals() < 1) {
+            throw new IllegalArgumentException("stableIntervals must be >= 1");
+        }
+        this.growUtilization = properties.getGrowUtilization();
+        this.shrinkUtilization = properties.getShrinkUtilization();
+        this.stableIntervals = properties.getStableIntervals();
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("datasource-pool-sizer").daemon().factory()
+        );
+    }
+
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (task == null) {
+                long millis = interval.toMillis();
+                task = executor.scheduleWithFixedDelay(this::runOnce, millis, millis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        lifecycleLock.lock();
+        try {
+            return task != null && !executor.isShutdown();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public void runOnce() {
+        evaluationLock.lock();
+        try {
+            Map<String, ManagedDataSource> datasources = registry.datasources();
+            trends.keySet().retainAll(datasources.values());
+            for (ManagedDataSource dataSource : datasources.values()) {
+                try {
+                    evaluate(dataSource);
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Pool sizing failed for datasource {}", dataSource.getName(), ex);
+                }
+            }
+        } finally {
+            evaluationLock.unlock();
+        }
+    }
+
+    private void evaluate(ManagedDataSource dataSource) {
+        Optional<PoolUsage> sampled = dataSource.getPoolUsage();
+        if (sampled.isEmpty()) {
+            trends.remove(dataSource);
+            return;
+        }
+        PoolUsage usage = sampled.get();
+        SingleDatasourceProperties properties = dataSource.getProperties();
+        int minimum = properties.getAdaptiveMinimumPoolSize() == null ? 1 : properties.getAdaptiveMinimumPoolSize();
+        int maximum = properties.getAdaptiveMaximumPoolSize() == null
+                ? properties.getMaximumPoolSize()
+                : properties.getAdaptiveMaximumPoolSize();
+        int size = usage.maximumPoolSize();
+        Trend trend = trends.computeIfAbsent(dataSource, key -> new Trend());
+
+        int target;
+        if (!dataSource.isMarkedHealthy()) {
+            // An unhealthy datasource gets no borrows, so its share is released without waiting for a trend.
+            trend.reset();
+            target = minimum;
+        } else if (usage.awaiting() > 0) {
+            // Borrowers already queue for connections: grow now rather than after stable-intervals.
+            trend.reset();
+            target = size * 2;
+        } else if (usage.utilization() >= growUtilization) {
+            target = trend.grow() >= stableIntervals ? size * 2 : size;
+        } else if (usage.utilization() <= shrinkUtilization) {
+            target = trend.shrink() >= stableIntervals ? (size + 1) / 2 : size;
+        } else {
+            trend.reset();
+            target = size;
+        }
+
+        target = Math.clamp(target, minimum, maximum);
+        if (target != size && dataSource.resizePool(target)) {
+            trend.reset();
+            LOGGER.info("Resized pool of datasource {} from {} to {} (active {}, idle {}, awaiting {})",
+                    dataSource.getName(), size, target, usage.active(), usage.idle(), usage.awaiting());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class Trend {
+        private int growSignals;
+        private int shrinkSignals;
+
+        private int grow() {
+            shrinkSignals = 0;
+            return ++growSignals;
+        }
+
+        private int shrink() {
+            growSignals = 0;
+            return ++shrinkSignals;
+        }
+
+        private void reset() {
+            growSignals = 0;
+            shrinkSignals = 0;
+        }
+    }
+}
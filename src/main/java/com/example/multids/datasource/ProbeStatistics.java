@@ -0,0 +1,3 @@
+package com.example.multids.datasource;
+
+public record ProbeStatistics(long healthy, long unhealthy, long timedOut) { }
@@ -0,0 +1,8 @@
+package com.example.multids.datasource;
+
+import java.util.SequencedMap;
+
+@FunctionalInterface
+public interface RegistryListener {
+    void datasourcesChanged(SequencedMap<String, ManagedDataSource> datasources);
+}
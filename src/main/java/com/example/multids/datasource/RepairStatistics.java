@@ -0,0 +1,12 @@
+package com.example.multids.datasource;
+
+import java.time.Duration;
+
+public record RepairStatistics(
+        long softEvictions,
+        long repairedInPlace,
+        long rebuilds,
+        Duration probeTime,
+        Duration softEvictTime,
+        Duration rebuildTime
+) { }
@@ -1,8 +1,36 @@
 package com.example.multids.datasource.factory;
 
 import com.example.multids.config.properties.SingleDatasourceProperties;
+import java.util.Optional;
 import javax.sql.DataSource;
 
 public interface DataSourceFactory {
     DataSource create(SingleDatasourceProperties properties);
+
+    // Creates the pool with a maximum-pool-size trimmed to a connection budget. Factories that cannot size their
+    // pools only accept the configured size, so a budget is never silently exceeded.
+    default DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
+        if (maximumPoolSize != properties.getMaximumPoolSize()) {
+            throw new IllegalStateException(getClass().getName() + " cannot create a pool of " + maximumPoolSize
+                    + " connections instead of the configured " + properties.getMaximumPoolSize());
+        }
+        return create(properties);
+    }
+
+    // Evicts the pool's connections while keeping the pool itself; false when the pool cannot be repaired in place.
+    default boolean softEvict(DataSource dataSource) {
+        return false;
+    }
+
+    // Live pool metrics for adaptive sizing and budget balancing; empty when the given pool does not expose them.
+    // The default throws IllegalStateException, so factories used with either feature must override it.
+    default Optional<PoolUsage> usage(DataSource dataSource) {
+        throw new IllegalStateException(getClass().getName() + " does not report pool usage");
+    }
+
+    // Resizes the pool in place; false when the given pool cannot be resized at runtime. The default throws
+    // IllegalStateException, so factories used with a budget or adaptive sizing must override it.
+    default boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+        throw new IllegalStateException(getClass().getName() + " cannot resize pools at runtime");
+    }
 }
@@ -2,7 +2,10 @@ package com.example.multids.datasource.factory;
 
 import com.example.multids.config.properties.SingleDatasourceProperties;
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.util.Optional;
 import javax.sql.DataSource;
 import org.springframework.stereotype.Component;
 
@@ -11,12 +14,69 @@ public class HikariDataSourceFactory implements DataSourceFactory {
 
     @Override
     public DataSource create(SingleDatasourceProperties properties) {
+        return create(properties, properties.getMaximumPoolSize());
+    }
+
+    @Override
+    public DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(properties.getUrl());
         config.setUsername(properties.getUsername());
         config.setPassword(properties.getPassword());
         config.setDriverClassName(properties.getDriverClassName());
-        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setMaximumPoolSize(maximumPoolSize);
+        if (properties.getMinimumIdle() != null) {
+            config.setMinimumIdle(Math.min(properties.getMinimumIdle(), maximumPoolSize));
+        }
+        // Start the pool without connecting; the initial probe decides whether the datasource is routable.
+        config.setInitializationFailTimeout(-1);
         return new HikariDataSource(config);
     }
+
+    @Override
+    public boolean softEvict(DataSource dataSource) {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.isClosed()) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return false;
+        }
+        // Idle connections are closed now and in-use ones on return; threads and MBeans stay in place.
+        pool.softEvictConnections();
+        return true;
+    }
+
+    @Override
+    public Optional<PoolUsage> usage(DataSource dataSource) {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.isClosed()) {
+            return Optional.empty();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new PoolUsage(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(),
+                hikari.getHikariConfigMXBean().getMaximumPoolSize()));
+    }
+
+    @Override
+    public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.isClosed()) {
+            return false;
+        }
+        HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+        // Keep minimum-idle <= maximum-pool-size at every step, whichever way the pool moves.
+        if (maximumPoolSize >= config.getMaximumPoolSize()) {
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setMinimumIdle(minimumIdle);
+        } else {
+            config.setMinimumIdle(minimumIdle);
+            config.setMaximumPoolSize(maximumPoolSize);
+        }
+        return true;
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.multids.datasource.factory;
+
+public record PoolUsage(int active, int idle, int awaiting, int maximumPoolSize) {
+
+    // Borrowers waiting for a connection count as demand the pool could not meet.
+    public double utilization() {
+        return maximumPoolSize == 0 ? 0.0d : (double) (active + awaiting) / maximumPoolSize;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.multids.datasource.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+public class ConnectionValidationHealthStrategy implements DataSourceHealthStrategy, AutoCloseable {
+
+    private static final Duration DEFAULT_LIVENESS_WINDOW = Duration.ofSeconds(30);
+
+    private final Duration validationTimeout;
+    private final long livenessWindowNanos;
+    private final Map<HikariDataSource, Connection> probeConnections = new ConcurrentHashMap<>();
+    private final Map<HikariDataSource, Long> lastValidated = new ConcurrentHashMap<>();
+
+    public ConnectionValidationHealthStrategy(Duration validationTimeout) {
+        this(validationTimeout, DEFAULT_LIVENESS_WINDOW);
+    }
+
+    public ConnectionValidationHealthStrategy(Duration validationTimeout, Duration livenessWindow) {
+        Objects.requireNonNull(validationTimeout, "validationTimeout is required");
+        if (validationTimeout.isZero() || validationTimeout.isNegative()) {
+            throw new IllegalArgumentException("validationTimeout must be positive");
+        }
+        Objects.requireNonNull(livenessWindow, "livenessWindow is required");
+        if (livenessWindow.isNegative()) {
+            throw new IllegalArgumentException("livenessWindow must be >= 0");
+        }
+        this.validationTimeout = validationTimeout;
+        this.livenessWindowNanos = livenessWindow.toNanos();
+    }
+
+    @Override
+    public boolean isHealthy(DataSource dataSource, String validationQuery) {
+        return check(dataSource, validationQuery, null).isHealthy();
+    }
+
+    @Override
+    public HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
+        Duration effective = timeout == null || timeout.compareTo(validationTimeout) > 0 ? validationTimeout : timeout;
+        int timeoutSeconds = ProbeTimeouts.toSeconds(effective);
+        if (dataSource instanceof HikariDataSource pool) {
+            return check(pool, timeoutSeconds);
+        }
+        // Without access to the pool's connection settings the only connection available is a pooled one.
+        try (Connection connection = dataSource.getConnection()) {
+            return validate(connection, timeoutSeconds);
+        } catch (Exception ex) {
+            return HealthCheckResult.UNHEALTHY;
+        }
+    }
+
+    int openProbeConnections() {
+        return probeConnections.size();
+    }
+
+    @Override
+    public void close() {
+        for (HikariDataSource pool : probeConnections.keySet()) {
+            closeQuietly(probeConnections.remove(pool));
+        }
+        lastValidated.clear();
+    }
+
+    private HealthCheckResult check(HikariDataSource pool, int timeoutSeconds) {
+        closeProbesOfClosedPools();
+        if (pool.isClosed()) {
+            return HealthCheckResult.UNHEALTHY;
+        }
+
+        // Take the probe connection out of the map so concurrent probes of the same pool never share it.
+        Connection probe = probeConnections.remove(pool);
+        long started = System.nanoTime();
+        try {
+            if (probe != null && validate(probe, timeoutSeconds).isHealthy()) {
+                return validated(pool);
+            }
+            closeQuietly(probe);
+            started = System.nanoTime();
+            probe = openProbeConnection(pool);
+            HealthCheckResult result = validate(probe, timeoutSeconds);
+            if (!result.isHealthy()) {
+                closeQuietly(probe);
+                probe = null;
+                return busyOr(pool, result);
+            }
+            return validated(pool);
+        } catch (SQLException | RuntimeException ex) {
+            closeQuietly(probe);
+            probe = null;
+            // A connect attempt that used the whole budget is a hang, not a refusal.
+            return busyOr(pool, System.nanoTime() - started >= TimeUnit.SECONDS.toNanos(timeoutSeconds)
+                    ? HealthCheckResult.TIMED_OUT
+                    : HealthCheckResult.UNHEALTHY);
+        } finally {
+            if (probe != null) {
+                closeQuietly(probeConnections.put(pool, probe));
+            }
+        }
+    }
+
+    // isValid reports a timeout as plain false, so a false answer that took the whole budget counts as timed out.
+    private static HealthCheckResult validate(Connection connection, int timeoutSeconds) throws SQLException {
+        long started = System.nanoTime();
+        if (connection.isValid(timeoutSeconds)) {
+            return HealthCheckResult.HEALTHY;
+        }
+        return System.nanoTime() - started >= TimeUnit.SECONDS.toNanos(timeoutSeconds)
+                ? HealthCheckResult.TIMED_OUT
+                : HealthCheckResult.UNHEALTHY;
+    }
+
+    private HealthCheckResult validated(HikariDataSource pool) {
+        lastValidated.put(pool, System.nanoTime());
+        return HealthCheckResult.HEALTHY;
+    }
+
+    // A database refusing one more connection while every pooled connection is checked out is busy, not down, but
+    // only if a validation succeeded recently: a hung database saturates the pool too. A timeout never counts as
+    // busy, and borrow failures on the pooled connections still trip the datasource on their own.
+    private HealthCheckResult busyOr(HikariDataSource pool, HealthCheckResult failure) {
+        Long validated = lastValidated.get(pool);
+        boolean live = validated != null && System.nanoTime() - validated <= livenessWindowNanos;
+        return failure == HealthCheckResult.UNHEALTHY && live && isSaturated(pool) ? HealthCheckResult.HEALTHY : failure;
+    }
+
+    private static boolean isSaturated(HikariDataSource pool) {
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        return stats != null
+                && stats.getIdleConnections() == 0
+                && stats.getActiveConnections() >= pool.getMaximumPoolSize();
+    }
+
+    private void closeProbesOfClosedPools() {
+        for (HikariDataSource pool : probeConnections.keySet()) {
+            if (pool.isClosed()) {
+                closeQuietly(probeConnections.remove(pool));
+            }
+        }
+        lastValidated.keySet().removeIf(HikariDataSource::isClosed);
+    }
+
+    private static Connection openProbeConnection(HikariDataSource pool) throws SQLException {
+        DataSource target = pool.getDataSource();
+        if (target != null) {
+            return pool.getUsername() == null
+                    ? target.getConnection()
+                    : target.getConnection(pool.getUsername(), pool.getPassword());
+        }
+        Properties connectionProperties = new Properties();
+        connectionProperties.putAll(pool.getDataSourceProperties());
+        if (pool.getUsername() != null) {
+            connectionProperties.setProperty("user", pool.getUsername());
+        }
+        if (pool.getPassword() != null) {
+            connectionProperties.setProperty("password", pool.getPassword());
+        }
+        return DriverManager.getConnection(pool.getJdbcUrl(), connectionProperties);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Best effort resource cleanup.
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.multids.datasource.health;
 
+import java.time.Duration;
 import javax.sql.DataSource;
 
 public interface DataSourceHealthStrategy {
     boolean isHealthy(DataSource dataSource, String validationQuery);
+
+    // Strategies that can bound their own I/O override this; the caller still enforces the deadline from outside.
+    default HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
+        return isHealthy(dataSource, validationQuery) ? HealthCheckResult.HEALTHY : HealthCheckResult.UNHEALTHY;
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.multids.datasource.health;
+
+public enum HealthCheckResult {
+    HEALTHY,
+    UNHEALTHY,
+    TIMED_OUT;
+
+    public boolean isHealthy() {
+        return this == HEALTHY;
+    }
+}
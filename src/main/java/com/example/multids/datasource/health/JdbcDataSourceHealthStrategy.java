@@ -1,7 +1,9 @@
 package com.example.multids.datasource.health;
 
 import java.sql.Connection;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.time.Duration;
 import javax.sql.DataSource;
 import org.springframework.stereotype.Component;
 
@@ -10,13 +12,23 @@ public class JdbcDataSourceHealthStrategy implements DataSourceHealthStrategy {
 
     @Override
     public boolean isHealthy(DataSource dataSource, String validationQuery) {
+        return check(dataSource, validationQuery, null).isHealthy();
+    }
+
+    @Override
+    public HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
         String query = (validationQuery == null || validationQuery.isBlank()) ? "SELECT 1" : validationQuery;
         try (Connection connection = dataSource.getConnection();
              Statement statement = connection.createStatement()) {
+            if (timeout != null) {
+                statement.setQueryTimeout(ProbeTimeouts.toSeconds(timeout));
+            }
             statement.execute(query);
-            return true;
+            return HealthCheckResult.HEALTHY;
+        } catch (SQLTimeoutException ex) {
+            return HealthCheckResult.TIMED_OUT;
         } catch (Exception ex) {
-            return false;
+            return HealthCheckResult.UNHEALTHY;
         }
     }
 }
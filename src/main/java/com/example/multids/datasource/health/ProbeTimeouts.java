@@ -0,0 +1,14 @@
+package com.example.multids.datasource.health;
+
+import java.time.Duration;
+
+final class ProbeTimeouts {
+
+    private ProbeTimeouts() {
+    }
+
+    // JDBC timeouts take whole seconds and treat 0 as "no timeout", so round up to at least one second.
+    static int toSeconds(Duration timeout) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, timeout.plusNanos(999_999_999).getSeconds()));
+    }
+}
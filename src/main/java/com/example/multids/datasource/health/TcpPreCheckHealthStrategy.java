@@ -0,0 +1,138 @@
+package com.example.multids.datasource.health;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.sql.DataSource;
+
+public class TcpPreCheckHealthStrategy implements DataSourceHealthStrategy {
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Map<String, Integer> DEFAULT_PORTS = Map.of(
+            "postgresql", 5432,
+            "mysql", 3306,
+            "mariadb", 3306,
+            "sqlserver", 1433,
+            "oracle", 1521,
+            "db2", 50000,
+            "h2", 9092);
+
+    private final DataSourceHealthStrategy delegate;
+    private final InetSocketAddress endpoint;
+
+    public TcpPreCheckHealthStrategy(DataSourceHealthStrategy delegate, String jdbcUrl) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate is required");
+        this.endpoint = endpointOf(jdbcUrl).orElse(null);
+    }
+
+    public static Optional<InetSocketAddress> endpointOf(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.regionMatches(true, 0, "jdbc:", 0, 5)) {
+            return Optional.empty();
+        }
+        int hostStart;
+        int slashes = jdbcUrl.indexOf("//");
+        int oracleAt = jdbcUrl.indexOf(":@");
+        if (oracleAt >= 0 && (slashes < 0 || slashes > oracleAt + 2)) {
+            hostStart = oracleAt + 2;
+        } else if (slashes >= 0) {
+            hostStart = slashes + 2;
+        } else {
+            return Optional.empty();
+        }
+        int hostEnd = hostStart;
+        while (hostEnd < jdbcUrl.length() && "/;?".indexOf(jdbcUrl.charAt(hostEnd)) < 0) {
+            hostEnd++;
+        }
+        String authority = jdbcUrl.substring(hostStart, hostEnd);
+        authority = authority.substring(authority.lastIndexOf('@') + 1);
+        // Multi-host failover URLs have no single endpoint to pre-check.
+        if (authority.isEmpty() || authority.indexOf(',') >= 0) {
+            return Optional.empty();
+        }
+
+        String host;
+        String port;
+        if (authority.startsWith("[")) {
+            int close = authority.indexOf(']');
+            if (close < 0) {
+                return Optional.empty();
+            }
+            host = authority.substring(1, close);
+            port = authority.length() > close + 1 && authority.charAt(close + 1) == ':'
+                    ? authority.substring(close + 2)
+                    : "";
+        } else {
+            int colon = authority.indexOf(':');
+            host = colon < 0 ? authority : authority.substring(0, colon);
+            // Oracle's host:port:sid form keeps the SID after a second colon.
+            port = colon < 0 ? "" : authority.substring(colon + 1).split(":", 2)[0];
+        }
+        if (host.isEmpty()) {
+            return Optional.empty();
+        }
+        if (port.isEmpty()) {
+            String subprotocol = jdbcUrl.substring(5).split(":", 2)[0].toLowerCase(Locale.ROOT);
+            Integer defaultPort = DEFAULT_PORTS.get(subprotocol);
+            return defaultPort == null
+                    ? Optional.empty()
+                    : Optional.of(InetSocketAddress.createUnresolved(host, defaultPort));
+        }
+        try {
+            return Optional.of(InetSocketAddress.createUnresolved(host, Integer.parseInt(port)));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean isHealthy(DataSource dataSource, String validationQuery) {
+        return check(dataSource, validationQuery, null).isHealthy();
+    }
+
+    @Override
+    public HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
+        if (endpoint == null) {
+            return delegate.check(dataSource, validationQuery, timeout);
+        }
+        long started = System.nanoTime();
+        HealthCheckResult reachable = connect(timeout == null ? DEFAULT_CONNECT_TIMEOUT : timeout);
+        if (!reachable.isHealthy()) {
+            return reachable;
+        }
+        if (timeout == null) {
+            return delegate.check(dataSource, validationQuery, null);
+        }
+        Duration remaining = timeout.minusNanos(System.nanoTime() - started);
+        return remaining.isZero() || remaining.isNegative()
+                ? HealthCheckResult.TIMED_OUT
+                : delegate.check(dataSource, validationQuery, remaining);
+    }
+
+    private HealthCheckResult connect(Duration timeout) {
+        try (SocketChannel channel = SocketChannel.open();
+             Selector selector = Selector.open()) {
+            channel.configureBlocking(false);
+            InetSocketAddress address = new InetSocketAddress(endpoint.getHostString(), endpoint.getPort());
+            if (address.isUnresolved()) {
+                return HealthCheckResult.UNHEALTHY;
+            }
+            if (channel.connect(address)) {
+                return HealthCheckResult.HEALTHY;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT);
+            if (selector.select(Math.max(1, timeout.toMillis())) == 0) {
+                return HealthCheckResult.TIMED_OUT;
+            }
+            return channel.finishConnect() ? HealthCheckResult.HEALTHY : HealthCheckResult.UNHEALTHY;
+        } catch (IOException | RuntimeException ex) {
+            return HealthCheckResult.UNHEALTHY;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.multids.metrics;
+
+import com.example.multids.datasource.DataSourceObserver;
+import com.example.multids.datasource.HealOutcome;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.routing.HealingRoutingDataSource;
+import com.example.multids.routing.RoutingObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class MultiDataSourceMetrics implements MeterBinder, RoutingObserver {
+
+    private final MultiDataSourceRegistry registry;
+    private final HealingRoutingDataSource routingDataSource;
+    // Per key: [read-write direct, read-write failover, read-only direct, read-only failover].
+    private final Map<String, Counter[]> routingDecisions = new ConcurrentHashMap<>();
+    private final Map<ManagedDataSource, DataSourceMeters> bound = new ConcurrentHashMap<>();
+    private final ReentrantLock bindLock = new ReentrantLock();
+    private volatile Counter[] exhausted = new Counter[0];
+
+    public MultiDataSourceMetrics(MultiDataSourceRegistry registry, HealingRoutingDataSource routingDataSource) {
+        this.registry = Objects.requireNonNull(registry, "registry is required");
+        this.routingDataSource = Objects.requireNonNull(routingDataSource, "routingDataSource is required");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        bindDatasources(meterRegistry, registry.datasources());
+        exhausted = new Counter[] {exhaustion(meterRegistry, false), exhaustion(meterRegistry, true)};
+        routingDataSource.setObserver(this);
+        // Datasources added or rebuilt at runtime are bound as soon as the registry publishes them, and the meters of
+        // datasources it drops are removed.
+        registry.addListener(datasources -> bindDatasources(meterRegistry, datasources));
+    }
+
+    private void bindDatasources(MeterRegistry meterRegistry, Map<String, ManagedDataSource> datasources) {
+        bindLock.lock();
+        try {
+            // Dropped meters go first, so a datasource rebuilt under the same key registers fresh ones.
+            Set<ManagedDataSource> current = Set.copyOf(datasources.values());
+            bound.entrySet().removeIf(entry -> {
+                if (current.contains(entry.getKey())) {
+                    return false;
+                }
+                routingDecisions.remove(entry.getValue().key);
+                entry.getValue().remove();
+                return true;
+            });
+            for (Map.Entry<String, ManagedDataSource> entry : datasources.entrySet()) {
+                if (!bound.containsKey(entry.getValue())) {
+                    bind(meterRegistry, entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            bindLock.unlock();
+        }
+    }
+
+    private void bind(MeterRegistry meterRegistry, String key, ManagedDataSource dataSource) {
+        DataSourceMeters meters = new DataSourceMeters(key, meterRegistry);
+        Counter[] decisions = {
+                meters.track(routingDecision(meterRegistry, key, false, false)),
+                meters.track(routingDecision(meterRegistry, key, false, true)),
+                meters.track(routingDecision(meterRegistry, key, true, false)),
+                meters.track(routingDecision(meterRegistry, key, true, true))
+        };
+        meters.track(Gauge.builder("multids.routing.active", routingDataSource,
+                        routing -> key.equals(routing.getActiveDatasource().orElse(null)) ? 1 : 0)
+                .description("1 for the datasource read-write requests currently prefer, 0 otherwise")
+                .tag("datasource", key)
+                .register(meterRegistry));
+        routingDecisions.put(key, decisions);
+        bound.put(dataSource, meters);
+        dataSource.setObserver(meters);
+    }
+
+    @Override
+    public void routed(String key, boolean readOnly, boolean failover) {
+        Counter[] counters = routingDecisions.get(key);
+        if (counters != null) {
+            counters[(readOnly ? 2 : 0) + (failover ? 1 : 0)].increment();
+        }
+    }
+
+    @Override
+    public void exhausted(boolean readOnly) {
+        Counter[] counters = exhausted;
+        if (counters.length == 2) {
+            counters[readOnly ? 1 : 0].increment();
+        }
+    }
+
+    private static Counter routingDecision(MeterRegistry meterRegistry, String key, boolean readOnly, boolean failover) {
+        return Counter.builder("multids.routing.decisions")
+                .description("Borrows served, by the datasource that served them")
+                .tag("datasource", key)
+                .tag("read-only", Boolean.toString(readOnly))
+                .tag("failover", Boolean.toString(failover))
+                .register(meterRegistry);
+    }
+
+    private static Counter exhaustion(MeterRegistry meterRegistry, boolean readOnly) {
+        return Counter.builder("multids.routing.exhausted")
+                .description("Borrows that found no datasource able to serve them")
+                .tag("read-only", Boolean.toString(readOnly))
+                .register(meterRegistry);
+    }
+
+    // Meters are registered up front so the borrow path only records into existing instances.
+    private static final class DataSourceMeters implements DataSourceObserver {
+        private final String key;
+        private final MeterRegistry meterRegistry;
+        private final Timer borrowLatency;
+        private final Counter poolReplacements;
+        private final Map<HealOutcome, Timer> heals = new EnumMap<>(HealOutcome.class);
+        private final Map<Class<?>, Counter> borrowFailures = new ConcurrentHashMap<>();
+        private final Queue<Meter> meters = new ConcurrentLinkedQueue<>();
+        private volatile boolean removed;
+
+        private DataSourceMeters(String key, MeterRegistry meterRegistry) {
+            this.key = key;
+            this.meterRegistry = meterRegistry;
+            this.borrowLatency = track(Timer.builder("multids.datasource.borrow")
+                    .description("Successful connection borrows")
+                    .tag("datasource", key)
+                    .register(meterRegistry));
+            this.poolReplacements = track(Counter.builder("multids.datasource.pool.replacements")
+                    .description("Pools rebuilt by a heal")
+                    .tag("datasource", key)
+                    .register(meterRegistry));
+            for (HealOutcome outcome : HealOutcome.values()) {
+                heals.put(outcome, track(Timer.builder("multids.datasource.heal")
+                        .description("Heal attempts, by outcome")
+                        .tag("datasource", key)
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry)));
+            }
+        }
+
+        private <M extends Meter> M track(M meter) {
+            meters.add(meter);
+            return meter;
+        }
+
+        // A borrow still in flight on a dropped datasource must not register its failure counter again.
+        private void remove() {
+            removed = true;
+            for (Meter meter : meters) {
+                meterRegistry.remove(meter);
+            }
+            meters.clear();
+        }
+
+        @Override
+        public void borrowSucceeded(ManagedDataSource dataSource, long latencyNanos) {
+            borrowLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void borrowFailed(ManagedDataSource dataSource, Exception failure) {
+            Class<?> type = failure.getClass();
+            Counter counter = borrowFailures.get(type);
+            if (counter == null) {
+                if (removed) {
+                    return;
+                }
+                counter = borrowFailures.computeIfAbsent(type, this::borrowFailureCounter);
+            }
+            counter.increment();
+        }
+
+        @Override
+        public void healCompleted(ManagedDataSource dataSource, HealOutcome outcome, long durationNanos) {
+            heals.get(outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void poolReplaced(ManagedDataSource dataSource) {
+            poolReplacements.increment();
+        }
+
+        private Counter borrowFailureCounter(Class<?> type) {
+            return track(Counter.builder("multids.datasource.borrow.failures")
+                    .description("Failed connection borrows, by exception class")
+                    .tag("datasource", key)
+                    .tag("exception", type.getSimpleName())
+                    .register(meterRegistry));
+        }
+    }
+}
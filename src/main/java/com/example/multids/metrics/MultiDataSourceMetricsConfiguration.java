@@ -0,0 +1,24 @@
+package com.example.multids.metrics;
+
+import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.routing.HealingRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+// micrometer-core is an optional dependency, so the binder is only configured when an application brings it.
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean({MultiDataSourceRegistry.class, HealingRoutingDataSource.class})
+public class MultiDataSourceMetricsConfiguration {
+
+    @Bean
+    public MultiDataSourceMetrics multiDataSourceMetrics(
+            MultiDataSourceRegistry registry,
+            HealingRoutingDataSource routingDataSource
+    ) {
+        return new MultiDataSourceMetrics(registry, routingDataSource);
+    }
+}
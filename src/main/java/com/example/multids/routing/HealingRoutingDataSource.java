@@ -1,85 +1,611 @@
 package com.example.multids.routing;
 
+import com.example.multids.config.properties.DatasourceRole;
+import com.example.multids.datasource.CircuitOpenException;
+import com.example.multids.datasource.HealthStateListener;
+import com.example.multids.datasource.LatencyStatistics;
 import com.example.multids.datasource.ManagedDataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class HealingRoutingDataSource extends AbstractRoutingDataSource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HealingRoutingDataSource.class);
+    private static final RoutingObserver NO_OBSERVER = new RoutingObserver() { };
+    private static final String NO_HEALTHY_DATASOURCE = "No healthy datasource available";
+    private static final ConnectionBorrower DEFAULT_BORROWER = ManagedDataSource::getConnection;
 
-    private final SequencedMap<String, ManagedDataSource> datasources;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final Map<ManagedDataSource, HealthStateListener> observed = new ConcurrentHashMap<>();
+    private final ThreadFactory healThreadFactory = Thread.ofVirtual().name("datasource-heal-", 0).factory();
+    private final Executor healExecutor = task -> healThreadFactory.newThread(task).start();
+    private final ReaderSelectionStrategy tierSelectionStrategy = new PowerOfTwoChoicesSelectionStrategy();
+    private final AtomicLong nextLatencyEvaluation = new AtomicLong(System.nanoTime());
+    private volatile boolean healOnDemand = true;
+    private volatile Duration healTimeout = Duration.ofSeconds(10);
+    private volatile int failoverAttempts = 3;
+    private volatile Duration failoverTimeout = Duration.ofSeconds(5);
+    private volatile ReaderSelectionStrategy readerSelectionStrategy = new RoundRobinReaderSelectionStrategy();
+    private volatile boolean latencyRouting;
+    private volatile double latencyDemotionMultiple = 3.0d;
+    private volatile Duration latencyFloor = Duration.ofMillis(5);
+    private volatile Duration latencyEvaluationInterval = Duration.ofSeconds(1);
+    private volatile Set<String> demoted = Set.of();
+    private volatile RoutingObserver observer = NO_OBSERVER;
+    private volatile SequencedMap<String, ManagedDataSource> datasources;
+    private volatile RoutingSnapshot snapshot;
 
     public HealingRoutingDataSource(SequencedMap<String, ManagedDataSource> datasources) {
-        this.datasources = Objects.requireNonNull(datasources, "datasources are required");
+        this.datasources = requireDatasources(datasources);
+        this.snapshot = RoutingSnapshot.of(datasources);
+        observe(datasources);
+    }
+
+    // Swaps the routed datasources at runtime. Borrows in flight finish on the snapshot they started with.
+    public void setDatasources(SequencedMap<String, ManagedDataSource> datasources) {
+        SequencedMap<String, ManagedDataSource> replacement = requireDatasources(datasources);
+        snapshotLock.lock();
+        try {
+            this.datasources = replacement;
+            observe(replacement);
+            forgetRetired(replacement);
+            snapshot = RoutingSnapshot.of(replacement, demoted);
+        } finally {
+            snapshotLock.unlock();
+        }
+        setTargetDataSources(new LinkedHashMap<>(replacement));
+        afterPropertiesSet();
+    }
+
+    public SequencedMap<String, ManagedDataSource> getDatasources() {
+        return datasources;
+    }
+
+    private static SequencedMap<String, ManagedDataSource> requireDatasources(
+            SequencedMap<String, ManagedDataSource> datasources) {
+        Objects.requireNonNull(datasources, "datasources are required");
         if (datasources.isEmpty()) {
             throw new IllegalArgumentException("datasources are required");
         }
+        return datasources;
+    }
+
+    private void observe(SequencedMap<String, ManagedDataSource> datasources) {
+        for (ManagedDataSource dataSource : datasources.values()) {
+            observed.computeIfAbsent(dataSource, added -> {
+                HealthStateListener listener = (source, healthy) -> refreshSnapshot();
+                added.addHealthStateListener(listener);
+                return listener;
+            });
+        }
+    }
+
+    // Retired datasources keep draining and may still change health; their transitions must not rebuild snapshots.
+    private void forgetRetired(SequencedMap<String, ManagedDataSource> datasources) {
+        Set<ManagedDataSource> current = Set.copyOf(datasources.values());
+        observed.entrySet().removeIf(entry -> {
+            if (current.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getKey().removeHealthStateListener(entry.getValue());
+            return true;
+        });
+    }
+
+    public boolean isHealOnDemand() {
+        return healOnDemand;
+    }
+
+    public void setHealOnDemand(boolean healOnDemand) {
+        this.healOnDemand = healOnDemand;
+    }
+
+    public Duration getHealTimeout() {
+        return healTimeout;
+    }
+
+    public void setHealTimeout(Duration healTimeout) {
+        Objects.requireNonNull(healTimeout, "healTimeout is required");
+        if (healTimeout.isZero() || healTimeout.isNegative()) {
+            throw new IllegalArgumentException("healTimeout must be positive");
+        }
+        this.healTimeout = healTimeout;
+    }
+
+    public int getFailoverAttempts() {
+        return failoverAttempts;
+    }
+
+    public void setFailoverAttempts(int failoverAttempts) {
+        if (failoverAttempts < 1) {
+            throw new IllegalArgumentException("failoverAttempts must be >= 1");
+        }
+        this.failoverAttempts = failoverAttempts;
+    }
+
+    public Duration getFailoverTimeout() {
+        return failoverTimeout;
+    }
+
+    public void setFailoverTimeout(Duration failoverTimeout) {
+        Objects.requireNonNull(failoverTimeout, "failoverTimeout is required");
+        if (failoverTimeout.isZero() || failoverTimeout.isNegative()) {
+            throw new IllegalArgumentException("failoverTimeout must be positive");
+        }
+        this.failoverTimeout = failoverTimeout;
+    }
+
+    public ReaderSelectionStrategy getReaderSelectionStrategy() {
+        return readerSelectionStrategy;
+    }
+
+    public void setReaderSelectionStrategy(ReaderSelectionStrategy readerSelectionStrategy) {
+        this.readerSelectionStrategy = Objects.requireNonNull(readerSelectionStrategy, "readerSelectionStrategy is required");
+    }
+
+    public boolean isLatencyRouting() {
+        return latencyRouting;
+    }
+
+    public void setLatencyRouting(boolean latencyRouting) {
+        this.latencyRouting = latencyRouting;
+        if (!latencyRouting && !demoted.isEmpty()) {
+            demoted = Set.of();
+            refreshSnapshot();
+        }
+    }
+
+    public double getLatencyDemotionMultiple() {
+        return latencyDemotionMultiple;
+    }
+
+    public void setLatencyDemotionMultiple(double latencyDemotionMultiple) {
+        if (!(latencyDemotionMultiple > 1.0d)) {
+            throw new IllegalArgumentException("latencyDemotionMultiple must be > 1");
+        }
+        this.latencyDemotionMultiple = latencyDemotionMultiple;
+    }
+
+    public Duration getLatencyFloor() {
+        return latencyFloor;
+    }
+
+    public void setLatencyFloor(Duration latencyFloor) {
+        Objects.requireNonNull(latencyFloor, "latencyFloor is required");
+        if (latencyFloor.isNegative()) {
+            throw new IllegalArgumentException("latencyFloor must be >= 0");
+        }
+        this.latencyFloor = latencyFloor;
+    }
+
+    public Duration getLatencyEvaluationInterval() {
+        return latencyEvaluationInterval;
+    }
+
+    public void setLatencyEvaluationInterval(Duration latencyEvaluationInterval) {
+        Objects.requireNonNull(latencyEvaluationInterval, "latencyEvaluationInterval is required");
+        if (latencyEvaluationInterval.isZero() || latencyEvaluationInterval.isNegative()) {
+            throw new IllegalArgumentException("latencyEvaluationInterval must be positive");
+        }
+        this.latencyEvaluationInterval = latencyEvaluationInterval;
+    }
+
+    public Set<String> getDemotedDatasources() {
+        return demoted;
+    }
+
+    public void setObserver(RoutingObserver observer) {
+        this.observer = Objects.requireNonNull(observer, "observer is required");
+    }
+
+    public Optional<String> getActiveDatasource() {
+        RoutingSnapshot current = snapshot;
+        return current.exhausted() ? Optional.empty() : Optional.of(current.key(0));
     }
 
     @Override
     protected Object determineCurrentLookupKey() {
-        for (var entry : datasources.entrySet()) {
-            ManagedDataSource dataSource = entry.getValue();
-            if (dataSource.isMarkedHealthy()) {
-                return entry.getKey();
+        RoutingSnapshot current = snapshot;
+        RoutingContext context = RoutingContext.currentOrNull();
+        if (context != null) {
+            Map.Entry<String, ManagedDataSource> preferred = preferredTarget(context, context.resolve(current));
+            if (preferred != null) {
+                return preferred.getKey();
+            }
+        }
+        if (current.exhausted()) {
+            throw new IllegalStateException(NO_HEALTHY_DATASOURCE);
+        }
+        return current.key(firstInTier(current, 0));
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        RoutingSnapshot current = snapshot;
+        RoutingContext context = RoutingContext.currentOrNull();
+        if (context != null) {
+            Map.Entry<String, ManagedDataSource> preferred = preferredTarget(context, context.resolve(current));
+            if (preferred != null) {
+                return preferred.getValue();
             }
         }
-        throw new IllegalStateException("No healthy datasource available");
+        if (current.exhausted()) {
+            throw new IllegalStateException(NO_HEALTHY_DATASOURCE);
+        }
+        return current.target(firstInTier(current, 0));
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        return getConnectionWithOnDemandHeal(this::getConnectionInternal);
+        return route(DEFAULT_BORROWER);
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return getConnectionWithOnDemandHeal(() -> getConnectionInternal(username, password));
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    RoutingSnapshot snapshot() {
+        return snapshot;
     }
 
-    private Connection getConnectionWithOnDemandHeal(ConnectionSupplier supplier) throws SQLException {
+    void refreshSnapshot() {
+        snapshotLock.lock();
         try {
-            return supplier.get();
-        } catch (IllegalStateException ex) {
-            healAllDatasources();
+            snapshot = RoutingSnapshot.of(datasources, demoted);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private Connection route(ConnectionBorrower borrower) throws SQLException {
+        if (latencyRouting) {
+            evaluateLatencyIfDue();
+        }
+        boolean readOnly = isReadOnlyRequest();
+        RoutingContext context = RoutingContext.currentOrNull();
+        if (context != null) {
+            Connection connection = routePreferred(context, context.resolve(snapshot), readOnly, borrower);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        RoutingSnapshot current = snapshot;
+        if (current.exhaustedFor(readOnly)) {
+            current = snapshotAfterHeal(readOnly);
+        }
+
+        // Read-only borrows try the healthy readers first, starting at the selected one, then fall back to writers.
+        int readerCount = readOnly ? current.readerCount() : 0;
+        int preferredReaders = readOnly ? current.readers().size() : 0;
+        int firstReader = preferredReaders == 0 ? 0 : readerSelectionStrategy.select(current.readers());
+        int candidates = readerCount + current.size();
+        int tierFirst = 0;
+        BorrowFailures failures = null;
+        for (int attempt = 0; attempt < candidates; attempt++) {
+            ManagedDataSource target;
+            String key;
+            if (attempt < readerCount) {
+                int reader = attempt < preferredReaders ? (firstReader + attempt) % preferredReaders : attempt;
+                target = current.reader(reader);
+                key = current.readerKey(reader);
+            } else {
+                // Writers are tried tier by tier; inside a tier the load-balanced pick goes first, then the rest.
+                int writer = attempt - readerCount;
+                int tier = current.tierOf(writer);
+                int tierStart = current.tierStart(tier);
+                if (writer == tierStart) {
+                    tierFirst = firstInTier(current, tier) - tierStart;
+                }
+                int tierSize = current.tier(tier).size();
+                int index = tierStart + (tierFirst + writer - tierStart) % tierSize;
+                target = current.target(index);
+                key = current.key(index);
+            }
             try {
-                return supplier.get();
-            } catch (IllegalStateException retryEx) {
-                throw noHealthyDatasourceException(retryEx);
+                Connection connection = borrower.borrow(target);
+                if (failures != null) {
+                    failures.reportServedBy(key);
+                }
+                observer.routed(key, readOnly, failures != null);
+                return connection;
+            } catch (CircuitOpenException ex) {
+                // Not admitted (open or out of half-open trials): move on without spending the failover budget.
+                if (failures == null) {
+                    failures = new BorrowFailures(failoverAttempts, failoverTimeout);
+                }
+                failures.rejected(ex);
+            } catch (SQLException | RuntimeException ex) {
+                if (failures == null) {
+                    failures = new BorrowFailures(failoverAttempts, failoverTimeout);
+                }
+                if (failures.failedAndBudgetSpent(key, ex)) {
+                    reportExhausted(readOnly, "failover-budget-spent", failures);
+                    throw ex;
+                }
+            }
+        }
+        reportExhausted(readOnly, "candidates-exhausted", failures);
+        throw failures.exhausted();
+    }
+
+    // The context overrides roles, tiers and latency demotion: matching datasources are tried in routing order and
+    // healed on demand when none is healthy. Returns null when none can serve and the context falls back.
+    private Connection routePreferred(RoutingContext context, List<Map.Entry<String, ManagedDataSource>> matches,
+            boolean readOnly, ConnectionBorrower borrower) throws SQLException {
+        if (healOnDemand && !matches.isEmpty()
+                && matches.stream().noneMatch(match -> match.getValue().isMarkedHealthy())) {
+            heal(matches.stream().map(Map.Entry::getValue).toList());
+        }
+        BorrowFailures failures = null;
+        for (Map.Entry<String, ManagedDataSource> match : matches) {
+            if (!match.getValue().isMarkedHealthy()) {
+                continue;
+            }
+            String key = match.getKey();
+            try {
+                Connection connection = borrower.borrow(match.getValue());
+                if (failures != null) {
+                    failures.reportServedBy(key);
+                }
+                observer.routed(key, readOnly, failures != null);
+                return connection;
+            } catch (CircuitOpenException ex) {
+                if (failures == null) {
+                    failures = new BorrowFailures(failoverAttempts, failoverTimeout);
+                }
+                failures.rejected(ex);
+            } catch (SQLException | RuntimeException ex) {
+                if (failures == null) {
+                    failures = new BorrowFailures(failoverAttempts, failoverTimeout);
+                }
+                if (failures.failedAndBudgetSpent(key, ex)) {
+                    break;
+                }
+            }
+        }
+        if (context.getFallback() == RoutingFallback.FAILOVER) {
+            LOGGER.debug("No datasource for {} could serve the borrow, routing without the context", context);
+            return null;
+        }
+        reportExhausted(readOnly, "preferred-unavailable", failures);
+        throw new SQLException(NO_HEALTHY_DATASOURCE + " for " + context, failures == null ? null : failures.cause());
+    }
+
+    private Map.Entry<String, ManagedDataSource> preferredTarget(
+            RoutingContext context, List<Map.Entry<String, ManagedDataSource>> matches) {
+        for (Map.Entry<String, ManagedDataSource> match : matches) {
+            if (match.getValue().isMarkedHealthy()) {
+                return match;
             }
         }
+        if (context.getFallback() == RoutingFallback.FAIL) {
+            throw new IllegalStateException(NO_HEALTHY_DATASOURCE + " for " + context);
+        }
+        return null;
     }
 
-    private Connection getConnectionInternal() throws SQLException {
-        return super.getConnection();
+    private RoutingSnapshot snapshotAfterHeal(boolean readOnly) throws SQLException {
+        if (healOnDemand) {
+            OnDemandHealEvent event = new OnDemandHealEvent();
+            event.begin();
+            healAllDatasources();
+            refreshSnapshot();
+            RoutingSnapshot healed = snapshot;
+            boolean recovered = !healed.exhaustedFor(readOnly);
+            if (event.shouldCommit()) {
+                event.datasource = healed.exhausted() ? null : healed.key(0);
+                event.outcome = recovered ? "recovered" : "exhausted";
+                event.readOnly = readOnly;
+                event.commit();
+            }
+            if (recovered) {
+                return healed;
+            }
+        }
+        reportExhausted(readOnly, "no-healthy-datasource", null);
+        throw new SQLException(NO_HEALTHY_DATASOURCE);
     }
 
-    private Connection getConnectionInternal(String username, String password) throws SQLException {
-        return super.getConnection(username, password);
+    private void reportExhausted(boolean readOnly, String outcome, BorrowFailures failures) {
+        observer.exhausted(readOnly);
+        RoutingExhaustedEvent event = new RoutingExhaustedEvent();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.readOnly = readOnly;
+            if (failures != null) {
+                event.datasource = String.join(",", failures.failedKeys);
+                event.failoverTime = System.nanoTime() - failures.started;
+            }
+            event.commit();
+        }
+    }
+
+    private void evaluateLatencyIfDue() {
+        long now = System.nanoTime();
+        long due = nextLatencyEvaluation.get();
+        // One borrower per interval wins the CAS and pays for the evaluation; everyone else routes on.
+        if (now - due < 0L || !nextLatencyEvaluation.compareAndSet(due, now + latencyEvaluationInterval.toNanos())) {
+            return;
+        }
+        evaluateLatency();
+    }
+
+    void evaluateLatency() {
+        Map<DatasourceRole, Map<String, Long>> latencies = new EnumMap<>(DatasourceRole.class);
+        SequencedMap<String, ManagedDataSource> current = datasources;
+        for (Map.Entry<String, ManagedDataSource> entry : current.entrySet()) {
+            ManagedDataSource dataSource = entry.getValue();
+            LatencyStatistics statistics = dataSource.getLatencyStatistics();
+            if (dataSource.isMarkedHealthy() && statistics.hasSamples()) {
+                latencies.computeIfAbsent(dataSource.getRole(), role -> new LinkedHashMap<>())
+                        .put(entry.getKey(), statistics.routingLatency().toNanos());
+            }
+        }
+
+        Set<String> slow = new LinkedHashSet<>();
+        long floor = latencyFloor.toNanos();
+        double multiple = latencyDemotionMultiple;
+        for (Map<String, Long> peers : latencies.values()) {
+            for (Map.Entry<String, Long> candidate : peers.entrySet()) {
+                long[] others = peers.entrySet().stream()
+                        .filter(peer -> !peer.getKey().equals(candidate.getKey()))
+                        .mapToLong(Map.Entry::getValue)
+                        .sorted()
+                        .toArray();
+                if (others.length > 0 && candidate.getValue() > floor
+                        && candidate.getValue() > multiple * median(others)) {
+                    slow.add(candidate.getKey());
+                }
+            }
+        }
+
+        Set<String> previous = demoted;
+        if (!slow.equals(previous)) {
+            LOGGER.info("Latency-demoted datasources changed from {} to {}", previous, slow);
+            demoted = Set.copyOf(slow);
+            refreshSnapshot();
+        }
+        // Demoted datasources receive no traffic, so refresh their latency with a trial borrow each evaluation.
+        for (String key : slow) {
+            ManagedDataSource dataSource = current.get(key);
+            healExecutor.execute(() -> sampleQuietly(dataSource));
+        }
+    }
+
+    private static double median(long[] sorted) {
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0d;
+    }
+
+    private static void sampleQuietly(ManagedDataSource dataSource) {
+        try (Connection ignored = dataSource.getConnection()) {
+            // Borrowing records the latency sample.
+        } catch (SQLException | RuntimeException ex) {
+            LOGGER.debug("Latency trial borrow failed for datasource {}", dataSource.getName(), ex);
+        }
+    }
+
+    private int firstInTier(RoutingSnapshot current, int tier) {
+        List<ManagedDataSource> members = current.tier(tier);
+        int start = current.tierStart(tier);
+        return members.size() == 1 ? start : start + tierSelectionStrategy.select(members);
+    }
+
+    private static boolean isReadOnlyRequest() {
+        return RoutingHints.isReadOnly() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
     }
 
     private void healAllDatasources() {
-        for (ManagedDataSource dataSource : datasources.values()) {
+        heal(new ArrayList<>(datasources.values()));
+    }
+
+    private void heal(List<ManagedDataSource> candidates) {
+        long deadline = System.nanoTime() + healTimeout.toNanos();
+        List<CompletableFuture<Boolean>> heals = new ArrayList<>(candidates.size());
+        for (ManagedDataSource dataSource : candidates) {
+            heals.add(CompletableFuture.supplyAsync(() -> healQuietly(dataSource), healExecutor));
+        }
+
+        // Wait in priority order: once a datasource is healthy, every higher-priority one is known not to be,
+        // so lower-priority heals are left to finish in the background.
+        for (int i = 0; i < candidates.size(); i++) {
+            long remaining = Math.max(0L, deadline - System.nanoTime());
             try {
-                dataSource.healIfNeeded();
-            } catch (Exception ex) {
-                LOGGER.warn("On-demand heal failed for datasource {}", dataSource.getName(), ex);
+                heals.get(i).get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                LOGGER.warn("On-demand heal did not settle within {}", healTimeout);
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                // healQuietly never completes exceptionally.
+            }
+            if (candidates.get(i).isMarkedHealthy()) {
+                return;
             }
         }
     }
 
-    private static SQLException noHealthyDatasourceException(IllegalStateException cause) {
-        return new SQLException("No healthy datasource available", cause);
+    private static boolean healQuietly(ManagedDataSource dataSource) {
+        try {
+            return dataSource.healIfNeeded();
+        } catch (Exception ex) {
+            LOGGER.warn("On-demand heal failed for datasource {}", dataSource.getName(), ex);
+            return false;
+        }
+    }
+
+    private static final class BorrowFailures {
+        private final int maxAttempts;
+        private final long started;
+        private final long deadline;
+        private final List<String> failedKeys = new ArrayList<>();
+        private Exception lastFailure;
+        private CircuitOpenException lastRejection;
+
+        private BorrowFailures(int maxAttempts, Duration timeout) {
+            this.maxAttempts = maxAttempts;
+            this.started = System.nanoTime();
+            this.deadline = started + timeout.toNanos();
+        }
+
+        private void rejected(CircuitOpenException rejection) {
+            lastRejection = rejection;
+        }
+
+        private boolean failedAndBudgetSpent(String key, Exception failure) {
+            if (lastFailure != null) {
+                failure.addSuppressed(lastFailure);
+            }
+            lastFailure = failure;
+            failedKeys.add(key);
+            return failedKeys.size() >= maxAttempts || System.nanoTime() - deadline >= 0L;
+        }
+
+        private void reportServedBy(String key) {
+            if (!failedKeys.isEmpty()) {
+                LOGGER.info("Connection served by datasource {} after failed borrow on {}", key, failedKeys);
+            }
+        }
+
+        private Exception cause() {
+            return lastFailure != null ? lastFailure : lastRejection;
+        }
+
+        private SQLException exhausted() {
+            return new SQLException(NO_HEALTHY_DATASOURCE, cause());
+        }
     }
 
     @FunctionalInterface
-    private interface ConnectionSupplier {
-        Connection get() throws SQLException;
+    private interface ConnectionBorrower {
+        Connection borrow(ManagedDataSource dataSource) throws SQLException;
     }
 }
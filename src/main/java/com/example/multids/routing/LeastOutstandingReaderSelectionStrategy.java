@@ -0,0 +1,26 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LeastOutstandingReaderSelectionStrategy implements ReaderSelectionStrategy {
+
+    @Override
+    public int select(List<ManagedDataSource> readers) {
+        int size = readers.size();
+        // Start the scan at a random offset so ties do not all land on the first reader.
+        int offset = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        int best = offset;
+        int bestLeased = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = (offset + i) % size;
+            int leased = readers.get(index).getLeasedConnections();
+            if (leased < bestLeased) {
+                best = index;
+                bestLeased = leased;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.multids.routing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.multids.OnDemandHeal")
+@Label("On-Demand Heal")
+@Category({"Multi Datasource", "Routing"})
+@Description("A request found no healthy datasource and healed them on the request thread")
+@Enabled(false)
+class OnDemandHealEvent extends Event {
+
+    @Label("Datasource")
+    @Description("The datasource routing prefers after the heal, if any")
+    String datasource;
+
+    @Label("Outcome")
+    @Description("recovered or exhausted")
+    String outcome;
+
+    @Label("Read Only")
+    boolean readOnly;
+}
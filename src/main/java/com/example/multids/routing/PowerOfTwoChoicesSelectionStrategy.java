@@ -0,0 +1,23 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class PowerOfTwoChoicesSelectionStrategy implements ReaderSelectionStrategy {
+
+    @Override
+    public int select(List<ManagedDataSource> candidates) {
+        int size = candidates.size();
+        if (size == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        // Second pick is drawn from the remaining size - 1 slots so the two choices are always distinct.
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+        return candidates.get(second).getLeasedConnections() < candidates.get(first).getLeasedConnections()
+                ? second
+                : first;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.List;
+
+@FunctionalInterface
+public interface ReaderSelectionStrategy {
+
+    int select(List<ManagedDataSource> readers);
+}
@@ -0,0 +1,15 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoundRobinReaderSelectionStrategy implements ReaderSelectionStrategy {
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public int select(List<ManagedDataSource> readers) {
+        return Math.floorMod(next.getAndIncrement(), readers.size());
+    }
+}
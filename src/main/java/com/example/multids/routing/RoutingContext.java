@@ -0,0 +1,86 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+// Pins a unit of work to a named datasource or to the datasources carrying a tag. The context is bound with a
+// ScopedValue rather than a ThreadLocal: binding allocates no per-thread map entry, the binding ends with the scope
+// even when the work throws, and subtasks forked from a StructuredTaskScope opened inside the scope inherit it.
+// Threads started any other way, executor pools included, do not.
+public final class RoutingContext {
+
+    private static final ScopedValue<RoutingContext> CURRENT = ScopedValue.newInstance();
+
+    private final String datasource;
+    private final String tag;
+    private final RoutingFallback fallback;
+
+    private RoutingContext(String datasource, String tag, RoutingFallback fallback) {
+        this.datasource = datasource;
+        this.tag = tag;
+        this.fallback = fallback;
+    }
+
+    public static RoutingContext preferDatasource(String name) {
+        return new RoutingContext(requireText(name, "name"), null, RoutingFallback.FAIL);
+    }
+
+    public static RoutingContext preferTag(String tag) {
+        return new RoutingContext(null, requireText(tag, "tag"), RoutingFallback.FAIL);
+    }
+
+    public static Optional<RoutingContext> current() {
+        return Optional.ofNullable(CURRENT.orElse(null));
+    }
+
+    static RoutingContext currentOrNull() {
+        return CURRENT.orElse(null);
+    }
+
+    public RoutingContext withFallback(RoutingFallback fallback) {
+        return new RoutingContext(datasource, tag, Objects.requireNonNull(fallback, "fallback is required"));
+    }
+
+    public Optional<String> getDatasource() {
+        return Optional.ofNullable(datasource);
+    }
+
+    public Optional<String> getTag() {
+        return Optional.ofNullable(tag);
+    }
+
+    public RoutingFallback getFallback() {
+        return fallback;
+    }
+
+    public void run(Runnable work) {
+        Objects.requireNonNull(work, "work is required");
+        ScopedValue.runWhere(CURRENT, this, work);
+    }
+
+    public <T> T call(Callable<T> work) throws Exception {
+        Objects.requireNonNull(work, "work is required");
+        return ScopedValue.callWhere(CURRENT, this, work);
+    }
+
+    // Matching datasources in routing order (explicit priority, then position), taken from the snapshot's index.
+    List<Map.Entry<String, ManagedDataSource>> resolve(RoutingSnapshot snapshot) {
+        return datasource != null ? snapshot.named(datasource) : snapshot.tagged(tag);
+    }
+
+    @Override
+    public String toString() {
+        return (datasource != null ? "datasource " + datasource : "tag " + tag) + " (fallback " + fallback + ")";
+    }
+
+    private static String requireText(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " must not be blank");
+        }
+        return value;
+    }
+}
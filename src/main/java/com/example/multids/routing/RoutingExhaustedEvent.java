@@ -0,0 +1,32 @@
+package com.example.multids.routing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.example.multids.RoutingExhausted")
+@Label("Routing Exhausted")
+@Category({"Multi Datasource", "Routing"})
+@Description("A borrow found no datasource able to serve it")
+@Enabled(false)
+class RoutingExhaustedEvent extends Event {
+
+    @Label("Datasource")
+    @Description("Datasources whose borrow failed, in attempt order")
+    String datasource;
+
+    @Label("Outcome")
+    @Description("no-healthy-datasource, failover-budget-spent or candidates-exhausted")
+    String outcome;
+
+    @Label("Read Only")
+    boolean readOnly;
+
+    @Label("Failover Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long failoverTime;
+}
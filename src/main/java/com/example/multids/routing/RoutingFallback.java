@@ -0,0 +1,7 @@
+package com.example.multids.routing;
+
+// What a borrow does when no datasource matching its routing context can serve it.
+public enum RoutingFallback {
+    FAIL,
+    FAILOVER
+}
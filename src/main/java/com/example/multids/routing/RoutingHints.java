@@ -0,0 +1,43 @@
+package com.example.multids.routing;
+
+import java.util.concurrent.Callable;
+
+public final class RoutingHints {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private RoutingHints() {
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+
+    public static <T> T callReadOnly(Callable<T> work) throws Exception {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        try {
+            return work.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runReadOnly(Runnable work) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        try {
+            work.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.multids.routing;
+
+// Called inline on every routed borrow: implementations must not block and should not allocate.
+public interface RoutingObserver {
+
+    default void routed(String key, boolean readOnly, boolean failover) {
+    }
+
+    default void exhausted(boolean readOnly) {
+    }
+}
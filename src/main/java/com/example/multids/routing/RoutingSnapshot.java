@@ -0,0 +1,164 @@
+package com.example.multids.routing;
+
+import com.example.multids.config.properties.DatasourceRole;
+import com.example.multids.datasource.ManagedDataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+
+final class RoutingSnapshot {
+
+    private static final Comparator<Candidate> ROUTING_ORDER = Comparator
+            .comparing(Candidate::demoted)
+            .thenComparingInt(Candidate::priority)
+            .thenComparingInt(Candidate::position);
+    private static final Comparator<Candidate> PREFERENCE_ORDER = Comparator
+            .comparingInt(Candidate::priority)
+            .thenComparingInt(Candidate::position);
+
+    private final String[] writerKeys;
+    private final ManagedDataSource[] writers;
+    private final int[] writerTiers;
+    private final int[] tierStarts;
+    private final List<List<ManagedDataSource>> tiers;
+    private final String[] readerKeys;
+    private final ManagedDataSource[] readers;
+    private final List<ManagedDataSource> preferredReaders;
+    private final Map<String, List<Map.Entry<String, ManagedDataSource>>> byName;
+    private final Map<String, List<Map.Entry<String, ManagedDataSource>>> byTag;
+
+    private RoutingSnapshot(List<Candidate> writers, List<Candidate> readers, List<Candidate> ranked) {
+        this.writerKeys = writers.stream().map(Candidate::key).toArray(String[]::new);
+        this.writers = writers.stream().map(Candidate::target).toArray(ManagedDataSource[]::new);
+        this.writerTiers = new int[writers.size()];
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < writers.size(); i++) {
+            if (i == 0 || !writers.get(i - 1).sameTier(writers.get(i))) {
+                starts.add(i);
+            }
+            writerTiers[i] = starts.size() - 1;
+        }
+        this.tierStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        List<ManagedDataSource> all = List.of(this.writers);
+        List<List<ManagedDataSource>> tierViews = new ArrayList<>(tierStarts.length);
+        for (int t = 0; t < tierStarts.length; t++) {
+            int end = t + 1 < tierStarts.length ? tierStarts[t + 1] : this.writers.length;
+            tierViews.add(all.subList(tierStarts[t], end));
+        }
+        this.tiers = List.copyOf(tierViews);
+        this.readerKeys = readers.stream().map(Candidate::key).toArray(String[]::new);
+        this.readers = readers.stream().map(Candidate::target).toArray(ManagedDataSource[]::new);
+        int preferred = (int) readers.stream().filter(reader -> !reader.demoted()).count();
+        this.preferredReaders = List.of(this.readers).subList(0, preferred);
+        // Routing contexts resolve against every datasource, healthy or not, so unhealthy matches can be healed.
+        Map<String, List<Map.Entry<String, ManagedDataSource>>> names = new HashMap<>();
+        Map<String, List<Map.Entry<String, ManagedDataSource>>> tags = new HashMap<>();
+        for (Candidate candidate : ranked) {
+            Map.Entry<String, ManagedDataSource> entry = Map.entry(candidate.key(), candidate.target());
+            names.put(candidate.key(), List.of(entry));
+            for (String tag : candidate.target().getTags()) {
+                tags.computeIfAbsent(tag, ignored -> new ArrayList<>()).add(entry);
+            }
+        }
+        tags.replaceAll((tag, matches) -> List.copyOf(matches));
+        this.byName = Map.copyOf(names);
+        this.byTag = Map.copyOf(tags);
+    }
+
+    static RoutingSnapshot of(SequencedMap<String, ManagedDataSource> datasources) {
+        return of(datasources, Set.of());
+    }
+
+    static RoutingSnapshot of(SequencedMap<String, ManagedDataSource> datasources, Set<String> demoted) {
+        List<Candidate> writers = new ArrayList<>(datasources.size());
+        List<Candidate> readers = new ArrayList<>();
+        List<Candidate> all = new ArrayList<>(datasources.size());
+        int position = 0;
+        for (Map.Entry<String, ManagedDataSource> entry : datasources.entrySet()) {
+            ManagedDataSource dataSource = entry.getValue();
+            // Without an explicit priority a datasource is ranked by its configured position.
+            Candidate candidate = new Candidate(
+                    entry.getKey(),
+                    dataSource,
+                    demoted.contains(entry.getKey()),
+                    dataSource.getPriority().orElse(position),
+                    position);
+            position++;
+            all.add(candidate);
+            if (dataSource.isMarkedHealthy()) {
+                (dataSource.getRole() == DatasourceRole.READER ? readers : writers).add(candidate);
+            }
+        }
+        writers.sort(ROUTING_ORDER);
+        readers.sort(Comparator.comparing(Candidate::demoted).thenComparingInt(Candidate::position));
+        all.sort(PREFERENCE_ORDER);
+        return new RoutingSnapshot(writers, readers, all);
+    }
+
+    boolean exhausted() {
+        return writers.length == 0;
+    }
+
+    boolean exhaustedFor(boolean readOnly) {
+        return writers.length == 0 && (!readOnly || readers.length == 0);
+    }
+
+    int size() {
+        return writers.length;
+    }
+
+    String key(int index) {
+        return writerKeys[index];
+    }
+
+    ManagedDataSource target(int index) {
+        return writers[index];
+    }
+
+    int tierOf(int index) {
+        return writerTiers[index];
+    }
+
+    int tierStart(int tier) {
+        return tierStarts[tier];
+    }
+
+    List<ManagedDataSource> tier(int tier) {
+        return tiers.get(tier);
+    }
+
+    int readerCount() {
+        return readers.length;
+    }
+
+    List<ManagedDataSource> readers() {
+        return preferredReaders;
+    }
+
+    String readerKey(int index) {
+        return readerKeys[index];
+    }
+
+    ManagedDataSource reader(int index) {
+        return readers[index];
+    }
+
+    List<Map.Entry<String, ManagedDataSource>> named(String name) {
+        return byName.getOrDefault(name, List.of());
+    }
+
+    List<Map.Entry<String, ManagedDataSource>> tagged(String tag) {
+        return byTag.getOrDefault(tag, List.of());
+    }
+
+    private record Candidate(String key, ManagedDataSource target, boolean demoted, int priority, int position) {
+
+        private boolean sameTier(Candidate other) {
+            return demoted == other.demoted && priority == other.priority;
+        }
+    }
+}
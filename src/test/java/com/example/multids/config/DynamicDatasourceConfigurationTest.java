@@ -1,17 +1,44 @@
 package com.example.multids.config;
 
+import com.example.multids.config.properties.CircuitBreakerProperties;
 import com.example.multids.config.properties.DynamicDatasourcesProperties;
+import com.example.multids.config.properties.HealthCheckMode;
+import com.example.multids.config.properties.LatencyRoutingProperties;
+import com.example.multids.config.properties.PoolSizingProperties;
+import com.example.multids.config.properties.ReaderSelection;
 import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ConnectionBudget;
+import com.example.multids.datasource.ConnectionBudgetBalancer;
+import com.example.multids.datasource.DataSourceHealthProber;
+import com.example.multids.datasource.DynamicDataSourceManager;
 import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.datasource.PoolSizeController;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.health.ConnectionValidationHealthStrategy;
+import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import com.example.multids.routing.HealingRoutingDataSource;
+import com.example.multids.routing.LeastOutstandingReaderSelectionStrategy;
+import com.example.multids.routing.PowerOfTwoChoicesSelectionStrategy;
+import com.example.multids.routing.RoundRobinReaderSelectionStrategy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 class DynamicDatasourceConfigurationTest {
@@ -61,10 +88,23 @@ class DynamicDatasourceConfigurationTest {
         MultiDataSourceRegistry registry =
                 configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
 
-        DataSource routing = configuration.routingDataSource(registry);
+        DataSource routing = configuration.routingDataSource(registry, properties);
         assertTrue(routing instanceof AbstractRoutingDataSource);
     }
 
+    @Test
+    void primaryDataSourceDefersTheBorrowToTheRouter() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+        HealingRoutingDataSource routing = configuration.routingDataSource(registry, properties);
+
+        DataSource primary = configuration.dataSource(routing);
+
+        assertSame(routing, assertInstanceOf(LazyConnectionDataSourceProxy.class, primary).getTargetDataSource());
+    }
+
     @Test
     void createsRoutingDataSourceWithoutDefaultDatasourceProperty() {
         DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
@@ -72,10 +112,397 @@ class DynamicDatasourceConfigurationTest {
         MultiDataSourceRegistry registry =
                 configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
 
-        DataSource routing = configuration.routingDataSource(registry);
+        DataSource routing = configuration.routingDataSource(registry, properties);
         assertTrue(routing instanceof AbstractRoutingDataSource);
     }
 
+    @Test
+    void runtimeDatasourceChangesReachTheRouter() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+        HealingRoutingDataSource routing = configuration.routingDataSource(registry, properties);
+        DynamicDataSourceManager manager = configuration.dynamicDataSourceManager(
+                registry, properties, p -> new StubDataSource(), (d, q) -> true);
+
+        manager.add("second", validDatasource());
+        manager.reorder(List.of("second", "first"));
+
+        assertEquals(List.of("second", "first"), List.copyOf(routing.getDatasources().keySet()));
+        assertEquals(Optional.of("second"), routing.getActiveDatasource());
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> manager.add("third", new SingleDatasourceProperties()));
+        assertEquals("app.datasources.third.url must be set", ex.getMessage());
+    }
+
+    @Test
+    void healsOnDemandByDefaultOnlyWithoutTheProber() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        assertFalse(configuration.routingDataSource(registry, properties).isHealOnDemand());
+
+        properties.getHealthProbe().setEnabled(false);
+        assertTrue(configuration.routingDataSource(registry, properties).isHealOnDemand());
+
+        properties.getHealthProbe().setEnabled(true);
+        properties.getRouting().setHealOnDemand(true);
+        assertTrue(configuration.routingDataSource(registry, properties).isHealOnDemand());
+    }
+
+    @Test
+    void appliesRoutingProperties() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        properties.getRouting().setHealOnDemand(false);
+        properties.getRouting().setHealTimeout(Duration.ofSeconds(3));
+        properties.getRouting().setFailoverAttempts(4);
+        properties.getRouting().setFailoverTimeout(Duration.ofSeconds(2));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        HealingRoutingDataSource routing = configuration.routingDataSource(registry, properties);
+
+        assertFalse(routing.isHealOnDemand());
+        assertEquals(Duration.ofSeconds(3), routing.getHealTimeout());
+        assertEquals(4, routing.getFailoverAttempts());
+        assertEquals(Duration.ofSeconds(2), routing.getFailoverTimeout());
+        assertTrue(routing.getReaderSelectionStrategy() instanceof RoundRobinReaderSelectionStrategy);
+    }
+
+    @Test
+    void appliesLatencyRoutingWhenEnabled() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        HealingRoutingDataSource disabled = configuration.routingDataSource(registry, properties);
+        assertFalse(disabled.isLatencyRouting());
+
+        LatencyRoutingProperties latency = properties.getRouting().getLatency();
+        latency.setEnabled(true);
+        latency.setDemotionMultiple(4.0d);
+        latency.setMinimumLatency(Duration.ofMillis(50));
+        latency.setEvaluationInterval(Duration.ofSeconds(2));
+        HealingRoutingDataSource routing = configuration.routingDataSource(registry, properties);
+
+        assertTrue(routing.isLatencyRouting());
+        assertEquals(4.0d, routing.getLatencyDemotionMultiple());
+        assertEquals(Duration.ofMillis(50), routing.getLatencyFloor());
+        assertEquals(Duration.ofSeconds(2), routing.getLatencyEvaluationInterval());
+    }
+
+    @Test
+    void rejectsInvalidLatencyRouting() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+        LatencyRoutingProperties latency = properties.getRouting().getLatency();
+        latency.setEnabled(true);
+
+        latency.setDemotionMultiple(1.0d);
+        assertLatencyRejected(registry, properties, "app.routing.latency.demotion-multiple must be > 1");
+        latency.setDemotionMultiple(3.0d);
+
+        latency.setMinimumLatency(null);
+        assertLatencyRejected(registry, properties, "app.routing.latency.minimum-latency must be >= 0");
+        latency.setMinimumLatency(Duration.ofMillis(-1));
+        assertLatencyRejected(registry, properties, "app.routing.latency.minimum-latency must be >= 0");
+        latency.setMinimumLatency(Duration.ZERO);
+
+        for (Duration interval : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            latency.setEvaluationInterval(interval);
+            assertLatencyRejected(registry, properties, "app.routing.latency.evaluation-interval must be positive");
+        }
+    }
+
+    @Test
+    void appliesReaderSelection() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        properties.getRouting().setReaderSelection(ReaderSelection.LEAST_OUTSTANDING);
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        HealingRoutingDataSource routing = configuration.routingDataSource(registry, properties);
+        assertTrue(routing.getReaderSelectionStrategy() instanceof LeastOutstandingReaderSelectionStrategy);
+
+        properties.getRouting().setReaderSelection(ReaderSelection.POWER_OF_TWO_CHOICES);
+        HealingRoutingDataSource balanced = configuration.routingDataSource(registry, properties);
+        assertTrue(balanced.getReaderSelectionStrategy() instanceof PowerOfTwoChoicesSelectionStrategy);
+
+        properties.getRouting().setReaderSelection(null);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.routingDataSource(registry, properties));
+        assertEquals("app.routing.reader-selection must be set", ex.getMessage());
+    }
+
+    @Test
+    void rejectsInvalidFailoverBudget() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        properties.getRouting().setFailoverAttempts(0);
+        IllegalStateException attempts = assertThrows(IllegalStateException.class,
+                () -> configuration.routingDataSource(registry, properties));
+        assertEquals("app.routing.failover-attempts must be >= 1", attempts.getMessage());
+
+        properties.getRouting().setFailoverAttempts(1);
+        for (Duration timeout : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getRouting().setFailoverTimeout(timeout);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.routingDataSource(registry, properties));
+            assertEquals("app.routing.failover-timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveHealTimeout() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        for (Duration timeout : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getRouting().setHealTimeout(timeout);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.routingDataSource(registry, properties));
+            assertEquals("app.routing.heal-timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void selectsHealthStrategyByMode() throws Exception {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        JdbcDataSourceHealthStrategy query = new JdbcDataSourceHealthStrategy();
+
+        assertSame(query, configuration.dataSourceHealthStrategy(properties, query));
+
+        properties.getHealthProbe().setMode(HealthCheckMode.CONNECTION_VALIDATION);
+        DataSourceHealthStrategy validation = configuration.dataSourceHealthStrategy(properties, query);
+        assertTrue(validation instanceof ConnectionValidationHealthStrategy);
+        ((ConnectionValidationHealthStrategy) validation).close();
+    }
+
+    @Test
+    void rejectsInvalidHealthCheckSettings() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        JdbcDataSourceHealthStrategy query = new JdbcDataSourceHealthStrategy();
+        properties.getHealthProbe().setMode(null);
+
+        IllegalStateException missingMode = assertThrows(IllegalStateException.class,
+                () -> configuration.dataSourceHealthStrategy(properties, query));
+        assertEquals("app.health-probe.mode must be set", missingMode.getMessage());
+
+        properties.getHealthProbe().setMode(HealthCheckMode.CONNECTION_VALIDATION);
+        for (Duration timeout : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getHealthProbe().setValidationTimeout(timeout);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.dataSourceHealthStrategy(properties, query));
+            assertEquals("app.health-probe.validation-timeout must be positive", ex.getMessage());
+        }
+
+        properties.getHealthProbe().setValidationTimeout(Duration.ofSeconds(1));
+        for (Duration window : new Duration[] {null, Duration.ofSeconds(-1)}) {
+            properties.getHealthProbe().setLivenessWindow(window);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.dataSourceHealthStrategy(properties, query));
+            assertEquals("app.health-probe.liveness-window must be >= 0", ex.getMessage());
+        }
+    }
+
+    @Test
+    void startsHealthProberWhenEnabled() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        try (DataSourceHealthProber prober = configuration.dataSourceHealthProber(registry, properties)) {
+            assertTrue(prober.isRunning());
+        }
+    }
+
+    @Test
+    void doesNotStartHealthProberWhenDisabled() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        properties.getHealthProbe().setEnabled(false);
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        try (DataSourceHealthProber prober = configuration.dataSourceHealthProber(registry, properties)) {
+            assertFalse(prober.isRunning());
+        }
+    }
+
+    @Test
+    void startsPoolSizeControllerWhenEnabled() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        properties.getPoolSizing().setEnabled(true);
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        try (PoolSizeController controller = configuration.poolSizeController(registry, properties)) {
+            assertTrue(controller.isRunning());
+        }
+    }
+
+    @Test
+    void doesNotStartPoolSizeControllerByDefault() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        try (PoolSizeController controller = configuration.poolSizeController(registry, properties)) {
+            assertFalse(controller.isRunning());
+        }
+    }
+
+    @Test
+    void rejectsInvalidPoolSizing() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        Map<Consumer<PoolSizingProperties>, String> invalid = new LinkedHashMap<>();
+        invalid.put(p -> p.setInterval(null), "app.pool-sizing.interval must be positive");
+        invalid.put(p -> p.setInterval(Duration.ZERO), "app.pool-sizing.interval must be positive");
+        invalid.put(p -> p.setInterval(Duration.ofSeconds(-1)), "app.pool-sizing.interval must be positive");
+        invalid.put(p -> p.setGrowUtilization(0.0d), "app.pool-sizing.grow-utilization must be > 0 and <= 1");
+        invalid.put(p -> p.setGrowUtilization(1.5d), "app.pool-sizing.grow-utilization must be > 0 and <= 1");
+        invalid.put(p -> p.setShrinkUtilization(-0.1d),
+                "app.pool-sizing.shrink-utilization must be >= 0 and below grow-utilization");
+        invalid.put(p -> p.setShrinkUtilization(0.8d),
+                "app.pool-sizing.shrink-utilization must be >= 0 and below grow-utilization");
+        invalid.put(p -> p.setStableIntervals(0), "app.pool-sizing.stable-intervals must be >= 1");
+
+        invalid.forEach((change, message) -> {
+            properties.setPoolSizing(new PoolSizingProperties());
+            change.accept(properties.getPoolSizing());
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.poolSizeController(registry, properties));
+            assertEquals(message, ex.getMessage());
+        });
+    }
+
+    @Test
+    void rejectsAdaptivePoolBoundsOutsideMaximumPoolSize() {
+        Map<Consumer<SingleDatasourceProperties>, String> invalid = new LinkedHashMap<>();
+        invalid.put(p -> p.setAdaptiveMinimumPoolSize(0),
+                "app.datasources.primary.adaptive-minimum-pool-size must be between 1 and maximum-pool-size");
+        invalid.put(p -> p.setAdaptiveMinimumPoolSize(11),
+                "app.datasources.primary.adaptive-minimum-pool-size must be between 1 and maximum-pool-size");
+        invalid.put(p -> p.setAdaptiveMaximumPoolSize(9),
+                "app.datasources.primary.adaptive-maximum-pool-size must be >= maximum-pool-size");
+
+        invalid.forEach((change, message) -> {
+            DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+            SingleDatasourceProperties datasource = validDatasource();
+            datasource.setMaximumPoolSize(10);
+            change.accept(datasource);
+            properties.setDatasources(Map.of("primary", datasource));
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals(message, ex.getMessage());
+        });
+    }
+
+    @Test
+    void sharesOneConnectionBudgetBetweenStartupAndRuntimeDatasources() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        properties.getConnectionBudget().setMaximumConnections(8);
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, new SizedStubFactory(), (d, q) -> true);
+        DynamicDataSourceManager manager = configuration.dynamicDataSourceManager(
+                registry, properties, new SizedStubFactory(), (d, q) -> true);
+
+        ConnectionBudget budget = registry.getConnectionBudget();
+        assertEquals(8, budget.getMaximumConnections());
+        assertEquals(1, budget.getGrantedConnections());
+
+        manager.add("second", validDatasource());
+
+        assertEquals(2, budget.getGrantedConnections());
+    }
+
+    @Test
+    void rejectsAConnectionBudgetBelowTheMinimumPoolSizes() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties reporting = validDatasource();
+        reporting.setAdaptiveMinimumPoolSize(3);
+        Map<String, SingleDatasourceProperties> datasources = new LinkedHashMap<>();
+        datasources.put("primary", validDatasource());
+        datasources.put("reporting", reporting);
+        properties.setDatasources(datasources);
+        properties.getConnectionBudget().setMaximumConnections(4);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+        assertEquals("app.connection-budget.maximum-connections must be >= 5 "
+                + "(the minimum pool size of every datasource plus one for a rebuild)", ex.getMessage());
+    }
+
+    @Test
+    void startsConnectionBudgetBalancerOnlyWithABudget() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry unlimited =
+                configuration.multiDataSourceRegistry(properties, new SizedStubFactory(), (d, q) -> true);
+        properties.getConnectionBudget().setMaximumConnections(5);
+        MultiDataSourceRegistry limited =
+                configuration.multiDataSourceRegistry(properties, new SizedStubFactory(), (d, q) -> true);
+
+        try (ConnectionBudgetBalancer balancer = configuration.connectionBudgetBalancer(unlimited, properties)) {
+            assertFalse(balancer.isRunning());
+        }
+        try (ConnectionBudgetBalancer balancer = configuration.connectionBudgetBalancer(limited, properties)) {
+            assertTrue(balancer.isRunning());
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveRebalanceInterval() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        for (Duration interval : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getConnectionBudget().setRebalanceInterval(interval);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.connectionBudgetBalancer(registry, properties));
+            assertEquals("app.connection-budget.rebalance-interval must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveHealthProbeInterval() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        for (Duration interval : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getHealthProbe().setInterval(interval);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.dataSourceHealthProber(registry, properties));
+            assertEquals("app.health-probe.interval must be positive", ex.getMessage());
+        }
+    }
+
     @Test
     void rejectsDatasourceWithBlankName() {
         DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
@@ -101,6 +528,153 @@ class DynamicDatasourceConfigurationTest {
         assertEquals("app.datasources.primary.url must be set", ex.getMessage());
     }
 
+    @Test
+    void rejectsMinimumIdleOutsidePoolBounds() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.setMaximumPoolSize(3);
+        properties.setDatasources(Map.of("primary", datasource));
+
+        for (int minimumIdle : new int[] {-1, 4}) {
+            datasource.setMinimumIdle(minimumIdle);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.datasources.primary.minimum-idle must be between 0 and maximum-pool-size", ex.getMessage());
+        }
+        datasource.setMinimumIdle(3);
+        assertEquals(1, configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true)
+                .datasources().size());
+    }
+
+    @Test
+    void rejectsNonPositiveIdleTimeout() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        properties.setDatasources(Map.of("fallback", datasource));
+
+        for (Duration timeout : new Duration[] {Duration.ZERO, Duration.ofSeconds(-1)}) {
+            datasource.setIdleTimeout(timeout);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.datasources.fallback.idle-timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsBlankTags() {
+        Set<String> withNull = new HashSet<>();
+        withNull.add(null);
+        for (Set<String> tags : List.of(Set.of("reporting", " "), withNull)) {
+            DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+            SingleDatasourceProperties datasource = validDatasource();
+            datasource.setTags(tags);
+            properties.setDatasources(Map.of("primary", datasource));
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.datasources.primary.tags must not contain blank tags", ex.getMessage());
+        }
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.setTags(null);
+        properties.setDatasources(Map.of("primary", datasource));
+        assertEquals(1, configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true)
+                .datasources().size());
+    }
+
+    @Test
+    void rejectsNegativeDrainTimeout() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.setDrainTimeout(Duration.ofSeconds(-1));
+        properties.setDatasources(Map.of("primary", datasource));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+        assertEquals("app.datasources.primary.drain-timeout must be >= 0", ex.getMessage());
+    }
+
+    @Test
+    void rejectsMissingOrNonPositiveProbeTimeout() {
+        for (Duration timeout : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+            SingleDatasourceProperties datasource = validDatasource();
+            datasource.setProbeTimeout(timeout);
+            properties.setDatasources(Map.of("primary", datasource));
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.datasources.primary.probe-timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsTcpPreCheckWithoutNetworkUrl() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.setTcpPreCheck(true);
+        properties.setDatasources(Map.of("primary", datasource));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+        assertEquals("app.datasources.primary.tcp-pre-check requires a url with a host", ex.getMessage());
+    }
+
+    @Test
+    void rejectsNonPositiveAdmissionTimeout() {
+        for (Duration timeout : new Duration[] {Duration.ZERO, Duration.ofSeconds(-1)}) {
+            DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+            SingleDatasourceProperties datasource = validDatasource();
+            datasource.setAdmissionTimeout(timeout);
+            properties.setDatasources(Map.of("primary", datasource));
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.datasources.primary.admission-timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsNegativeSoftEvictAttempts() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.setSoftEvictAttempts(-1);
+        properties.setDatasources(Map.of("primary", datasource));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+        assertEquals("app.datasources.primary.soft-evict-attempts must be >= 0", ex.getMessage());
+    }
+
+    @Test
+    void rejectsNonPositiveStartupTimeout() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        properties.setDatasources(Map.of("first", validDatasource()));
+
+        for (Duration timeout : new Duration[] {null, Duration.ZERO, Duration.ofSeconds(-1)}) {
+            properties.getStartup().setTimeout(timeout);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+            assertEquals("app.startup.timeout must be positive", ex.getMessage());
+        }
+    }
+
+    @Test
+    void registryProbesDatasourcesBeforeReturning() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        Map<String, SingleDatasourceProperties> map = new LinkedHashMap<>();
+        map.put("up", validDatasource());
+        map.put("down", validDatasource());
+        properties.setDatasources(map);
+        StubDataSource up = new StubDataSource();
+
+        MultiDataSourceRegistry registry = configuration.multiDataSourceRegistry(
+                properties, p -> p == map.get("up") ? up : new StubDataSource(), (d, q) -> d == up);
+
+        assertTrue(registry.datasources().get("up").isMarkedHealthy());
+        assertFalse(registry.datasources().get("down").isMarkedHealthy());
+    }
+
     @Test
     void rejectsDatasourceWithInvalidPoolSize() {
         DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
@@ -115,6 +689,56 @@ class DynamicDatasourceConfigurationTest {
         assertEquals("app.datasources.primary.maximum-pool-size must be >= 1", ex.getMessage());
     }
 
+    @Test
+    void rejectsInvalidCircuitBreakerSettings() {
+        assertCircuitBreakerRejected(cb -> cb.setSlidingWindowSize(0),
+                "app.datasources.primary.circuit-breaker.sliding-window-size must be >= 1");
+        assertCircuitBreakerRejected(cb -> cb.setMinimumNumberOfCalls(0),
+                "app.datasources.primary.circuit-breaker.minimum-number-of-calls must be between 1 and sliding-window-size");
+        assertCircuitBreakerRejected(cb -> cb.setMinimumNumberOfCalls(21),
+                "app.datasources.primary.circuit-breaker.minimum-number-of-calls must be between 1 and sliding-window-size");
+        assertCircuitBreakerRejected(cb -> cb.setFailureRateThreshold(0),
+                "app.datasources.primary.circuit-breaker.failure-rate-threshold must be > 0 and <= 100");
+        assertCircuitBreakerRejected(cb -> cb.setFailureRateThreshold(101),
+                "app.datasources.primary.circuit-breaker.failure-rate-threshold must be > 0 and <= 100");
+        assertCircuitBreakerRejected(cb -> cb.setOpenDuration(null),
+                "app.datasources.primary.circuit-breaker.open-duration must be >= 0");
+        assertCircuitBreakerRejected(cb -> cb.setOpenDuration(Duration.ofSeconds(-1)),
+                "app.datasources.primary.circuit-breaker.open-duration must be >= 0");
+        assertCircuitBreakerRejected(cb -> cb.setPermittedCallsInHalfOpenState(0),
+                "app.datasources.primary.circuit-breaker.permitted-calls-in-half-open-state must be >= 1");
+    }
+
+    @Test
+    void acceptsEnabledCircuitBreakerAndMissingCircuitBreakerSettings() {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties enabled = validDatasource();
+        enabled.getCircuitBreaker().setEnabled(true);
+        SingleDatasourceProperties missing = validDatasource();
+        missing.setCircuitBreaker(null);
+        Map<String, SingleDatasourceProperties> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("missing", missing);
+        properties.setDatasources(map);
+
+        MultiDataSourceRegistry registry =
+                configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true);
+
+        assertEquals(2, registry.datasources().size());
+    }
+
+    private void assertCircuitBreakerRejected(Consumer<CircuitBreakerProperties> customizer, String message) {
+        DynamicDatasourcesProperties properties = new DynamicDatasourcesProperties();
+        SingleDatasourceProperties datasource = validDatasource();
+        datasource.getCircuitBreaker().setEnabled(true);
+        customizer.accept(datasource.getCircuitBreaker());
+        properties.setDatasources(Map.of("primary", datasource));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.multiDataSourceRegistry(properties, p -> new StubDataSource(), (d, q) -> true));
+        assertEquals(message, ex.getMessage());
+    }
+
     private static final class StubDataSource implements javax.sql.DataSource {
         @Override
         public java.sql.Connection getConnection() { return null; }
@@ -136,6 +760,29 @@ class DynamicDatasourceConfigurationTest {
         public java.util.logging.Logger getParentLogger() { return java.util.logging.Logger.getGlobal(); }
     }
 
+    // Budgets trim pool sizes, which a plain lambda factory refuses.
+    private static final class SizedStubFactory implements DataSourceFactory {
+        @Override
+        public DataSource create(SingleDatasourceProperties properties) {
+            return new StubDataSource();
+        }
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
+            return new StubDataSource();
+        }
+    }
+
+    private void assertLatencyRejected(
+            MultiDataSourceRegistry registry,
+            DynamicDatasourcesProperties properties,
+            String message
+    ) {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> configuration.routingDataSource(registry, properties));
+        assertEquals(message, ex.getMessage());
+    }
+
     private static SingleDatasourceProperties validDatasource() {
         SingleDatasourceProperties datasource = new SingleDatasourceProperties();
         datasource.setUrl("jdbc:h2:mem:test");
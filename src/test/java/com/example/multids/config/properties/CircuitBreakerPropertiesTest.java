@@ -0,0 +1,65 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+
+        assertFalse(properties.isEnabled());
+        assertEquals(20, properties.getSlidingWindowSize());
+        assertEquals(10, properties.getMinimumNumberOfCalls());
+        assertEquals(50.0f, properties.getFailureRateThreshold());
+        assertEquals(Duration.ofSeconds(30), properties.getOpenDuration());
+        assertEquals(3, properties.getPermittedCallsInHalfOpenState());
+
+        properties.setEnabled(true);
+        properties.setSlidingWindowSize(5);
+        properties.setMinimumNumberOfCalls(2);
+        properties.setFailureRateThreshold(25.0f);
+        properties.setOpenDuration(Duration.ofSeconds(1));
+        properties.setPermittedCallsInHalfOpenState(1);
+
+        assertTrue(properties.isEnabled());
+        assertEquals(5, properties.getSlidingWindowSize());
+        assertEquals(2, properties.getMinimumNumberOfCalls());
+        assertEquals(25.0f, properties.getFailureRateThreshold());
+        assertEquals(Duration.ofSeconds(1), properties.getOpenDuration());
+        assertEquals(1, properties.getPermittedCallsInHalfOpenState());
+    }
+
+    @Test
+    void equalityComparesEverySetting() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+
+        assertEquals(properties, properties);
+        assertEquals(properties, new CircuitBreakerProperties());
+        assertEquals(properties.hashCode(), new CircuitBreakerProperties().hashCode());
+        assertNotEquals(properties, null);
+        assertNotEquals(properties, "circuit-breaker");
+
+        List<Consumer<CircuitBreakerProperties>> changes = List.of(
+                p -> p.setEnabled(true),
+                p -> p.setSlidingWindowSize(5),
+                p -> p.setMinimumNumberOfCalls(2),
+                p -> p.setFailureRateThreshold(25.0f),
+                p -> p.setOpenDuration(Duration.ofSeconds(1)),
+                p -> p.setPermittedCallsInHalfOpenState(1));
+        for (Consumer<CircuitBreakerProperties> change : changes) {
+            CircuitBreakerProperties changed = new CircuitBreakerProperties();
+            change.accept(changed);
+
+            assertNotEquals(properties, changed);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class ConnectionBudgetPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        ConnectionBudgetProperties properties = new ConnectionBudgetProperties();
+
+        assertNull(properties.getMaximumConnections());
+        assertEquals(Duration.ofSeconds(10), properties.getRebalanceInterval());
+
+        properties.setMaximumConnections(40);
+        properties.setRebalanceInterval(Duration.ofSeconds(2));
+
+        assertEquals(40, properties.getMaximumConnections());
+        assertEquals(Duration.ofSeconds(2), properties.getRebalanceInterval());
+    }
+}
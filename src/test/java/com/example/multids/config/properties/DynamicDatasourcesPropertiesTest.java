@@ -18,5 +18,23 @@ class DynamicDatasourcesPropertiesTest {
         properties.setDatasources(map);
 
         assertSame(map, properties.getDatasources());
+
+        HealthProbeProperties healthProbe = new HealthProbeProperties();
+        RoutingProperties routing = new RoutingProperties();
+        properties.setHealthProbe(healthProbe);
+        properties.setRouting(routing);
+
+        assertSame(healthProbe, properties.getHealthProbe());
+        assertSame(routing, properties.getRouting());
+
+        PoolSizingProperties poolSizing = new PoolSizingProperties();
+        properties.setPoolSizing(poolSizing);
+
+        assertSame(poolSizing, properties.getPoolSizing());
+
+        ConnectionBudgetProperties connectionBudget = new ConnectionBudgetProperties();
+        properties.setConnectionBudget(connectionBudget);
+
+        assertSame(connectionBudget, properties.getConnectionBudget());
     }
 }
@@ -0,0 +1,34 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class HealthProbePropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        HealthProbeProperties properties = new HealthProbeProperties();
+
+        assertTrue(properties.isEnabled());
+        assertEquals(Duration.ofSeconds(5), properties.getInterval());
+        assertEquals(HealthCheckMode.QUERY, properties.getMode());
+        assertEquals(Duration.ofSeconds(5), properties.getValidationTimeout());
+        assertEquals(Duration.ofSeconds(30), properties.getLivenessWindow());
+
+        properties.setEnabled(false);
+        properties.setInterval(Duration.ofMillis(250));
+        properties.setMode(HealthCheckMode.CONNECTION_VALIDATION);
+        properties.setValidationTimeout(Duration.ofSeconds(2));
+        properties.setLivenessWindow(Duration.ofSeconds(10));
+
+        assertFalse(properties.isEnabled());
+        assertEquals(Duration.ofMillis(250), properties.getInterval());
+        assertEquals(HealthCheckMode.CONNECTION_VALIDATION, properties.getMode());
+        assertEquals(Duration.ofSeconds(2), properties.getValidationTimeout());
+        assertEquals(Duration.ofSeconds(10), properties.getLivenessWindow());
+    }
+}
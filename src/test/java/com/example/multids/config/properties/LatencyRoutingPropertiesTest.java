@@ -0,0 +1,31 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LatencyRoutingPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        LatencyRoutingProperties properties = new LatencyRoutingProperties();
+
+        assertFalse(properties.isEnabled());
+        assertEquals(3.0d, properties.getDemotionMultiple());
+        assertEquals(Duration.ofMillis(5), properties.getMinimumLatency());
+        assertEquals(Duration.ofSeconds(1), properties.getEvaluationInterval());
+
+        properties.setEnabled(true);
+        properties.setDemotionMultiple(2.5d);
+        properties.setMinimumLatency(Duration.ofMillis(20));
+        properties.setEvaluationInterval(Duration.ofMillis(250));
+
+        assertTrue(properties.isEnabled());
+        assertEquals(2.5d, properties.getDemotionMultiple());
+        assertEquals(Duration.ofMillis(20), properties.getMinimumLatency());
+        assertEquals(Duration.ofMillis(250), properties.getEvaluationInterval());
+    }
+}
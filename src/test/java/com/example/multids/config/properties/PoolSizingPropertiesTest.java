@@ -0,0 +1,34 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PoolSizingPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        PoolSizingProperties properties = new PoolSizingProperties();
+
+        assertFalse(properties.isEnabled());
+        assertEquals(Duration.ofSeconds(10), properties.getInterval());
+        assertEquals(0.8d, properties.getGrowUtilization());
+        assertEquals(0.3d, properties.getShrinkUtilization());
+        assertEquals(3, properties.getStableIntervals());
+
+        properties.setEnabled(true);
+        properties.setInterval(Duration.ofSeconds(1));
+        properties.setGrowUtilization(0.9d);
+        properties.setShrinkUtilization(0.1d);
+        properties.setStableIntervals(5);
+
+        assertTrue(properties.isEnabled());
+        assertEquals(Duration.ofSeconds(1), properties.getInterval());
+        assertEquals(0.9d, properties.getGrowUtilization());
+        assertEquals(0.1d, properties.getShrinkUtilization());
+        assertEquals(5, properties.getStableIntervals());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RoutingPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        RoutingProperties properties = new RoutingProperties();
+
+        assertNull(properties.getHealOnDemand());
+        assertEquals(Duration.ofSeconds(10), properties.getHealTimeout());
+        assertEquals(3, properties.getFailoverAttempts());
+        assertEquals(Duration.ofSeconds(5), properties.getFailoverTimeout());
+        assertEquals(ReaderSelection.ROUND_ROBIN, properties.getReaderSelection());
+        assertFalse(properties.getLatency().isEnabled());
+
+        properties.setHealOnDemand(false);
+        properties.setHealTimeout(Duration.ofSeconds(1));
+        properties.setFailoverAttempts(1);
+        properties.setFailoverTimeout(Duration.ofMillis(500));
+        properties.setReaderSelection(ReaderSelection.LEAST_OUTSTANDING);
+        LatencyRoutingProperties latency = new LatencyRoutingProperties();
+        properties.setLatency(latency);
+
+        assertFalse(properties.getHealOnDemand());
+        assertEquals(Duration.ofSeconds(1), properties.getHealTimeout());
+        assertEquals(1, properties.getFailoverAttempts());
+        assertEquals(Duration.ofMillis(500), properties.getFailoverTimeout());
+        assertEquals(ReaderSelection.LEAST_OUTSTANDING, properties.getReaderSelection());
+        assertSame(latency, properties.getLatency());
+    }
+}
@@ -1,7 +1,16 @@
 package com.example.multids.config.properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 class SingleDatasourcePropertiesTest {
@@ -9,19 +18,107 @@ class SingleDatasourcePropertiesTest {
     @Test
     void gettersAndSettersWork() {
         SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        assertEquals(DatasourceRole.WRITER, properties.getRole());
+        assertNull(properties.getPriority());
+        assertTrue(properties.getTags().isEmpty());
+        assertNull(properties.getMinimumIdle());
+        assertNull(properties.getAdaptiveMinimumPoolSize());
+        assertNull(properties.getAdaptiveMaximumPoolSize());
+        assertFalse(properties.isLazy());
+        assertNull(properties.getIdleTimeout());
+        assertEquals(Duration.ofSeconds(30), properties.getDrainTimeout());
+        assertEquals(2, properties.getSoftEvictAttempts());
+        assertEquals(Duration.ofSeconds(5), properties.getProbeTimeout());
+        assertFalse(properties.isTcpPreCheck());
+        assertNull(properties.getAdmissionTimeout());
 
         properties.setUrl("jdbc:test");
         properties.setUsername("user");
         properties.setPassword("secret");
         properties.setDriverClassName("org.test.Driver");
         properties.setValidationQuery("SELECT 42");
+        properties.setProbeTimeout(Duration.ofMillis(750));
+        properties.setTcpPreCheck(true);
         properties.setMaximumPoolSize(3);
+        properties.setMinimumIdle(1);
+        properties.setAdaptiveMinimumPoolSize(2);
+        properties.setAdaptiveMaximumPoolSize(12);
+        properties.setLazy(true);
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        properties.setDrainTimeout(Duration.ofSeconds(5));
+        properties.setSoftEvictAttempts(4);
+        properties.setRole(DatasourceRole.READER);
+        properties.setPriority(2);
+        properties.setTags(Set.of("reporting"));
+        properties.setHealWaitTimeout(Duration.ofSeconds(2));
+        properties.setAdmissionTimeout(Duration.ofSeconds(3));
+        CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+        properties.setCircuitBreaker(circuitBreaker);
 
         assertEquals("jdbc:test", properties.getUrl());
         assertEquals("user", properties.getUsername());
         assertEquals("secret", properties.getPassword());
         assertEquals("org.test.Driver", properties.getDriverClassName());
         assertEquals("SELECT 42", properties.getValidationQuery());
+        assertEquals(Duration.ofMillis(750), properties.getProbeTimeout());
+        assertTrue(properties.isTcpPreCheck());
         assertEquals(3, properties.getMaximumPoolSize());
+        assertEquals(1, properties.getMinimumIdle());
+        assertEquals(2, properties.getAdaptiveMinimumPoolSize());
+        assertEquals(12, properties.getAdaptiveMaximumPoolSize());
+        assertTrue(properties.isLazy());
+        assertEquals(Duration.ofMinutes(10), properties.getIdleTimeout());
+        assertEquals(Duration.ofSeconds(5), properties.getDrainTimeout());
+        assertEquals(4, properties.getSoftEvictAttempts());
+        assertEquals(DatasourceRole.READER, properties.getRole());
+        assertEquals(2, properties.getPriority());
+        assertEquals(Set.of("reporting"), properties.getTags());
+        assertEquals(Duration.ofSeconds(2), properties.getHealWaitTimeout());
+        assertEquals(Duration.ofSeconds(3), properties.getAdmissionTimeout());
+        assertSame(circuitBreaker, properties.getCircuitBreaker());
+    }
+
+    @Test
+    void equalityComparesEverySetting() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:a");
+        SingleDatasourceProperties same = new SingleDatasourceProperties();
+        same.setUrl("jdbc:h2:mem:a");
+
+        assertEquals(properties, properties);
+        assertEquals(properties, same);
+        assertEquals(properties.hashCode(), same.hashCode());
+        assertNotEquals(properties, null);
+        assertNotEquals(properties, "jdbc:h2:mem:a");
+
+        List<Consumer<SingleDatasourceProperties>> changes = List.of(
+                p -> p.setTcpPreCheck(true),
+                p -> p.setMaximumPoolSize(3),
+                p -> p.setLazy(true),
+                p -> p.setSoftEvictAttempts(0),
+                p -> p.setUrl("jdbc:h2:mem:b"),
+                p -> p.setUsername("sa"),
+                p -> p.setPassword("secret"),
+                p -> p.setDriverClassName("org.h2.Driver"),
+                p -> p.setValidationQuery("SELECT 2"),
+                p -> p.setProbeTimeout(Duration.ofSeconds(1)),
+                p -> p.setMinimumIdle(1),
+                p -> p.setAdaptiveMinimumPoolSize(1),
+                p -> p.setAdaptiveMaximumPoolSize(20),
+                p -> p.setRole(DatasourceRole.READER),
+                p -> p.setPriority(1),
+                p -> p.setTags(Set.of("reporting")),
+                p -> p.setIdleTimeout(Duration.ofMinutes(1)),
+                p -> p.setDrainTimeout(Duration.ZERO),
+                p -> p.setHealWaitTimeout(Duration.ofSeconds(1)),
+                p -> p.setAdmissionTimeout(Duration.ofSeconds(1)),
+                p -> p.getCircuitBreaker().setEnabled(true));
+        for (Consumer<SingleDatasourceProperties> change : changes) {
+            SingleDatasourceProperties changed = new SingleDatasourceProperties();
+            changed.setUrl("jdbc:h2:mem:a");
+            change.accept(changed);
+
+            assertNotEquals(properties, changed);
+        }
     }
 }
@@ -0,0 +1,25 @@
+package com.example.multids.config.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class StartupPropertiesTest {
+
+    @Test
+    void defaultsAndSettersWork() {
+        StartupProperties properties = new StartupProperties();
+
+        assertEquals(Duration.ofSeconds(30), properties.getTimeout());
+        assertFalse(properties.isWarmUp());
+
+        properties.setTimeout(Duration.ofSeconds(5));
+        properties.setWarmUp(true);
+
+        assertEquals(Duration.ofSeconds(5), properties.getTimeout());
+        assertTrue(properties.isWarmUp());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class BorrowAdmissionTest {
+
+    @Test
+    void constructorRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BorrowAdmission(0, Duration.ofSeconds(1)));
+        assertThrows(NullPointerException.class, () -> new BorrowAdmission(1, null));
+        assertThrows(IllegalArgumentException.class, () -> new BorrowAdmission(1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new BorrowAdmission(1, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void unlimitedAdmissionNeverWaits() throws Exception {
+        BorrowAdmission admission = BorrowAdmission.unlimited();
+
+        for (int i = 0; i < 3; i++) {
+            admission.acquire("primary");
+        }
+        admission.release();
+        admission.resize(5);
+
+        assertFalse(admission.isLimited());
+        assertEquals(Integer.MAX_VALUE, admission.getLimit());
+        assertEquals(Integer.MAX_VALUE, admission.getAvailablePermits());
+        assertEquals(0, admission.getWaitingBorrowers());
+    }
+
+    @Test
+    void timesOutOncePermitsRunOutAndAdmitsAgainAfterRelease() throws Exception {
+        BorrowAdmission admission = new BorrowAdmission(1, Duration.ofMillis(20));
+        admission.acquire("primary");
+
+        SQLTransientConnectionException ex =
+                assertThrows(SQLTransientConnectionException.class, () -> admission.acquire("primary"));
+        assertEquals("Datasource primary admitted no borrow within PT0.02S (limit 1, 0 waiting)", ex.getMessage());
+
+        admission.release();
+        admission.acquire("primary");
+        assertTrue(admission.isLimited());
+        assertEquals(0, admission.getAvailablePermits());
+    }
+
+    @Test
+    void resizingKeepsAdmittedBorrowsAndMovesTheLimit() throws Exception {
+        BorrowAdmission admission = new BorrowAdmission(3, Duration.ofMillis(20));
+        admission.acquire("primary");
+        admission.acquire("primary");
+
+        admission.resize(1);
+        assertEquals(1, admission.getLimit());
+        assertEquals(-1, admission.getAvailablePermits());
+
+        admission.release();
+        admission.release();
+        assertEquals(1, admission.getAvailablePermits());
+
+        admission.resize(4);
+        admission.resize(4);
+        admission.resize(0);
+        assertEquals(4, admission.getLimit());
+        assertEquals(4, admission.getAvailablePermits());
+    }
+
+    @Test
+    void interruptedWaitFailsAndKeepsTheInterrupt() throws Exception {
+        BorrowAdmission admission = new BorrowAdmission(1, Duration.ofSeconds(5));
+        admission.acquire("primary");
+
+        Thread.currentThread().interrupt();
+        try {
+            SQLTransientConnectionException ex =
+                    assertThrows(SQLTransientConnectionException.class, () -> admission.acquire("primary"));
+            assertEquals("Interrupted while waiting for admission to datasource primary", ex.getMessage());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.CircuitBreakerProperties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> transitions = new ArrayList<>();
+
+    @Test
+    void constructorRejectsNullArguments() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+
+        assertThrows(NullPointerException.class, () -> new CircuitBreaker(null, true, clock::get, (f, t) -> { }));
+        assertThrows(NullPointerException.class, () -> new CircuitBreaker(properties, true, null, (f, t) -> { }));
+        assertThrows(NullPointerException.class, () -> new CircuitBreaker(properties, true, clock::get, null));
+    }
+
+    @Test
+    void disabledBreakerOpensOnAnyFailureAndClosesOnAnySuccess() {
+        CircuitBreaker breaker = breaker(new CircuitBreakerProperties(), true);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.allowsProbe());
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        breaker.onSuccess();
+        breaker.onProbeFailure();
+        breaker.onProbeFailure();
+        breaker.onProbeSuccess();
+
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->CLOSED", "CLOSED->OPEN", "OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void opensOnlyOnceMinimumCallsAndFailureRateAreReached() {
+        CircuitBreaker breaker = breaker(enabled(4, 4, 50.0f), true);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        breaker.onSuccess();
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        breaker.onFailure();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertFalse(breaker.isRoutable());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        CircuitBreaker breaker = breaker(enabled(4, 4, 75.0f), true);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        breaker.onFailure();
+        assertEquals(CircuitState.OPEN, breaker.state());
+    }
+
+    @Test
+    void probesAreHeldBackUntilOpenDurationElapses() {
+        CircuitBreaker breaker = breaker(enabled(1, 1, 100.0f), true);
+        breaker.onFailure();
+
+        assertFalse(breaker.allowsProbe());
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.allowsProbe());
+
+        breaker.onProbeFailure();
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertFalse(breaker.allowsProbe());
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        breaker.onProbeSuccess();
+
+        assertEquals(CircuitState.HALF_OPEN, breaker.state());
+        assertTrue(breaker.isRoutable());
+        assertTrue(breaker.allowsProbe());
+    }
+
+    @Test
+    void halfOpenAdmitsLimitedTrialsAndClosesAfterThem() {
+        CircuitBreaker breaker = breaker(enabled(1, 1, 100.0f), false);
+        breaker.onProbeSuccess();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        breaker.onSuccess();
+        assertEquals(CircuitState.HALF_OPEN, breaker.state());
+        breaker.onSuccess();
+
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(List.of("OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void releasedTrialPermitCanBeTakenAgain() {
+        CircuitBreaker breaker = breaker(enabled(1, 1, 100.0f), false);
+        breaker.releasePermission();
+        assertFalse(breaker.tryAcquirePermission());
+        breaker.onProbeSuccess();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        breaker.releasePermission();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void halfOpenFailureReopens() {
+        CircuitBreaker breaker = breaker(enabled(1, 1, 100.0f), false);
+        breaker.onProbeSuccess();
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertFalse(breaker.allowsProbe());
+    }
+
+    @Test
+    void probeFailureOpensRoutableBreaker() {
+        CircuitBreaker breaker = breaker(enabled(1, 1, 100.0f), false);
+        breaker.onProbeSuccess();
+        breaker.onProbeSuccess();
+
+        breaker.onProbeFailure();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+    }
+
+    @Test
+    void tripOpensImmediately() {
+        CircuitBreaker breaker = breaker(enabled(10, 10, 50.0f), true);
+
+        breaker.trip();
+        breaker.trip();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    private CircuitBreaker breaker(CircuitBreakerProperties properties, boolean initiallyClosed) {
+        return new CircuitBreaker(properties, initiallyClosed, clock::get, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    private static CircuitBreakerProperties enabled(int windowSize, int minimumCalls, float threshold) {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setEnabled(true);
+        properties.setSlidingWindowSize(windowSize);
+        properties.setMinimumNumberOfCalls(minimumCalls);
+        properties.setFailureRateThreshold(threshold);
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setPermittedCallsInHalfOpenState(2);
+        return properties;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class ConnectionBudgetBalancerTest {
+
+    @Test
+    void constructorRejectsInvalidArguments() {
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of());
+        ConnectionBudget budget = new ConnectionBudget(10);
+
+        assertThrows(NullPointerException.class, () -> new ConnectionBudgetBalancer(null, budget, Duration.ofSeconds(1)));
+        assertThrows(NullPointerException.class, () -> new ConnectionBudgetBalancer(registry, null, Duration.ofSeconds(1)));
+        assertThrows(NullPointerException.class, () -> new ConnectionBudgetBalancer(registry, budget, null));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionBudgetBalancer(registry, budget, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionBudgetBalancer(registry, budget, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void coversFloorsThenDemandThenPriority() {
+        ConnectionBudget budget = new ConnectionBudget(20);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties dr = properties(10);
+        dr.setAdaptiveMinimumPoolSize(2);
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", managed("primary", properties(10), factory, budget));
+        datasources.put("secondary", managed("secondary", properties(10), factory, budget));
+        datasources.put("dr", managed("dr", dr, factory, budget));
+        factory.active.put(datasources.get("secondary").current(), 6);
+        ConnectionBudgetBalancer balancer = balancer(datasources, budget);
+
+        balancer.rebalance();
+
+        assertEquals(10, factory.size(datasources.get("primary")));
+        assertEquals(8, factory.size(datasources.get("secondary")));
+        assertEquals(2, factory.size(datasources.get("dr")));
+        assertEquals(20, budget.getGrantedConnections());
+    }
+
+    @Test
+    void movesCapacityToTheNextRoutableDatasourceOnFailoverAndBack() {
+        ConnectionBudget budget = new ConnectionBudget(12);
+        SizedFactory factory = new SizedFactory();
+        ManagedDataSource primary = managed("primary", properties(10), factory, budget);
+        ManagedDataSource secondary = managed("secondary", properties(10), factory, budget);
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", primary);
+        datasources.put("secondary", secondary);
+        ConnectionBudgetBalancer balancer = balancer(datasources, budget);
+
+        balancer.rebalance();
+        assertEquals(10, factory.size(primary));
+        assertEquals(2, factory.size(secondary));
+
+        primary.markUnhealthy();
+        balancer.rebalance();
+        assertEquals(1, factory.size(primary));
+        assertEquals(10, factory.size(secondary));
+        assertEquals(11, budget.getGrantedConnections());
+
+        // Connections still in use on the secondary keep their share after failback.
+        factory.active.put(secondary.current(), 4);
+        assertTrue(primary.verifyHealth());
+        balancer.rebalance();
+        assertEquals(8, factory.size(primary));
+        assertEquals(4, factory.size(secondary));
+        assertEquals(12, budget.getGrantedConnections());
+    }
+
+    @Test
+    void ranksByExplicitPriorityBeforePosition() {
+        ConnectionBudget budget = new ConnectionBudget(8);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties first = properties(6);
+        first.setPriority(1);
+        SingleDatasourceProperties second = properties(6);
+        second.setPriority(0);
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("first", managed("first", first, factory, budget));
+        datasources.put("second", managed("second", second, factory, budget));
+
+        balancer(datasources, budget).rebalance();
+
+        assertEquals(2, factory.size(datasources.get("first")));
+        assertEquals(6, factory.size(datasources.get("second")));
+    }
+
+    @Test
+    void keepsGoingWhenOneDatasourceCannotBeResized() {
+        ConnectionBudget budget = new ConnectionBudget(10);
+        SizedFactory factory = new SizedFactory();
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("broken", managed("broken", properties(5), new UnsizableFactory(), budget));
+        datasources.put("sized", managed("sized", properties(5), factory, budget));
+
+        balancer(datasources, budget).rebalance();
+
+        assertEquals(5, factory.size(datasources.get("sized")));
+        assertEquals(6, budget.getGrantedConnections());
+    }
+
+    @Test
+    void newPoolsReclaimConnectionsFromTheLowestPriorityDatasource() {
+        ConnectionBudget budget = new ConnectionBudget(7);
+        SizedFactory factory = new SizedFactory();
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", managed("primary", properties(4), factory, budget));
+        datasources.put("secondary", managed("secondary", properties(4), factory, budget));
+        try (ConnectionBudgetBalancer balancer = balancer(datasources, budget)) {
+            balancer.start();
+            assertEquals(0, budget.getAvailableConnections());
+
+            ManagedDataSource added = managed("added", properties(4), factory, budget);
+
+            assertEquals(1, factory.size(added));
+            assertEquals(4, factory.size(datasources.get("primary")));
+            assertEquals(2, factory.size(datasources.get("secondary")));
+            assertEquals(7, budget.getGrantedConnections());
+        }
+    }
+
+    @Test
+    void reclaimingSkipsDatasourcesThatCannotBeShrunk() {
+        ConnectionBudget budget = new ConnectionBudget(7);
+        SizedFactory factory = new SizedFactory();
+        SizedFactory growOnly = new SizedFactory() {
+            @Override
+            public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+                if (maximumPoolSize < sizes.get(dataSource)) {
+                    throw new IllegalStateException("cannot shrink");
+                }
+                return super.resize(dataSource, maximumPoolSize, minimumIdle);
+            }
+        };
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", managed("primary", properties(4), factory, budget));
+        datasources.put("growOnly", managed("growOnly", properties(4), growOnly, budget));
+        try (ConnectionBudgetBalancer balancer = balancer(datasources, budget)) {
+            balancer.start();
+            assertEquals(0, budget.getAvailableConnections());
+
+            ManagedDataSource added = managed("added", properties(4), factory, budget);
+
+            assertEquals(1, factory.size(added));
+            assertEquals(3, factory.size(datasources.get("primary")));
+            assertEquals(3, growOnly.size(datasources.get("growOnly")));
+            assertEquals(7, budget.getGrantedConnections());
+        }
+    }
+
+    @Test
+    void rebalancesWhenTheRegistryOrTheActiveDatasourceChanges() throws Exception {
+        ConnectionBudget budget = new ConnectionBudget(12);
+        SizedFactory factory = new SizedFactory();
+        ManagedDataSource primary = managed("primary", properties(10), factory, budget);
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of("primary", primary), budget);
+        try (ConnectionBudgetBalancer balancer = new ConnectionBudgetBalancer(registry, budget, Duration.ofHours(1))) {
+            assertFalse(balancer.isRunning());
+            balancer.start();
+            balancer.start();
+            assertTrue(balancer.isRunning());
+            assertEquals(10, factory.size(primary));
+
+            ManagedDataSource secondary = managed("secondary", properties(10), factory, budget);
+            registry.update(datasources -> {
+                datasources.put("secondary", secondary);
+                return datasources;
+            });
+            await(() -> factory.size(secondary) == 2);
+
+            primary.markUnhealthy();
+            await(() -> factory.size(secondary) == 10);
+            assertEquals(1, factory.size(primary));
+
+            balancer.close();
+            assertFalse(balancer.isRunning());
+            primary.verifyHealth();
+            assertEquals(1, factory.size(primary));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static ConnectionBudgetBalancer balancer(Map<String, ManagedDataSource> datasources, ConnectionBudget budget) {
+        return new ConnectionBudgetBalancer(
+                new MultiDataSourceRegistry(datasources, budget), budget, Duration.ofHours(1));
+    }
+
+    private static ManagedDataSource managed(
+            String name,
+            SingleDatasourceProperties properties,
+            DataSourceFactory factory,
+            ConnectionBudget budget
+    ) {
+        return new ManagedDataSource(name, properties, factory, (d, q) -> true, true, budget);
+    }
+
+    private static SingleDatasourceProperties properties(int maximumPoolSize) {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(maximumPoolSize);
+        return properties;
+    }
+
+    // Reports no usage and refuses to resize, as a factory relying on the interface defaults does.
+    private static final class UnsizableFactory extends SizedFactory {
+        @Override
+        public Optional<PoolUsage> usage(DataSource dataSource) {
+            throw new IllegalStateException("no usage");
+        }
+
+        @Override
+        public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+            throw new IllegalStateException("pool closed");
+        }
+    }
+
+    private static class SizedFactory implements DataSourceFactory {
+        final Map<DataSource, Integer> sizes = new ConcurrentHashMap<>();
+        private final Map<DataSource, Integer> active = new ConcurrentHashMap<>();
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties) {
+            return create(properties, properties.getMaximumPoolSize());
+        }
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
+            DataSource dataSource = mock(DataSource.class);
+            sizes.put(dataSource, maximumPoolSize);
+            return dataSource;
+        }
+
+        @Override
+        public Optional<PoolUsage> usage(DataSource dataSource) {
+            int size = sizes.get(dataSource);
+            int inUse = active.getOrDefault(dataSource, 0);
+            return Optional.of(new PoolUsage(inUse, Math.max(0, size - inUse), 0, size));
+        }
+
+        @Override
+        public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+            sizes.put(dataSource, maximumPoolSize);
+            return true;
+        }
+
+        private int size(ManagedDataSource managed) {
+            return sizes.get(managed.current());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ConnectionBudgetTest {
+
+    @Test
+    void constructorRejectsAnEmptyBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionBudget(0));
+        assertThrows(NullPointerException.class, () -> new ConnectionBudget(1).setReclaimer(null));
+    }
+
+    @Test
+    void unlimitedBudgetIsNotLimited() {
+        assertFalse(ConnectionBudget.unlimited().isLimited());
+        assertTrue(new ConnectionBudget(10).isLimited());
+        assertEquals(Integer.MAX_VALUE, ConnectionBudget.unlimited().getMaximumConnections());
+    }
+
+    @Test
+    void trimsGrantsToWhatIsLeft() {
+        ConnectionBudget budget = new ConnectionBudget(10);
+
+        assertEquals(6, budget.acquire(6, 1));
+        assertEquals(4, budget.acquire(6, 1));
+        assertEquals(0, budget.acquire(1, 0));
+        assertEquals(10, budget.getGrantedConnections());
+        assertEquals(0, budget.getAvailableConnections());
+
+        budget.release(3);
+        assertEquals(0, budget.acquire(5, 4));
+        assertEquals(3, budget.acquire(5, 3));
+    }
+
+    @Test
+    void releaseNeverGoesBelowZero() {
+        ConnectionBudget budget = new ConnectionBudget(5);
+        budget.acquire(2, 1);
+
+        budget.release(4);
+
+        assertEquals(0, budget.getGrantedConnections());
+        assertEquals(5, budget.getAvailableConnections());
+    }
+
+    @Test
+    void asksTheReclaimerForTheMissingMinimumAndRetries() {
+        ConnectionBudget budget = new ConnectionBudget(4);
+        budget.acquire(4, 1);
+        List<Integer> requests = new ArrayList<>();
+        budget.setReclaimer(connections -> {
+            requests.add(connections);
+            budget.release(connections);
+        });
+
+        assertEquals(2, budget.acquire(3, 2));
+        assertEquals(0, budget.acquire(2, 0));
+
+        assertEquals(List.of(2), requests);
+        assertEquals(4, budget.getGrantedConnections());
+    }
+
+    @Test
+    void failsWhenTheReclaimerFreesTooLittle() {
+        ConnectionBudget budget = new ConnectionBudget(3);
+        budget.acquire(3, 1);
+        budget.setReclaimer(connections -> { });
+
+        assertEquals(0, budget.acquire(2, 1));
+        assertEquals(3, budget.getGrantedConnections());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConnectionLeasesTest {
+
+    @Test
+    void poolLeasesRollUpIntoTotal() {
+        ConnectionLeases total = new ConnectionLeases();
+        ConnectionLeases first = new ConnectionLeases(total);
+        ConnectionLeases second = new ConnectionLeases(total);
+
+        assertTrue(first.tryReserve());
+        assertTrue(second.tryReserve());
+        assertTrue(second.tryReserve());
+        assertEquals(3, total.leased());
+
+        second.release();
+        assertEquals(1, second.leased());
+        assertEquals(2, total.leased());
+    }
+
+    @Test
+    void drainingLeasesRejectReservationsAndReportLastRelease() {
+        ConnectionLeases total = new ConnectionLeases();
+        ConnectionLeases leases = new ConnectionLeases(total);
+        AtomicInteger drained = new AtomicInteger();
+        assertTrue(leases.tryReserve());
+
+        leases.drain(drained::incrementAndGet);
+
+        assertTrue(leases.isDraining());
+        assertFalse(leases.tryReserve());
+        assertEquals(1, leases.leased());
+        assertEquals(1, total.leased());
+        assertEquals(0, drained.get());
+
+        leases.release();
+        assertEquals(1, drained.get());
+        assertEquals(0, total.leased());
+    }
+}
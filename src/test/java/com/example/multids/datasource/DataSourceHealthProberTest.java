@@ -0,0 +1,142 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+class DataSourceHealthProberTest {
+
+    @Test
+    void constructorRejectsInvalidArguments() {
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of());
+
+        assertThrows(NullPointerException.class, () -> new DataSourceHealthProber(null, Duration.ofSeconds(1)));
+        assertThrows(NullPointerException.class, () -> new DataSourceHealthProber(registry, null));
+        assertThrows(IllegalArgumentException.class, () -> new DataSourceHealthProber(registry, Duration.ZERO));
+    }
+
+    @Test
+    void probesOnlyUnhealthyDatasources() {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        AtomicBoolean reportingHealthy = new AtomicBoolean(false);
+        when(primary.isMarkedHealthy()).thenReturn(true);
+        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
+        when(reporting.healIfNeeded()).thenAnswer(i -> {
+            reportingHealthy.set(true);
+            return true;
+        });
+
+        try (DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary, reporting), Duration.ofHours(1))) {
+            prober.probeUnhealthy();
+        }
+
+        verify(primary, never()).healIfNeeded();
+        verify(reporting).healIfNeeded();
+        assertTrue(reportingHealthy.get());
+    }
+
+    @Test
+    void keepsProbingRemainingDatasourcesWhenOneHealFails() {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        when(primary.healIfNeeded()).thenThrow(new IllegalStateException("boom"));
+        when(reporting.healIfNeeded()).thenReturn(false);
+
+        try (DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary, reporting), Duration.ofHours(1))) {
+            prober.probeUnhealthy();
+        }
+
+        verify(primary).healIfNeeded();
+        verify(reporting).healIfNeeded();
+    }
+
+    @Test
+    void healsUnhealthyDatasourcesConcurrently() throws Exception {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        CountDownLatch bothHealing = new CountDownLatch(2);
+        Answer<Boolean> heal = i -> {
+            bothHealing.countDown();
+            return bothHealing.await(5, TimeUnit.SECONDS);
+        };
+        when(primary.healIfNeeded()).thenAnswer(heal);
+        when(reporting.healIfNeeded()).thenAnswer(heal);
+
+        try (DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary, reporting), Duration.ofSeconds(10))) {
+            prober.probeUnhealthy();
+        }
+
+        assertEquals(0, bothHealing.getCount());
+    }
+
+    @Test
+    void stopsWaitingForHealsAfterOneInterval() throws Exception {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(primary.healIfNeeded()).thenAnswer(i -> release.await(5, TimeUnit.SECONDS));
+
+        try (DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary), Duration.ofMillis(50))) {
+            long started = System.nanoTime();
+            prober.probeUnhealthy();
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(4));
+        } finally {
+            release.countDown();
+        }
+        verify(primary).healIfNeeded();
+    }
+
+    @Test
+    void runsOnScheduleUntilClosed() {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary), Duration.ofMillis(10));
+
+        assertFalse(prober.isRunning());
+        prober.start();
+        prober.start();
+        assertTrue(prober.isRunning());
+        verify(primary, timeout(1000).atLeast(2)).healIfNeeded();
+
+        prober.close();
+        assertFalse(prober.isRunning());
+    }
+
+    @Test
+    void releasesIdleLazyPoolsAfterProbing() {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource fallback = mock(ManagedDataSource.class);
+        when(primary.releaseIfIdle()).thenThrow(new IllegalStateException("boom"));
+        when(fallback.releaseIfIdle()).thenReturn(true);
+
+        try (DataSourceHealthProber prober = new DataSourceHealthProber(registryOf(primary, fallback), Duration.ofHours(1))) {
+            prober.runOnce();
+        }
+
+        verify(primary).healIfNeeded();
+        verify(primary).releaseIfIdle();
+        verify(fallback).releaseIfIdle();
+    }
+
+    private static MultiDataSourceRegistry registryOf(ManagedDataSource... dataSources) {
+        Map<String, ManagedDataSource> map = new LinkedHashMap<>();
+        for (int i = 0; i < dataSources.length; i++) {
+            map.put("ds" + i, dataSources[i]);
+        }
+        return new MultiDataSourceRegistry(map);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.function.BiConsumer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class DynamicDataSourceManagerTest {
+
+    private static final BiConsumer<String, SingleDatasourceProperties> ANY = (name, properties) -> { };
+
+    private final ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(
+            p -> mock(DataSource.class), (d, q) -> true, Duration.ofSeconds(5), false);
+
+    @Test
+    void constructorRejectsNullArguments() {
+        MultiDataSourceRegistry registry = registry("primary");
+
+        assertThrows(NullPointerException.class, () -> new DynamicDataSourceManager(null, initializer, ANY));
+        assertThrows(NullPointerException.class, () -> new DynamicDataSourceManager(registry, null, ANY));
+        assertThrows(NullPointerException.class, () -> new DynamicDataSourceManager(registry, initializer, null));
+    }
+
+    @Test
+    void addsAProbedDatasourceAtTheEnd() {
+        MultiDataSourceRegistry registry = registry("primary");
+        List<SequencedMap<String, ManagedDataSource>> published = new ArrayList<>();
+        registry.addListener(published::add);
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, ANY);
+
+        ManagedDataSource added = manager.add("replica", properties("jdbc:h2:mem:replica"));
+
+        assertEquals(List.of("primary", "replica"), keys(registry));
+        assertSame(added, registry.datasources().get("replica"));
+        assertTrue(added.isMarkedHealthy());
+        assertEquals(1, published.size());
+        assertThrows(IllegalArgumentException.class, () -> manager.add("replica", properties("jdbc:h2:mem:other")));
+    }
+
+    @Test
+    void updateRebuildsInPlaceAndRetiresThePreviousDatasource() {
+        MultiDataSourceRegistry registry = registry("primary", "replica");
+        ManagedDataSource previous = registry.datasources().get("primary");
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, ANY);
+
+        ManagedDataSource updated = manager.update("primary", properties("jdbc:h2:mem:moved"));
+
+        assertEquals(List.of("primary", "replica"), keys(registry));
+        assertSame(updated, registry.datasources().get("primary"));
+        assertTrue(previous.isRetired());
+        assertThrows(IllegalArgumentException.class, () -> manager.update("missing", properties("jdbc:h2:mem:x")));
+    }
+
+    @Test
+    void validatesBeforeCreatingAnything() {
+        MultiDataSourceRegistry registry = registry("primary");
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, (name, properties) -> {
+            throw new IllegalStateException("app.datasources." + name + ".url must be set");
+        });
+
+        assertThrows(IllegalStateException.class, () -> manager.add("replica", new SingleDatasourceProperties()));
+        assertThrows(IllegalStateException.class,
+                () -> manager.apply(Map.of("replica", new SingleDatasourceProperties())));
+        assertEquals(List.of("primary"), keys(registry));
+    }
+
+    @Test
+    void removesAndRetiresDatasources() {
+        MultiDataSourceRegistry registry = registry("primary", "replica");
+        ManagedDataSource replica = registry.datasources().get("replica");
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, ANY);
+
+        assertTrue(manager.remove("replica"));
+        assertFalse(manager.remove("replica"));
+
+        assertEquals(List.of("primary"), keys(registry));
+        assertTrue(replica.isRetired());
+        assertThrows(IllegalStateException.class, () -> manager.remove("primary"));
+        assertEquals(List.of("primary"), keys(registry));
+    }
+
+    @Test
+    void reordersWithoutRebuildingPools() {
+        MultiDataSourceRegistry registry = registry("a", "b", "c");
+        ManagedDataSource a = registry.datasources().get("a");
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, ANY);
+
+        manager.reorder(List.of("c", "a", "b"));
+
+        assertEquals(List.of("c", "a", "b"), keys(registry));
+        assertSame(a, registry.datasources().get("a"));
+        assertFalse(a.isRetired());
+        assertThrows(IllegalArgumentException.class, () -> manager.reorder(List.of("a", "b")));
+        assertThrows(IllegalArgumentException.class, () -> manager.reorder(List.of("a", "b", "x")));
+        assertThrows(IllegalArgumentException.class, () -> manager.reorder(List.of("a", "a", "b")));
+        assertThrows(NullPointerException.class, () -> manager.reorder(null));
+    }
+
+    @Test
+    void applyRebuildsOnlyChangedDatasourcesInConfiguredOrder() {
+        Map<String, SingleDatasourceProperties> configured = new LinkedHashMap<>();
+        configured.put("primary", properties("jdbc:h2:mem:primary"));
+        configured.put("replica", properties("jdbc:h2:mem:replica"));
+        configured.put("stale", properties("jdbc:h2:mem:stale"));
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(initializer.initialize(configured));
+        ManagedDataSource primary = registry.datasources().get("primary");
+        ManagedDataSource replica = registry.datasources().get("replica");
+        ManagedDataSource stale = registry.datasources().get("stale");
+        List<SequencedMap<String, ManagedDataSource>> published = new ArrayList<>();
+        registry.addListener(published::add);
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry, initializer, ANY);
+
+        Map<String, SingleDatasourceProperties> refreshed = new LinkedHashMap<>();
+        refreshed.put("added", properties("jdbc:h2:mem:added"));
+        refreshed.put("replica", properties("jdbc:h2:mem:replica-moved"));
+        refreshed.put("primary", properties("jdbc:h2:mem:primary"));
+        manager.apply(refreshed);
+
+        assertEquals(List.of("added", "replica", "primary"), keys(registry));
+        assertSame(primary, registry.datasources().get("primary"));
+        assertNotSame(replica, registry.datasources().get("replica"));
+        assertFalse(primary.isRetired());
+        assertTrue(replica.isRetired());
+        assertTrue(stale.isRetired());
+        assertEquals(1, published.size());
+
+        manager.apply(refreshed);
+        assertSame(primary, registry.datasources().get("primary"));
+        assertEquals(2, published.size());
+    }
+
+    @Test
+    void applyRejectsAnEmptyConfiguration() {
+        DynamicDataSourceManager manager = new DynamicDataSourceManager(registry("primary"), initializer, ANY);
+
+        assertThrows(IllegalStateException.class, () -> manager.apply(Map.of()));
+        assertThrows(IllegalStateException.class, () -> manager.apply(null));
+    }
+
+    private MultiDataSourceRegistry registry(String... names) {
+        Map<String, SingleDatasourceProperties> configured = new LinkedHashMap<>();
+        for (String name : names) {
+            configured.put(name, properties("jdbc:h2:mem:" + name));
+        }
+        return new MultiDataSourceRegistry(initializer.initialize(configured));
+    }
+
+    private static SingleDatasourceProperties properties(String url) {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("sa");
+        return properties;
+    }
+
+    private static List<String> keys(MultiDataSourceRegistry registry) {
+        return List.copyOf(registry.datasources().keySet());
+    }
+}
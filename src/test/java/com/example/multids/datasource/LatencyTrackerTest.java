@@ -0,0 +1,45 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+
+    @Test
+    void firstSampleSeedsTheAverage() {
+        LatencyTracker tracker = new LatencyTracker();
+
+        assertEquals(Duration.ZERO, tracker.average());
+        assertEquals(0, tracker.samples());
+
+        tracker.record(1_000);
+        assertEquals(Duration.ofNanos(1_000), tracker.average());
+
+        tracker.record(2_000);
+        assertEquals(Duration.ofNanos(1_200), tracker.average());
+        assertEquals(2, tracker.samples());
+    }
+
+    @Test
+    void concurrentSamplesAreNotLost() throws Exception {
+        LatencyTracker tracker = new LatencyTracker();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    tracker.record(500);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8_000, tracker.samples());
+        assertEquals(Duration.ofNanos(500), tracker.average());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.multids.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Wrapper;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class LeasedConnectionTest {
+
+    @Test
+    void closeReleasesLeaseExactlyOnce() throws Exception {
+        ConnectionLeases leases = new ConnectionLeases();
+        Connection delegate = mock(Connection.class);
+        leases.tryReserve();
+        Connection leased = leases.lease(delegate);
+        leases.tryReserve();
+        leases.lease(mock(Connection.class));
+
+        assertEquals(2, leases.leased());
+        assertFalse(leased.isClosed());
+
+        leased.close();
+        leased.close();
+
+        assertEquals(1, leases.leased());
+        assertTrue(leased.isClosed());
+        verify(delegate, times(2)).close();
+    }
+
+    @Test
+    void closeReturnsTheAdmissionPermitExactlyOnce() throws Exception {
+        BorrowAdmission admission = new BorrowAdmission(2, Duration.ofSeconds(1));
+        admission.acquire("primary");
+        ConnectionLeases leases = new ConnectionLeases();
+        leases.tryReserve();
+        Connection leased = leases.lease(mock(Connection.class), admission);
+        assertEquals(1, admission.getAvailablePermits());
+
+        leased.close();
+        leased.close();
+
+        assertEquals(2, admission.getAvailablePermits());
+    }
+
+    @Test
+    void closeReturnsTheConnectionBeforeTheDrainedPoolIsClosed() throws Exception {
+        ConnectionLeases leases = new ConnectionLeases();
+        Connection delegate = mock(Connection.class);
+        leases.tryReserve();
+        Connection leased = leases.lease(delegate);
+        AtomicBoolean returnedFirst = new AtomicBoolean();
+        leases.drain(() -> returnedFirst.set(mockingDetails(delegate).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("close"))));
+
+        leased.close();
+
+        assertTrue(returnedFirst.get());
+    }
+
+    @Test
+    void closeReleasesTheLeaseEvenWhenReturningTheConnectionFails() throws Exception {
+        ConnectionLeases leases = new ConnectionLeases();
+        Connection delegate = mock(Connection.class);
+        doThrow(new SQLException("broken")).when(delegate).close();
+        leases.tryReserve();
+        Connection leased = leases.lease(delegate);
+
+        assertThrows(SQLException.class, leased::close);
+
+        assertEquals(0, leases.leased());
+    }
+
+    @Test
+    void unwrapExposesDelegate() throws Exception {
+        Connection delegate = mock(Connection.class);
+        when(delegate.isWrapperFor(Runnable.class)).thenReturn(true);
+        when(delegate.unwrap(Runnable.class)).thenReturn(() -> { });
+        LeasedConnection leased = new LeasedConnection(delegate, new ConnectionLeases());
+
+        assertSame(delegate, leased.delegate());
+        assertSame(delegate, leased.unwrap(Connection.class));
+        assertTrue(leased.isWrapperFor(Connection.class));
+        assertTrue(leased.isWrapperFor(Runnable.class));
+        assertFalse(leased.isWrapperFor(String.class));
+        leased.unwrap(Runnable.class);
+        verify(delegate).unwrap(Runnable.class);
+    }
+
+    @Test
+    void delegatesEveryConnectionMethod() throws Exception {
+        Connection delegate = mock(Connection.class);
+        LeasedConnection leased = new LeasedConnection(delegate, new ConnectionLeases());
+
+        for (Method method : Connection.class.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Wrapper.class
+                    || method.getName().equals("close") || method.getName().equals("isClosed")) {
+                continue;
+            }
+            Object[] arguments = defaultArguments(method);
+            method.invoke(leased, arguments);
+            method.invoke(verify(delegate), arguments);
+        }
+    }
+
+    private static Object[] defaultArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == int.class) {
+                arguments[i] = 0;
+            } else if (types[i] == boolean.class) {
+                arguments[i] = false;
+            }
+        }
+        return arguments;
+    }
+}
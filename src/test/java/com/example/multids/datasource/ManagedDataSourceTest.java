@@ -1,8 +1,12 @@
 package com.example.multids.datasource;
 
+import com.example.multids.config.properties.DatasourceRole;
 import com.example.multids.config.properties.SingleDatasourceProperties;
 import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
 import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import com.example.multids.datasource.health.HealthCheckResult;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -12,14 +16,36 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 
 import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
@@ -78,6 +104,295 @@ class ManagedDataSourceTest {
         assertEquals(2, createCalls.get());
     }
 
+    @Test
+    void healRepairsPoolInPlaceWhenSoftEvictionRestoresIt() {
+        EvictingFactory factory = new EvictingFactory(true);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), factory, new SequencedHealthStrategy(true, false, true));
+        managed.markUnhealthy();
+
+        assertTrue(managed.healIfNeeded());
+
+        assertTrue(managed.isMarkedHealthy());
+        assertEquals(1, factory.pools.size());
+        assertSame(factory.pools.get(0), managed.current());
+        assertEquals(1, factory.evictions.get());
+        RepairStatistics statistics = managed.getRepairStatistics();
+        assertEquals(1, statistics.softEvictions());
+        assertEquals(1, statistics.repairedInPlace());
+        assertEquals(0, statistics.rebuilds());
+    }
+
+    @Test
+    void healRebuildsPoolOnlyAfterRepeatedFailedSoftEvictions() {
+        EvictingFactory factory = new EvictingFactory(true);
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(), factory,
+                new SequencedHealthStrategy(true, false, false, false, false, true));
+
+        assertFalse(managed.healIfNeeded());
+        assertEquals(1, factory.pools.size());
+        assertFalse(factory.pools.get(0).closed);
+
+        assertTrue(managed.healIfNeeded());
+        assertEquals(2, factory.pools.size());
+        assertSame(factory.pools.get(1), managed.current());
+        assertTrue(factory.pools.get(0).closed);
+        RepairStatistics statistics = managed.getRepairStatistics();
+        assertEquals(2, statistics.softEvictions());
+        assertEquals(0, statistics.repairedInPlace());
+        assertEquals(1, statistics.rebuilds());
+        assertTrue(statistics.rebuildTime().toNanos() > 0);
+    }
+
+    @Test
+    void healRebuildsImmediatelyWhenPoolCannotBeSoftEvicted() {
+        EvictingFactory factory = new EvictingFactory(false);
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(), factory,
+                new SequencedHealthStrategy(true, false, false, true));
+
+        assertTrue(managed.healIfNeeded());
+
+        assertEquals(2, factory.pools.size());
+        assertEquals(1, factory.evictions.get());
+        assertEquals(new RepairStatistics(0, 0, 1, managed.getRepairStatistics().probeTime(), Duration.ZERO,
+                managed.getRepairStatistics().rebuildTime()), managed.getRepairStatistics());
+    }
+
+    @Test
+    void zeroSoftEvictAttemptsSkipsInPlaceRepair() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setSoftEvictAttempts(0);
+        EvictingFactory factory = new EvictingFactory(true);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, factory, new SequencedHealthStrategy(true, false, false, true));
+
+        assertTrue(managed.healIfNeeded());
+
+        assertEquals(0, factory.evictions.get());
+        assertEquals(2, factory.pools.size());
+    }
+
+    @Test
+    void successfulProbeResetsFailedSoftEvictions() {
+        EvictingFactory factory = new EvictingFactory(true);
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(), factory,
+                new SequencedHealthStrategy(true, false, false, true, false, false));
+
+        assertFalse(managed.healIfNeeded());
+        assertTrue(managed.verifyHealth());
+        assertFalse(managed.healIfNeeded());
+
+        assertEquals(1, factory.pools.size());
+        assertEquals(2, managed.getRepairStatistics().softEvictions());
+    }
+
+    @Test
+    void probeThatOutlivesProbeTimeoutIsAbandonedAsTimedOut() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setProbeTimeout(Duration.ofMillis(50));
+        AtomicBoolean hang = new AtomicBoolean();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> {
+            if (!hang.get()) {
+                return true;
+            }
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return true;
+        });
+        hang.set(true);
+
+        long started = System.nanoTime();
+        assertFalse(managed.verifyHealth());
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(new ProbeStatistics(1, 0, 1), managed.getProbeStatistics());
+        assertEquals(HealthCheckResult.TIMED_OUT, managed.getLastProbeResult().orElseThrow());
+        assertDoesNotThrow(() -> assertTrue(interrupted.await(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    void probeOutcomesAreCountedSeparately() {
+        DataSourceHealthStrategy strategy = new DataSourceHealthStrategy() {
+            private final Deque<HealthCheckResult> results = new ArrayDeque<>(List.of(
+                    HealthCheckResult.HEALTHY, HealthCheckResult.UNHEALTHY, HealthCheckResult.TIMED_OUT));
+
+            @Override
+            public boolean isHealthy(DataSource dataSource, String validationQuery) {
+                throw new AssertionError("check() is the probe entry point");
+            }
+
+            @Override
+            public HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
+                assertEquals(Duration.ofSeconds(5), timeout);
+                return results.removeFirst();
+            }
+        };
+        ManagedDataSource managed =
+                new ManagedDataSource("primary", new SingleDatasourceProperties(), p -> new TestDataSource(), strategy);
+
+        assertTrue(managed.getLastProbeResult().isPresent());
+        assertFalse(managed.verifyHealth());
+        assertFalse(managed.verifyHealth());
+
+        assertEquals(new ProbeStatistics(1, 1, 1), managed.getProbeStatistics());
+        assertEquals(HealthCheckResult.TIMED_OUT, managed.getLastProbeResult().orElseThrow());
+    }
+
+    @Test
+    void tcpPreCheckSkipsJdbcProbeWhenHostIsUnreachable() throws Exception {
+        int port;
+        try (ServerSocket database = new ServerSocket(0)) {
+            port = database.getLocalPort();
+        }
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:postgresql://127.0.0.1:" + port + "/app");
+        properties.setTcpPreCheck(true);
+        AtomicInteger jdbcProbes = new AtomicInteger();
+
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> {
+            jdbcProbes.incrementAndGet();
+            return true;
+        });
+
+        assertFalse(managed.isMarkedHealthy());
+        assertEquals(0, jdbcProbes.get());
+    }
+
+    @Test
+    void probeRunsInlineWithoutProbeTimeout() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setProbeTimeout(null);
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> prober = new AtomicReference<>();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> {
+            prober.set(Thread.currentThread());
+            return true;
+        });
+
+        assertTrue(managed.verifyHealth());
+        assertSame(caller, prober.get());
+    }
+
+    @Test
+    void probeFailureFromStrategyPropagates() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        IllegalStateException boom = new IllegalStateException("boom");
+        assertSame(boom, assertThrows(IllegalStateException.class, () -> new ManagedDataSource(
+                "primary", properties, p -> new TestDataSource(), (d, q) -> {
+                    throw boom;
+                })));
+        AssertionError error = new AssertionError("fatal");
+        assertSame(error, assertThrows(AssertionError.class, () -> new ManagedDataSource(
+                "primary", properties, p -> new TestDataSource(), (d, q) -> {
+                    throw error;
+                })));
+    }
+
+    @Test
+    void reportsBorrowsHealsAndReplacementsToObserver() throws Exception {
+        RecordingObserver observer = new RecordingObserver();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.getCircuitBreaker().setEnabled(false);
+        DataSource failing = Mockito.mock(DataSource.class);
+        Mockito.when(failing.getConnection()).thenThrow(new SQLException("down"));
+        AtomicInteger creates = new AtomicInteger();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties,
+                p -> creates.getAndIncrement() == 0 ? new TestDataSource() : failing,
+                new SequencedHealthStrategy(true, true, false, false, true));
+        managed.setObserver(observer);
+
+        managed.getConnection();
+        assertFalse(managed.healIfNeeded());
+        assertTrue(managed.healIfNeeded());
+        assertThrows(SQLException.class, managed::getConnection);
+
+        assertEquals(List.of("borrowed", "heal ALREADY_HEALTHY", "replaced", "heal REPLACED", "failed SQLException"),
+                observer.events);
+        assertThrows(NullPointerException.class, () -> managed.setObserver(null));
+    }
+
+    @Test
+    void reportsRejectedBorrowsSkippedAndCrashedHealsToObserver() {
+        RecordingObserver observer = new RecordingObserver();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        ManagedDataSource managed =
+                new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> true);
+        managed.setObserver(observer);
+        managed.markUnhealthy();
+
+        assertThrows(CircuitOpenException.class, managed::getConnection);
+        assertFalse(managed.healIfNeeded());
+        properties.getCircuitBreaker().setEnabled(false);
+        ManagedDataSource crashing = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> {
+            throw new IllegalStateException("probe crashed");
+        }, false);
+        crashing.setObserver(observer);
+        assertThrows(IllegalStateException.class, crashing::healIfNeeded);
+
+        assertEquals(List.of("failed CircuitOpenException", "heal SKIPPED", "heal FAILED"), observer.events);
+    }
+
+    @Test
+    void flightRecorderEventsAreDisabledByDefault() {
+        for (Class<? extends Event> type : List.of(HealEvent.class, PoolReplacedEvent.class, PoolClosedEvent.class,
+                BorrowFailureEvent.class, HealthTransitionEvent.class)) {
+            assertFalse(EventType.getEventType(type).isEnabled(), type.getName());
+        }
+    }
+
+    @Test
+    void emitsFlightRecorderEventsForFailureHealAndReplacement() throws Exception {
+        DataSource failing = Mockito.mock(DataSource.class);
+        Mockito.when(failing.getConnection()).thenThrow(new SQLException("down"));
+        AtomicInteger creates = new AtomicInteger();
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(),
+                p -> creates.getAndIncrement() == 0 ? failing : new TestDataSource(),
+                new SequencedHealthStrategy(true, false, false, true));
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (Class<? extends Event> type : List.of(HealEvent.class, PoolReplacedEvent.class,
+                    PoolClosedEvent.class, BorrowFailureEvent.class, HealthTransitionEvent.class)) {
+                recording.enable(type);
+            }
+            recording.start();
+            assertThrows(SQLException.class, managed::getConnection);
+            assertTrue(managed.healIfNeeded());
+            recording.stop();
+            Path file = Files.createTempFile("managed-datasource", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<String> summary = events.stream()
+                .sorted(Comparator.comparing(RecordedEvent::getEndTime))
+                .map(e -> e.getEventType().getName().substring("com.example.multids.".length())
+                        + ":" + e.getString("datasource") + ":" + e.getString("outcome"))
+                .toList();
+        assertEquals(List.of(
+                "HealthTransition:primary:OPEN",
+                "BorrowFailure:primary:java.sql.SQLException",
+                "PoolReplaced:primary:healthy",
+                "HealthTransition:primary:CLOSED",
+                "PoolClosed:primary:drained",
+                "Heal:primary:REPLACED"), summary);
+        RecordedEvent transition = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith("HealthTransition") && e.getBoolean("routable"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("OPEN", transition.getString("previousState"));
+    }
+
     @Test
     void healReturnsTrueWhenReplacementIsHealthy() {
         AtomicInteger createCalls = new AtomicInteger();
@@ -95,6 +410,205 @@ class ManagedDataSourceTest {
         assertEquals(2, createCalls.get());
     }
 
+    @Test
+    void concurrentHealCallersShareOneInFlightAttempt() throws Exception {
+        BlockingHealthStrategy health = new BlockingHealthStrategy();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setHealWaitTimeout(Duration.ofSeconds(10));
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), health);
+        health.block();
+
+        CompletableFuture<Boolean> leader = CompletableFuture.supplyAsync(managed::healIfNeeded);
+        assertTrue(health.entered.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Boolean>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(CompletableFuture.supplyAsync(managed::healIfNeeded));
+        }
+        while (managed.getHealStatistics().coalescedCallers() < 5) {
+            Thread.onSpinWait();
+        }
+        health.release();
+
+        assertFalse(leader.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Boolean> follower : followers) {
+            assertFalse(follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, health.calls.get());
+        assertEquals(new HealStatistics(1, 5, 0), managed.getHealStatistics());
+        assertTrue(managed.isMarkedHealthy());
+    }
+
+    @Test
+    void coalescedCallerGivesUpAfterWaitTimeout() throws Exception {
+        BlockingHealthStrategy health = new BlockingHealthStrategy();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setHealWaitTimeout(Duration.ofMillis(20));
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), health);
+        health.block();
+
+        CompletableFuture<Boolean> leader = CompletableFuture.supplyAsync(managed::healIfNeeded);
+        assertTrue(health.entered.await(5, TimeUnit.SECONDS));
+
+        assertFalse(managed.healIfNeeded());
+        assertEquals(new HealStatistics(1, 1, 1), managed.getHealStatistics());
+
+        health.release();
+        assertFalse(leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void coalescedCallerFailsFastWithoutWaitTimeout() throws Exception {
+        BlockingHealthStrategy health = new BlockingHealthStrategy();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setHealWaitTimeout(Duration.ZERO);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), health);
+        health.block();
+
+        CompletableFuture<Boolean> leader = CompletableFuture.supplyAsync(managed::healIfNeeded);
+        assertTrue(health.entered.await(5, TimeUnit.SECONDS));
+
+        assertFalse(managed.healIfNeeded());
+        assertEquals(new HealStatistics(1, 1, 0), managed.getHealStatistics());
+
+        health.release();
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedHealIsSurfacedToLeaderAndAllowsNextAttempt() {
+        AtomicInteger createCalls = new AtomicInteger();
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> {
+                    if (createCalls.getAndIncrement() > 0) {
+                        throw new IllegalStateException("factory down");
+                    }
+                    return new TestDataSource();
+                },
+                (d, q) -> false);
+
+        assertThrows(IllegalStateException.class, managed::healIfNeeded);
+        assertThrows(IllegalStateException.class, managed::healIfNeeded);
+        assertEquals(2, managed.getHealStatistics().attempts());
+    }
+
+    @Test
+    void notifiesListenersOnlyOnHealthTransitions() {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> new TestDataSource(),
+                (d, q) -> true);
+        List<Boolean> transitions = new ArrayList<>();
+        managed.addHealthStateListener((source, healthy) -> {
+            assertSame(managed, source);
+            transitions.add(healthy);
+        });
+
+        managed.markUnhealthy();
+        managed.markUnhealthy();
+        managed.healIfNeeded();
+        managed.healIfNeeded();
+
+        assertEquals(List.of(false, true), transitions);
+        assertThrows(NullPointerException.class, () -> managed.addHealthStateListener(null));
+    }
+
+    @Test
+    void removedListenersAreNoLongerNotified() {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> new TestDataSource(),
+                (d, q) -> true);
+        List<Boolean> transitions = new ArrayList<>();
+        HealthStateListener listener = (source, healthy) -> transitions.add(healthy);
+        managed.addHealthStateListener(listener);
+
+        managed.markUnhealthy();
+        managed.removeHealthStateListener(listener);
+        managed.healIfNeeded();
+
+        assertEquals(List.of(false), transitions);
+    }
+
+    @Test
+    void successfulBorrowRestoresHealth() throws Exception {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> new TestDataSource(),
+                (d, q) -> true);
+        managed.markUnhealthy();
+
+        managed.getConnection();
+        assertTrue(managed.isMarkedHealthy());
+        managed.markUnhealthy();
+        managed.getConnection("u", "p");
+        assertTrue(managed.isMarkedHealthy());
+    }
+
+    @Test
+    void enabledCircuitBreakerRejectsBorrowsWhileOpen() throws Exception {
+        DataSource failing = Mockito.mock(DataSource.class);
+        Mockito.when(failing.getConnection()).thenThrow(new SQLException("down"));
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setSlidingWindowSize(2);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(2);
+        properties.getCircuitBreaker().setFailureRateThreshold(100.0f);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> failing, (d, q) -> true);
+
+        assertThrows(SQLException.class, managed::getConnection);
+        assertEquals(CircuitState.CLOSED, managed.getCircuitState());
+        assertThrows(SQLException.class, managed::getConnection);
+        assertEquals(CircuitState.OPEN, managed.getCircuitState());
+
+        CircuitOpenException rejected = assertThrows(CircuitOpenException.class, managed::getConnection);
+        assertEquals("Circuit breaker for datasource primary is not admitting borrows", rejected.getMessage());
+        assertThrows(CircuitOpenException.class, () -> managed.getConnection("u", "p"));
+        Mockito.verify(failing, Mockito.times(2)).getConnection();
+    }
+
+    @Test
+    void healWaitsForOpenDurationAndThenAdmitsHalfOpenTrials() throws Exception {
+        AtomicInteger probes = new AtomicInteger();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        properties.getCircuitBreaker().setPermittedCallsInHalfOpenState(1);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> {
+            probes.incrementAndGet();
+            return true;
+        });
+
+        managed.markUnhealthy();
+        assertFalse(managed.healIfNeeded());
+        assertEquals(1, probes.get());
+        assertEquals(CircuitState.OPEN, managed.getCircuitState());
+
+        properties.getCircuitBreaker().setOpenDuration(Duration.ZERO);
+        ManagedDataSource recovering = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> true);
+        recovering.markUnhealthy();
+        assertFalse(recovering.healIfNeeded());
+        assertEquals(CircuitState.HALF_OPEN, recovering.getCircuitState());
+        assertTrue(recovering.isMarkedHealthy());
+        recovering.getConnection();
+        assertEquals(CircuitState.CLOSED, recovering.getCircuitState());
+    }
+
+    @Test
+    void missingCircuitBreakerPropertiesFallBackToDefaults() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setCircuitBreaker(null);
+
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> true);
+
+        assertEquals(CircuitState.CLOSED, managed.getCircuitState());
+    }
+
     @Test
     void closeQuietlySwallowsCloseException() {
         ManagedDataSource managed = new ManagedDataSource(
@@ -135,6 +649,72 @@ class ManagedDataSourceTest {
         assertEquals("primary", managed.getName());
     }
 
+    @Test
+    void recordsBorrowAndProbeLatency() throws Exception {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> new TestDataSource(),
+                (d, q) -> true);
+
+        LatencyStatistics initial = managed.getLatencyStatistics();
+        assertEquals(0, initial.borrowSamples());
+        assertEquals(1, initial.probeSamples());
+        assertTrue(initial.hasSamples());
+        assertEquals(initial.probeLatency(), initial.routingLatency());
+
+        managed.getConnection();
+        managed.getConnection("u", "p");
+        managed.healIfNeeded();
+
+        LatencyStatistics statistics = managed.getLatencyStatistics();
+        assertEquals(2, statistics.borrowSamples());
+        assertEquals(2, statistics.probeSamples());
+        assertEquals(statistics.borrowLatency(), statistics.routingLatency());
+    }
+
+    @Test
+    void failedProbesAreNotRecordedAsLatency() {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary",
+                new SingleDatasourceProperties(),
+                p -> new TestDataSource(),
+                (d, q) -> false);
+
+        assertFalse(managed.getLatencyStatistics().hasSamples());
+        assertEquals(Duration.ZERO, managed.getLatencyStatistics().routingLatency());
+    }
+
+    @Test
+    void tracksLeasedConnectionsUntilClosed() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        ManagedDataSource managed = new ManagedDataSource("replica", properties, p -> new TestDataSource(), (d, q) -> true);
+
+        Connection one = managed.getConnection();
+        Connection two = managed.getConnection("u", "p");
+        assertEquals(2, managed.getLeasedConnections());
+
+        one.close();
+        one.close();
+        assertEquals(1, managed.getLeasedConnections());
+        two.close();
+        assertEquals(0, managed.getLeasedConnections());
+
+        assertEquals(DatasourceRole.WRITER, managed.getRole());
+        properties.setRole(DatasourceRole.READER);
+        assertEquals(DatasourceRole.READER, managed.getRole());
+        properties.setRole(null);
+        assertEquals(DatasourceRole.WRITER, managed.getRole());
+        assertTrue(managed.getPriority().isEmpty());
+        properties.setPriority(4);
+        assertEquals(4, managed.getPriority().getAsInt());
+        assertTrue(managed.getTags().isEmpty());
+        properties.setTags(Set.of("reporting"));
+        assertEquals(Set.of("reporting"), managed.getTags());
+        properties.setTags(null);
+        assertTrue(managed.getTags().isEmpty());
+    }
+
     @Test
     void parentLoggerExceptionCanBubbleUp() {
         DataSource bad = Mockito.mock(DataSource.class);
@@ -170,6 +750,753 @@ class ManagedDataSourceTest {
         assertFalse(managed.isMarkedHealthy());
     }
 
+    @Test
+    void skippedInitialProbeStartsUnhealthyUntilVerified() {
+        SequencedHealthStrategy health = new SequencedHealthStrategy(false, true);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), p -> new TestDataSource(), health, false);
+
+        assertFalse(managed.isMarkedHealthy());
+        assertEquals(0, health.calls.get());
+        assertFalse(managed.verifyHealth());
+        assertFalse(managed.isMarkedHealthy());
+        assertTrue(managed.verifyHealth());
+        assertTrue(managed.isMarkedHealthy());
+    }
+
+    @Test
+    void verifyHealthRespectsOpenCircuit() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        SequencedHealthStrategy health = new SequencedHealthStrategy(true);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> new TestDataSource(), health);
+        managed.markUnhealthy();
+
+        assertFalse(managed.verifyHealth());
+        assertEquals(1, health.calls.get());
+    }
+
+    @Test
+    void warmUpHoldsConnectionsUntilMinimumIdleIsReached() throws Exception {
+        DataSource pool = Mockito.mock(DataSource.class);
+        List<Connection> opened = new ArrayList<>();
+        Mockito.when(pool.getConnection()).thenAnswer(i -> {
+            Connection connection = Mockito.mock(Connection.class);
+            opened.add(connection);
+            return connection;
+        });
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(4);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> pool, (d, q) -> true);
+
+        assertEquals(4, managed.warmUp());
+        properties.setMinimumIdle(2);
+        assertEquals(2, managed.warmUp());
+
+        assertEquals(6, opened.size());
+        for (Connection connection : opened) {
+            Mockito.verify(connection).close();
+        }
+    }
+
+    @Test
+    void warmUpIsBestEffort() throws Exception {
+        DataSource pool = Mockito.mock(DataSource.class);
+        Connection first = Mockito.mock(Connection.class);
+        Mockito.when(pool.getConnection()).thenReturn(first).thenThrow(new SQLException("pool exhausted"));
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMinimumIdle(3);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> pool, (d, q) -> true);
+
+        assertEquals(1, managed.warmUp());
+        Mockito.verify(first).close();
+    }
+
+    @Test
+    void lazyDatasourceCreatesPoolOnFirstBorrow() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        AtomicInteger created = new AtomicInteger();
+        SequencedHealthStrategy health = new SequencedHealthStrategy();
+        ManagedDataSource managed = new ManagedDataSource("fallback", properties, p -> {
+            created.incrementAndGet();
+            return new TestDataSource();
+        }, health);
+
+        assertTrue(managed.isMarkedHealthy());
+        assertFalse(managed.isMaterialized());
+        assertTrue(managed.verifyHealth());
+        assertEquals(0, managed.warmUp());
+        assertEquals(0, created.get());
+        assertEquals(0, health.calls.get());
+
+        managed.getConnection();
+        managed.getConnection("u", "p");
+
+        assertTrue(managed.isMaterialized());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void concurrentFirstBorrowersShareOneLazyPool() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ManagedDataSource managed = new ManagedDataSource("fallback", properties, p -> {
+            created.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new TestDataSource();
+        }, (d, q) -> true);
+
+        List<CompletableFuture<Connection>> borrowers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            borrowers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                    return managed.getConnection();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }));
+        }
+        start.countDown();
+        for (CompletableFuture<Connection> borrower : borrowers) {
+            assertNotNull(borrower.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void releasesIdleLazyPoolAndRecreatesItOnNextBorrow() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        properties.setIdleTimeout(Duration.ofNanos(1));
+        List<TestDataSource> pools = new ArrayList<>();
+        ManagedDataSource managed = new ManagedDataSource("fallback", properties, p -> {
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }, (d, q) -> true);
+
+        assertFalse(managed.releaseIfIdle());
+        Connection leased = managed.getConnection();
+        assertFalse(managed.releaseIfIdle());
+        leased.close();
+        Thread.sleep(1);
+
+        assertTrue(managed.releaseIfIdle());
+        assertFalse(managed.isMaterialized());
+        assertTrue(pools.get(0).closed);
+
+        managed.getConnection();
+        assertEquals(2, pools.size());
+    }
+
+    @Test
+    void idleTimeoutOnlyAppliesToLazyDatasources() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setIdleTimeout(Duration.ofNanos(1));
+        ManagedDataSource eager = new ManagedDataSource("primary", properties, p -> new TestDataSource(), (d, q) -> true);
+        Thread.sleep(1);
+
+        assertFalse(eager.releaseIfIdle());
+        properties.setLazy(true);
+        properties.setIdleTimeout(null);
+        assertFalse(eager.releaseIfIdle());
+        properties.setIdleTimeout(Duration.ZERO);
+        assertFalse(eager.releaseIfIdle());
+        assertTrue(eager.isMaterialized());
+    }
+
+    @Test
+    void idlePoolIsNotReleasedWhileABorrowIsInFlight() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        properties.setIdleTimeout(Duration.ofNanos(1));
+        AtomicReference<ManagedDataSource> self = new AtomicReference<>();
+        AtomicBoolean releasedDuringBorrow = new AtomicBoolean(true);
+        DataSource pool = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(pool.getConnection()).thenAnswer(i -> {
+            Thread.sleep(1);
+            releasedDuringBorrow.set(self.get().releaseIfIdle());
+            return connection;
+        });
+        ManagedDataSource managed = new ManagedDataSource("fallback", properties, p -> pool, (d, q) -> true);
+        self.set(managed);
+
+        managed.getConnection();
+
+        assertFalse(releasedDuringBorrow.get());
+        assertTrue(managed.isMaterialized());
+    }
+
+    @Test
+    void healDrainsReplacedPoolUntilItsLeasesAreReturned() throws Exception {
+        List<TestDataSource> pools = new ArrayList<>();
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(), p -> {
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }, new SequencedHealthStrategy(true, false, false, true));
+        Connection inFlight = managed.getConnection();
+
+        assertTrue(managed.healIfNeeded());
+
+        assertEquals(2, pools.size());
+        assertFalse(pools.get(0).closed);
+        assertEquals(1, managed.getDrainingPools());
+        assertEquals(1, managed.getDrainingLeasedConnections());
+        assertSame(pools.get(1).connection, managed.getConnection().unwrap(Connection.class));
+        assertEquals(2, managed.getLeasedConnections());
+
+        inFlight.close();
+        awaitClosed(pools.get(0));
+        assertEquals(0, managed.getDrainingPools());
+        assertEquals(1, managed.getLeasedConnections());
+    }
+
+    @Test
+    void drainTimeoutClosesPoolWithOutstandingLeases() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setDrainTimeout(Duration.ofMillis(20));
+        List<TestDataSource> pools = new ArrayList<>();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> {
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }, new SequencedHealthStrategy(true, false, false, true));
+        Connection stuck = managed.getConnection();
+
+        managed.healIfNeeded();
+
+        awaitClosed(pools.get(0));
+        assertEquals(0, managed.getDrainingPools());
+        stuck.close();
+        assertEquals(0, managed.getLeasedConnections());
+    }
+
+    @Test
+    void zeroDrainTimeoutClosesReplacedPoolImmediately() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setDrainTimeout(Duration.ZERO);
+        List<TestDataSource> pools = new ArrayList<>();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> {
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }, new SequencedHealthStrategy(true, false, false, true));
+        managed.getConnection();
+
+        managed.healIfNeeded();
+
+        assertTrue(pools.get(0).closed);
+        assertEquals(0, managed.getDrainingPools());
+    }
+
+    @Test
+    void retireDrainsThePoolAndRefusesLaterBorrows() throws Exception {
+        TestDataSource pool = new TestDataSource();
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), p -> pool, (d, q) -> true);
+        Connection inFlight = managed.getConnection();
+
+        managed.retire();
+        managed.retire();
+
+        assertTrue(managed.isRetired());
+        assertFalse(managed.isMaterialized());
+        assertEquals(1, managed.getDrainingPools());
+        assertFalse(pool.closed);
+        IllegalStateException refused = assertThrows(IllegalStateException.class, managed::getConnection);
+        assertEquals("Datasource primary has been retired", refused.getMessage());
+        assertThrows(IllegalStateException.class, managed::current);
+        assertFalse(managed.healIfNeeded());
+
+        inFlight.close();
+        awaitClosed(pool);
+        assertEquals(0, managed.getLeasedConnections());
+    }
+
+    @Test
+    void retiringAnUnmaterializedLazyDatasourceCreatesNoPool() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        AtomicInteger created = new AtomicInteger();
+        ManagedDataSource managed = new ManagedDataSource("lazy", properties, p -> {
+            created.incrementAndGet();
+            return new TestDataSource();
+        }, (d, q) -> true);
+
+        managed.retire();
+
+        assertEquals(0, created.get());
+        assertEquals(0, managed.getDrainingPools());
+        assertThrows(IllegalStateException.class, managed::getConnection);
+    }
+
+    @Test
+    void rebuildRacingWithRetireDrainsTheReplacement() throws Exception {
+        List<TestDataSource> pools = new ArrayList<>();
+        AtomicReference<ManagedDataSource> holder = new AtomicReference<>();
+        ManagedDataSource managed = new ManagedDataSource("primary", new SingleDatasourceProperties(), p -> {
+            if (!pools.isEmpty()) {
+                holder.get().retire();
+            }
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }, new SequencedHealthStrategy(true, false, false));
+        holder.set(managed);
+
+        assertFalse(managed.healIfNeeded());
+
+        assertEquals(2, pools.size());
+        awaitClosed(pools.get(0));
+        awaitClosed(pools.get(1));
+        assertTrue(managed.isRetired());
+    }
+
+    @Test
+    void poolUsageAndResizeLeaveUnmaterializedLazyDatasourceAlone() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        AtomicInteger created = new AtomicInteger();
+        ManagedDataSource managed = new ManagedDataSource("lazy", properties, p -> {
+            created.incrementAndGet();
+            return new TestDataSource();
+        }, (d, q) -> true);
+
+        assertTrue(managed.getPoolUsage().isEmpty());
+        assertFalse(managed.resizePool(4));
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void resizeCapsMinimumIdleAtTheNewPoolSize() {
+        List<List<Integer>> resizes = new ArrayList<>();
+        PoolUsage usage = new PoolUsage(3, 1, 0, 10);
+        DataSourceFactory factory = new DataSourceFactory() {
+            @Override
+            public DataSource create(SingleDatasourceProperties properties) {
+                return new TestDataSource();
+            }
+
+            @Override
+            public Optional<PoolUsage> usage(DataSource dataSource) {
+                return Optional.of(usage);
+            }
+
+            @Override
+            public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+                resizes.add(List.of(maximumPoolSize, minimumIdle));
+                return true;
+            }
+        };
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, factory, (d, q) -> true);
+
+        assertEquals(Optional.of(usage), managed.getPoolUsage());
+        assertTrue(managed.resizePool(6));
+        properties.setMinimumIdle(4);
+        assertTrue(managed.resizePool(8));
+        assertTrue(managed.resizePool(2));
+
+        assertEquals(List.of(List.of(6, 6), List.of(8, 4), List.of(2, 2)), resizes);
+    }
+
+    @Test
+    void startsAtItsFloorWithinALimitedBudgetAndFailsWhenNothingIsLeft() {
+        ConnectionBudget budget = new ConnectionBudget(3);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setAdaptiveMinimumPoolSize(2);
+
+        ManagedDataSource first = new ManagedDataSource("first", properties, factory, (d, q) -> true, true, budget);
+        ManagedDataSource second = new ManagedDataSource(
+                "second", new SingleDatasourceProperties(), factory, (d, q) -> true, true, budget);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> new ManagedDataSource(
+                "third", new SingleDatasourceProperties(), factory, (d, q) -> true, true, budget));
+
+        assertEquals(List.of(2, 1), factory.created);
+        assertEquals(2, first.getConnectionShare());
+        assertEquals(1, second.getConnectionShare());
+        assertEquals("Connection budget of 3 connections has no room for a pool of datasource third", ex.getMessage());
+        assertThrows(NullPointerException.class, () -> new ManagedDataSource(
+                "fourth", new SingleDatasourceProperties(), factory, (d, q) -> true, true, null));
+    }
+
+    @Test
+    void growsToItsShareAndGivesConnectionsBackWhenShrinking() {
+        ConnectionBudget budget = new ConnectionBudget(20);
+        SizedFactory factory = new SizedFactory();
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), factory, (d, q) -> true, true, budget);
+
+        assertTrue(managed.setConnectionShare(30));
+        assertEquals(10, factory.size(managed));
+        assertEquals(10, budget.getGrantedConnections());
+
+        assertTrue(managed.setConnectionShare(4));
+        assertFalse(managed.resizePool(6));
+        assertEquals(4, factory.size(managed));
+        assertEquals(4, budget.getGrantedConnections());
+        assertEquals(1, factory.evictions);
+
+        factory.resizable = false;
+        assertFalse(managed.setConnectionShare(8));
+        assertEquals(4, budget.getGrantedConnections());
+    }
+
+    @Test
+    void yieldsConnectionsDownToItsFloor() {
+        ConnectionBudget budget = new ConnectionBudget(20);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setAdaptiveMinimumPoolSize(3);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, factory, (d, q) -> true, true, budget);
+        managed.setConnectionShare(10);
+
+        assertEquals(4, managed.yieldConnections(4));
+        assertEquals(3, managed.yieldConnections(10));
+        assertEquals(0, managed.yieldConnections(1));
+
+        assertEquals(3, factory.size(managed));
+        assertEquals(3, managed.getConnectionShare());
+        assertEquals(3, budget.getGrantedConnections());
+    }
+
+    @Test
+    void rebuildWithinBudgetShrinksTheOldPoolToItsLeasesFirst() throws Exception {
+        ConnectionBudget budget = new ConnectionBudget(5);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setSoftEvictAttempts(0);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, factory, new SequencedHealthStrategy(true, false, false, true), true, budget);
+        managed.setConnectionShare(5);
+        TestDataSource old = (TestDataSource) managed.current();
+        Connection first = managed.getConnection();
+        Connection second = managed.getConnection();
+
+        assertTrue(managed.healIfNeeded());
+
+        assertEquals(List.of(1, 3), factory.created);
+        assertEquals(2, factory.sizes.get(old));
+        assertEquals(3, factory.size(managed));
+        assertEquals(5, budget.getGrantedConnections());
+
+        first.close();
+        second.close();
+        awaitClosed(old);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (budget.getGrantedConnections() != 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, budget.getGrantedConnections());
+        assertTrue(managed.resizePool(10));
+        assertEquals(5, factory.size(managed));
+    }
+
+    @Test
+    void rebuildFailsWhenTheBudgetHasNoRoomForAReplacement() {
+        ConnectionBudget budget = new ConnectionBudget(2);
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setSoftEvictAttempts(0);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, factory, new SequencedHealthStrategy(true, false), true, budget);
+        new ManagedDataSource("other", new SingleDatasourceProperties(), factory, (d, q) -> true, true, budget);
+        DataSource old = managed.current();
+
+        assertFalse(managed.healIfNeeded());
+
+        assertSame(old, managed.current());
+        assertFalse(managed.isMarkedHealthy());
+        assertEquals(List.of(1, 1), factory.created);
+        assertEquals(2, budget.getGrantedConnections());
+    }
+
+    @Test
+    void closingAPoolReturnsItsConnectionsToTheBudget() {
+        ConnectionBudget budget = new ConnectionBudget(10);
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setDrainTimeout(Duration.ZERO);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, new SizedFactory(), (d, q) -> true, true, budget);
+        managed.setConnectionShare(6);
+        assertEquals(6, budget.getGrantedConnections());
+
+        managed.retire();
+
+        assertEquals(0, budget.getGrantedConnections());
+    }
+
+    @Test
+    void failedPoolCreationReturnsItsConnections() {
+        ConnectionBudget budget = new ConnectionBudget(10);
+        DataSourceFactory failing = p -> {
+            throw new IllegalStateException("driver missing");
+        };
+
+        assertThrows(IllegalStateException.class, () -> new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), failing, (d, q) -> true, true, budget));
+        assertEquals(0, budget.getGrantedConnections());
+    }
+
+    @Test
+    void admitsNoMoreConcurrentBorrowsThanThePoolHasConnections() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(2);
+        properties.setAdmissionTimeout(Duration.ofMillis(50));
+        RecordingObserver observer = new RecordingObserver();
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, new SizedFactory(), (d, q) -> true);
+        managed.setObserver(observer);
+        Connection first = managed.getConnection();
+        managed.getConnection();
+
+        SQLTransientConnectionException ex =
+                assertThrows(SQLTransientConnectionException.class, managed::getConnection);
+        assertTrue(ex.getMessage().startsWith("Datasource primary admitted no borrow within PT0.05S"));
+        assertTrue(managed.isMarkedHealthy());
+        assertEquals(List.of("borrowed", "borrowed", "failed SQLTransientConnectionException"), observer.events);
+
+        first.close();
+        first.close();
+        managed.getConnection();
+        assertEquals(0, managed.getAdmission().getAvailablePermits());
+        assertEquals(0, managed.getWaitingBorrowers());
+    }
+
+    @Test
+    void parkedBorrowersAreAdmittedAsConnectionsComeBack() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(1);
+        properties.setAdmissionTimeout(Duration.ofSeconds(5));
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, new SizedFactory(), (d, q) -> true);
+        Connection held = managed.getConnection();
+        CompletableFuture<Connection> parked = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                parked.complete(managed.getConnection());
+            } catch (SQLException ex) {
+                parked.completeExceptionally(ex);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (managed.getWaitingBorrowers() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, managed.getWaitingBorrowers());
+        assertFalse(parked.isDone());
+
+        held.close();
+
+        assertFalse(parked.get(2, TimeUnit.SECONDS).isClosed());
+        assertEquals(0, managed.getWaitingBorrowers());
+    }
+
+    @Test
+    void failedAndRejectedBorrowsGiveTheirAdmissionBack() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(1);
+        properties.setAdmissionTimeout(Duration.ofMillis(50));
+        properties.getCircuitBreaker().setEnabled(true);
+        TestDataSource failing = new TestDataSource() {
+            @Override
+            public Connection getConnection() {
+                throw new IllegalStateException("pool closed");
+            }
+        };
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, p -> failing, (d, q) -> true);
+
+        assertThrows(IllegalStateException.class, managed::getConnection);
+        assertEquals(1, managed.getAdmission().getAvailablePermits());
+
+        managed.markUnhealthy();
+        assertThrows(CircuitOpenException.class, managed::getConnection);
+        assertEquals(1, managed.getAdmission().getAvailablePermits());
+    }
+
+    @Test
+    void openCircuitRejectsAtOnceEvenWhenEveryPermitIsHeld() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(1);
+        properties.setAdmissionTimeout(Duration.ofSeconds(30));
+        properties.getCircuitBreaker().setEnabled(true);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, new SizedFactory(), (d, q) -> true);
+        managed.getConnection();
+        managed.markUnhealthy();
+
+        long started = System.nanoTime();
+        assertThrows(CircuitOpenException.class, managed::getConnection);
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, managed.getWaitingBorrowers());
+    }
+
+    @Test
+    void admissionTimeoutHandsBackTheHalfOpenTrialPermit() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(1);
+        properties.setAdmissionTimeout(Duration.ofMillis(50));
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ZERO);
+        properties.getCircuitBreaker().setPermittedCallsInHalfOpenState(2);
+        ManagedDataSource managed = new ManagedDataSource("primary", properties, new SizedFactory(), (d, q) -> true);
+        managed.markUnhealthy();
+        assertTrue(managed.verifyHealth());
+        assertEquals(CircuitState.HALF_OPEN, managed.getCircuitState());
+        Connection held = managed.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, managed::getConnection);
+        held.close();
+
+        managed.getConnection();
+        assertEquals(CircuitState.CLOSED, managed.getCircuitState());
+    }
+
+    @Test
+    void admissionLimitFollowsThePoolSize() throws Exception {
+        SizedFactory factory = new SizedFactory();
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setAdmissionTimeout(Duration.ofSeconds(1));
+        properties.setSoftEvictAttempts(0);
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, factory, new SequencedHealthStrategy(true, false, false, true));
+        assertEquals(10, managed.getAdmission().getLimit());
+
+        assertTrue(managed.resizePool(4));
+        assertEquals(4, managed.getAdmission().getLimit());
+        Connection held = managed.getConnection();
+
+        assertTrue(managed.resizePool(2));
+        assertEquals(1, managed.getAdmission().getAvailablePermits());
+        held.close();
+        assertEquals(2, managed.getAdmission().getAvailablePermits());
+
+        managed.resizePool(6);
+        assertTrue(managed.healIfNeeded());
+        assertEquals(6, factory.size(managed));
+        assertEquals(6, managed.getAdmission().getLimit());
+    }
+
+    @Test
+    void lazyDatasourceAdmitsUpToThePoolItMaterializes() throws Exception {
+        ConnectionBudget budget = new ConnectionBudget(20);
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setLazy(true);
+        properties.setAdmissionTimeout(Duration.ofSeconds(1));
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", properties, new SizedFactory(), (d, q) -> true, true, budget);
+        assertEquals(1, managed.getAdmission().getLimit());
+
+        managed.setConnectionShare(8);
+        managed.getConnection().close();
+
+        assertEquals(8, managed.getAdmission().getLimit());
+    }
+
+    private static void awaitClosed(TestDataSource pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!pool.closed && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(pool.closed);
+    }
+
+    private static final class RecordingObserver implements DataSourceObserver {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void borrowSucceeded(ManagedDataSource dataSource, long latencyNanos) {
+            events.add("borrowed");
+        }
+
+        @Override
+        public void borrowFailed(ManagedDataSource dataSource, Exception failure) {
+            events.add("failed " + failure.getClass().getSimpleName());
+        }
+
+        @Override
+        public void healCompleted(ManagedDataSource dataSource, HealOutcome outcome, long durationNanos) {
+            events.add("heal " + outcome);
+        }
+
+        @Override
+        public void poolReplaced(ManagedDataSource dataSource) {
+            events.add("replaced");
+        }
+    }
+
+    private static final class EvictingFactory implements DataSourceFactory {
+        private final boolean evictable;
+        private final List<TestDataSource> pools = new ArrayList<>();
+        private final AtomicInteger evictions = new AtomicInteger();
+
+        private EvictingFactory(boolean evictable) {
+            this.evictable = evictable;
+        }
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties) {
+            TestDataSource pool = new TestDataSource();
+            pools.add(pool);
+            return pool;
+        }
+
+        @Override
+        public boolean softEvict(DataSource dataSource) {
+            evictions.incrementAndGet();
+            return evictable;
+        }
+    }
+
+    private static class SizedFactory implements DataSourceFactory {
+        private final List<Integer> created = new ArrayList<>();
+        private final Map<DataSource, Integer> sizes = new ConcurrentHashMap<>();
+        private volatile boolean resizable = true;
+        private volatile int evictions;
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties) {
+            return create(properties, properties.getMaximumPoolSize());
+        }
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
+            TestDataSource dataSource = new TestDataSource();
+            created.add(maximumPoolSize);
+            sizes.put(dataSource, maximumPoolSize);
+            return dataSource;
+        }
+
+        @Override
+        public boolean softEvict(DataSource dataSource) {
+            evictions++;
+            return false;
+        }
+
+        @Override
+        public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+            if (resizable) {
+                sizes.put(dataSource, maximumPoolSize);
+            }
+            return resizable;
+        }
+
+        private int size(ManagedDataSource managed) {
+            return sizes.get(managed.current());
+        }
+    }
+
     private static final class SequencedHealthStrategy implements DataSourceHealthStrategy {
         private final Deque<Boolean> values = new ArrayDeque<>();
         private final AtomicInteger calls = new AtomicInteger();
@@ -187,11 +1514,41 @@ class ManagedDataSourceTest {
         }
     }
 
+    private static final class BlockingHealthStrategy implements DataSourceHealthStrategy {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final AtomicBoolean blocking = new AtomicBoolean();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private void block() {
+            blocking.set(true);
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        @Override
+        public boolean isHealthy(DataSource dataSource, String validationQuery) {
+            if (!blocking.get()) {
+                return false;
+            }
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                return released.await(5, TimeUnit.SECONDS) && calls.get() > 1;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
     private static class TestDataSource implements DataSource, AutoCloseable {
         private final Connection connection = Mockito.mock(Connection.class);
         private PrintWriter logWriter;
         private int timeout;
-        private boolean closed;
+        private volatile boolean closed;
 
         @Override
         public Connection getConnection() {
@@ -2,8 +2,18 @@ package com.example.multids.datasource;
 
 import com.example.multids.config.properties.SingleDatasourceProperties;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.SequencedMap;
 import org.junit.jupiter.api.Test;
 
 class MultiDataSourceRegistryTest {
@@ -16,6 +26,101 @@ class MultiDataSourceRegistryTest {
         assertEquals(managed, registry.datasources().get("x"));
     }
 
+    @Test
+    void constructorRejectsNullDatasources() {
+        assertThrows(NullPointerException.class, () -> new MultiDataSourceRegistry(null));
+        assertThrows(NullPointerException.class, () -> new MultiDataSourceRegistry(Map.of(), null));
+    }
+
+    @Test
+    void exposesTheSharedConnectionBudget() {
+        ConnectionBudget budget = new ConnectionBudget(10);
+
+        assertSame(budget, new MultiDataSourceRegistry(Map.of(), budget).getConnectionBudget());
+        assertFalse(new MultiDataSourceRegistry(Map.of()).getConnectionBudget().isLimited());
+    }
+
+    @Test
+    void snapshotsAreImmutableCopies() {
+        Map<String, ManagedDataSource> source = new LinkedHashMap<>();
+        source.put("x", managed("x"));
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(source);
+        source.put("y", managed("y"));
+
+        assertEquals(List.of("x"), List.copyOf(registry.datasources().keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> registry.datasources().put("y", managed("y")));
+    }
+
+    @Test
+    void updatePublishesANewSnapshotAndNotifiesListeners() {
+        ManagedDataSource x = managed("x");
+        ManagedDataSource y = managed("y");
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of("x", x));
+        SequencedMap<String, ManagedDataSource> before = registry.datasources();
+        List<SequencedMap<String, ManagedDataSource>> published = new ArrayList<>();
+        registry.addListener(published::add);
+
+        registry.update(current -> {
+            current.putFirst("y", y);
+            return current;
+        });
+
+        assertEquals(List.of("y", "x"), List.copyOf(registry.datasources().keySet()));
+        assertEquals(List.of("x"), List.copyOf(before.keySet()));
+        assertEquals(List.of(registry.datasources()), published);
+        assertFalse(x.isRetired());
+        assertFalse(y.isRetired());
+    }
+
+    @Test
+    void updateRetiresDatasourcesThatDropOut() throws Exception {
+        CloseableDataSource pool = mock(CloseableDataSource.class);
+        ManagedDataSource removed = new ManagedDataSource("x", new SingleDatasourceProperties(), p -> pool, (d, q) -> true);
+        ManagedDataSource replaced = managed("y");
+        ManagedDataSource replacement = managed("y");
+        Map<String, ManagedDataSource> initial = new LinkedHashMap<>();
+        initial.put("x", removed);
+        initial.put("y", replaced);
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(initial);
+        registry.addListener(datasources -> assertFalse(removed.isRetired(), "retired before routing moved on"));
+
+        registry.update(current -> {
+            current.remove("x");
+            current.put("y", replacement);
+            return current;
+        });
+
+        assertTrue(removed.isRetired());
+        assertTrue(replaced.isRetired());
+        assertFalse(replacement.isRetired());
+        assertSame(replacement, registry.datasources().get("y"));
+        verify(pool).close();
+    }
+
+    @Test
+    void updateRejectsAnEmptyResultAndKeepsTheSnapshot() {
+        ManagedDataSource x = managed("x");
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of("x", x));
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> registry.update(current -> {
+            current.clear();
+            return current;
+        }));
+
+        assertEquals("app.datasources must define at least one datasource", thrown.getMessage());
+        assertSame(x, registry.datasources().get("x"));
+        assertFalse(x.isRetired());
+        assertThrows(NullPointerException.class, () -> registry.update(null));
+        assertThrows(NullPointerException.class, () -> registry.update(current -> null));
+        assertThrows(NullPointerException.class, () -> registry.addListener(null));
+    }
+
+    private static ManagedDataSource managed(String name) {
+        return new ManagedDataSource(name, new SingleDatasourceProperties(), p -> new StubDataSource(), (d, q) -> true);
+    }
+
+    private interface CloseableDataSource extends javax.sql.DataSource, AutoCloseable { }
+
     private static final class StubDataSource implements javax.sql.DataSource {
         @Override
         public java.sql.Connection getConnection() { return null; }
@@ -0,0 +1,146 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.health.DataSourceHealthStrategy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ParallelDataSourceInitializerTest {
+
+    @Test
+    void probesDatasourcesConcurrently() {
+        CountDownLatch allProbing = new CountDownLatch(3);
+        DataSourceHealthStrategy health = (d, q) -> {
+            allProbing.countDown();
+            try {
+                // Only succeeds if every probe is in flight at the same time.
+                return allProbing.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+        ParallelDataSourceInitializer initializer =
+                new ParallelDataSourceInitializer(p -> Mockito.mock(DataSource.class), health, Duration.ofSeconds(5), false);
+
+        Map<String, ManagedDataSource> datasources = initializer.initialize(datasources("one", "two", "three"));
+
+        assertEquals(List.of("one", "two", "three"), List.copyOf(datasources.keySet()));
+        datasources.values().forEach(dataSource -> assertTrue(dataSource.isMarkedHealthy()));
+    }
+
+    @Test
+    void returnsAtDeadlineAndLetsSlowProbesFinishInBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DataSourceHealthStrategy health = (d, q) -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+        ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(
+                p -> Mockito.mock(DataSource.class), health, Duration.ofMillis(100), false);
+
+        long started = System.nanoTime();
+        ManagedDataSource slow = initializer.initialize(datasources("slow")).get("slow");
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        assertFalse(slow.isMarkedHealthy());
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!slow.isMarkedHealthy() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.isMarkedHealthy());
+    }
+
+    @Test
+    void warmsUpOnlyHealthyDatasources() throws Exception {
+        AtomicInteger borrows = new AtomicInteger();
+        DataSource up = Mockito.mock(DataSource.class);
+        DataSource down = Mockito.mock(DataSource.class);
+        Mockito.when(up.getConnection()).thenAnswer(i -> {
+            borrows.incrementAndGet();
+            return Mockito.mock(Connection.class);
+        });
+        Map<String, SingleDatasourceProperties> configured = datasources("up", "down");
+        configured.values().forEach(properties -> properties.setMinimumIdle(2));
+        ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(
+                p -> p == configured.get("up") ? up : down, (d, q) -> d == up, Duration.ofSeconds(5), true);
+
+        Map<String, ManagedDataSource> datasources = initializer.initialize(configured);
+
+        assertTrue(datasources.get("up").isMarkedHealthy());
+        assertFalse(datasources.get("down").isMarkedHealthy());
+        assertEquals(2, borrows.get());
+        Mockito.verify(down, Mockito.never()).getConnection();
+    }
+
+    @Test
+    void failsWhenADatasourceCannotBeCreated() {
+        IllegalArgumentException failure = new IllegalArgumentException("bad url");
+        ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(
+                p -> { throw failure; }, (d, q) -> true, Duration.ofSeconds(5), false);
+
+        assertSame(failure, assertThrows(IllegalArgumentException.class,
+                () -> initializer.initialize(datasources("broken"))));
+    }
+
+    @Test
+    void failsWhenCreationOutlivesTheDeadline() {
+        CountDownLatch never = new CountDownLatch(1);
+        ParallelDataSourceInitializer initializer = new ParallelDataSourceInitializer(p -> {
+            try {
+                never.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Mockito.mock(DataSource.class);
+        }, (d, q) -> true, Duration.ofMillis(50), false);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> initializer.initialize(datasources("stuck")));
+        assertEquals("Datasource stuck was not created within PT0.05S", ex.getMessage());
+        never.countDown();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        DataSourceHealthStrategy health = (d, q) -> true;
+        assertThrows(NullPointerException.class,
+                () -> new ParallelDataSourceInitializer(null, health, Duration.ofSeconds(1), false));
+        assertThrows(NullPointerException.class,
+                () -> new ParallelDataSourceInitializer(p -> null, null, Duration.ofSeconds(1), false));
+        assertThrows(NullPointerException.class,
+                () -> new ParallelDataSourceInitializer(p -> null, health, null, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelDataSourceInitializer(p -> null, health, Duration.ZERO, false));
+        assertThrows(NullPointerException.class,
+                () -> new ParallelDataSourceInitializer(p -> null, health, Duration.ofSeconds(1), false, null));
+    }
+
+    private static Map<String, SingleDatasourceProperties> datasources(String... names) {
+        Map<String, SingleDatasourceProperties> datasources = new LinkedHashMap<>();
+        for (String name : names) {
+            datasources.put(name, new SingleDatasourceProperties());
+        }
+        return datasources;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.multids.datasource;
+
+import com.example.multids.config.properties.PoolSizingProperties;
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class PoolSizeControllerTest {
+
+    @Test
+    void constructorRejectsInvalidSettings() {
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of());
+
+        assertThrows(NullPointerException.class, () -> new PoolSizeController(null, new PoolSizingProperties()));
+        assertThrows(NullPointerException.class, () -> new PoolSizeController(registry, null));
+        List<Consumer<PoolSizingProperties>> invalid = List.of(
+                p -> p.setInterval(Duration.ZERO),
+                p -> p.setInterval(Duration.ofSeconds(-1)),
+                p -> p.setShrinkUtilization(-0.1d),
+                p -> p.setShrinkUtilization(0.8d),
+                p -> p.setGrowUtilization(1.5d),
+                p -> p.setStableIntervals(0));
+        for (Consumer<PoolSizingProperties> change : invalid) {
+            PoolSizingProperties properties = new PoolSizingProperties();
+            change.accept(properties);
+            assertThrows(IllegalArgumentException.class, () -> new PoolSizeController(registry, properties));
+        }
+        PoolSizingProperties missingInterval = new PoolSizingProperties();
+        missingInterval.setInterval(null);
+        assertThrows(NullPointerException.class, () -> new PoolSizeController(registry, missingInterval));
+    }
+
+    @Test
+    void growsAHotPoolOnlyAfterStableIntervalsAndWithinItsMaximum() {
+        ResizableFactory factory = new ResizableFactory(10);
+        SingleDatasourceProperties properties = properties(10);
+        properties.setAdaptiveMaximumPoolSize(16);
+        PoolSizeController controller = controller(managed("primary", properties, factory));
+        factory.active = 9;
+
+        controller.runOnce();
+        controller.runOnce();
+        assertEquals(List.of(), factory.resizes);
+
+        controller.runOnce();
+        assertEquals(List.of("16/16"), factory.resizes);
+
+        factory.active = 16;
+        controller.runOnce();
+        controller.runOnce();
+        controller.runOnce();
+        assertEquals(List.of("16/16"), factory.resizes);
+    }
+
+    @Test
+    void growsAtOnceWhenBorrowersAreWaiting() {
+        ResizableFactory factory = new ResizableFactory(4);
+        SingleDatasourceProperties properties = properties(4);
+        properties.setMinimumIdle(2);
+        properties.setAdaptiveMaximumPoolSize(32);
+        PoolSizeController controller = controller(managed("standby", properties, factory));
+        factory.active = 4;
+        factory.awaiting = 6;
+
+        controller.runOnce();
+        controller.runOnce();
+
+        assertEquals(List.of("8/2", "16/2"), factory.resizes);
+    }
+
+    @Test
+    void shrinksAnIdlePoolStepByStepDownToItsMinimum() {
+        ResizableFactory factory = new ResizableFactory(10);
+        SingleDatasourceProperties properties = properties(10);
+        properties.setAdaptiveMinimumPoolSize(4);
+        PoolSizeController controller = controller(managed("standby", properties, factory));
+
+        for (int i = 0; i < 9; i++) {
+            controller.runOnce();
+        }
+
+        assertEquals(List.of("5/5", "4/4"), factory.resizes);
+    }
+
+    @Test
+    void utilizationBetweenThresholdsResetsTheTrend() {
+        ResizableFactory factory = new ResizableFactory(10);
+        SingleDatasourceProperties properties = properties(10);
+        properties.setAdaptiveMaximumPoolSize(20);
+        PoolSizeController controller = controller(managed("primary", properties, factory));
+
+        factory.active = 9;
+        controller.runOnce();
+        controller.runOnce();
+        factory.active = 5;
+        controller.runOnce();
+        factory.active = 9;
+        controller.runOnce();
+        controller.runOnce();
+        assertEquals(List.of(), factory.resizes);
+
+        factory.active = 0;
+        controller.runOnce();
+        factory.active = 9;
+        controller.runOnce();
+        controller.runOnce();
+        assertEquals(List.of(), factory.resizes);
+
+        controller.runOnce();
+        assertEquals(List.of("20/20"), factory.resizes);
+    }
+
+    @Test
+    void releasesAnUnhealthyPoolToItsMinimumAtOnce() {
+        ResizableFactory factory = new ResizableFactory(10);
+        SingleDatasourceProperties properties = properties(10);
+        properties.setMinimumIdle(3);
+        ManagedDataSource primary = managed("primary", properties, factory);
+        PoolSizeController controller = controller(primary);
+        primary.markUnhealthy();
+
+        controller.runOnce();
+        controller.runOnce();
+
+        assertEquals(List.of("1/1"), factory.resizes);
+    }
+
+    @Test
+    void skipsPoolsWithoutUsageAndKeepsGoingAfterFailures() {
+        ResizableFactory unsized = new ResizableFactory(10);
+        unsized.resizable = false;
+        ResizableFactory sized = new ResizableFactory(10);
+        SingleDatasourceProperties lazy = properties(10);
+        lazy.setLazy(true);
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("lazy", new ManagedDataSource("lazy", lazy, new ResizableFactory(10), (d, q) -> true));
+        datasources.put("broken", managed("broken", properties(10), new ResizableFactory(10) {
+            @Override
+            public Optional<PoolUsage> usage(DataSource dataSource) {
+                throw new IllegalStateException("metrics unavailable");
+            }
+        }));
+        datasources.put("fixed", managed("fixed", properties(10), unsized));
+        datasources.put("sized", managed("sized", properties(10), sized));
+        PoolSizeController controller = new PoolSizeController(
+                new MultiDataSourceRegistry(datasources), new PoolSizingProperties());
+
+        for (int i = 0; i < 3; i++) {
+            controller.runOnce();
+        }
+
+        assertFalse(datasources.get("lazy").isMaterialized());
+        assertEquals(List.of(), unsized.resizes);
+        assertEquals(List.of("5/5"), sized.resizes);
+    }
+
+    @Test
+    void startsOnceAndStopsOnClose() {
+        PoolSizeController controller = new PoolSizeController(
+                new MultiDataSourceRegistry(Map.of()), new PoolSizingProperties());
+        assertFalse(controller.isRunning());
+
+        controller.start();
+        controller.start();
+        assertTrue(controller.isRunning());
+
+        controller.close();
+        assertFalse(controller.isRunning());
+    }
+
+    private static PoolSizeController controller(ManagedDataSource dataSource) {
+        return new PoolSizeController(
+                new MultiDataSourceRegistry(Map.of(dataSource.getName(), dataSource)), new PoolSizingProperties());
+    }
+
+    private static ManagedDataSource managed(String name, SingleDatasourceProperties properties, DataSourceFactory factory) {
+        return new ManagedDataSource(name, properties, factory, (d, q) -> true);
+    }
+
+    private static SingleDatasourceProperties properties(int maximumPoolSize) {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(maximumPoolSize);
+        return properties;
+    }
+
+    private static class ResizableFactory implements DataSourceFactory {
+        private final List<String> resizes = new ArrayList<>();
+        private volatile int size;
+        private volatile int active;
+        private volatile int awaiting;
+        private volatile boolean resizable = true;
+
+        private ResizableFactory(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public DataSource create(SingleDatasourceProperties properties) {
+            return mock(DataSource.class);
+        }
+
+        @Override
+        public Optional<PoolUsage> usage(DataSource dataSource) {
+            return Optional.of(new PoolUsage(active, size - active, awaiting, size));
+        }
+
+        @Override
+        public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+            if (!resizable) {
+                return false;
+            }
+            resizes.add(maximumPoolSize + "/" + minimumIdle);
+            size = maximumPoolSize;
+            return true;
+        }
+    }
+}
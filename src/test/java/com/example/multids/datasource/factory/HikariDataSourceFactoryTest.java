@@ -2,8 +2,16 @@ package com.example.multids.datasource.factory;
 
 import com.example.multids.config.properties.SingleDatasourceProperties;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.util.Optional;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
 
 class HikariDataSourceFactoryTest {
@@ -24,8 +32,123 @@ class HikariDataSourceFactoryTest {
             assertEquals("sa", dataSource.getUsername());
             assertEquals("p", dataSource.getPassword());
             assertEquals(7, dataSource.getMaximumPoolSize());
+            assertEquals(-1, dataSource.getInitializationFailTimeout());
         } finally {
             dataSource.close();
         }
     }
+
+    @Test
+    void appliesMinimumIdleAndStartsWithoutReachableDatabase() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(4);
+        properties.setMinimumIdle(2);
+
+        HikariDataSource dataSource = (HikariDataSource) factory.create(properties);
+        try {
+            assertEquals(2, dataSource.getMinimumIdle());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void createsPoolsTrimmedToABudgetedSize() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(10);
+        properties.setMinimumIdle(5);
+
+        HikariDataSource dataSource = (HikariDataSource) factory.create(properties, 3);
+        try {
+            assertEquals(3, dataSource.getMaximumPoolSize());
+            assertEquals(3, dataSource.getMinimumIdle());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void softEvictsOpenHikariPoolsOnly() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:evict");
+        properties.setUsername("sa");
+
+        HikariDataSource dataSource = (HikariDataSource) factory.create(properties);
+        try {
+            assertTrue(factory.softEvict(dataSource));
+        } finally {
+            dataSource.close();
+        }
+        assertFalse(factory.softEvict(dataSource));
+        assertFalse(factory.softEvict(mock(DataSource.class)));
+    }
+
+    @Test
+    void reportsUsageOfOpenHikariPoolsOnly() throws Exception {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:usage");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(3);
+        properties.setMinimumIdle(0);
+
+        HikariDataSource dataSource = (HikariDataSource) factory.create(properties);
+        try (Connection ignored = dataSource.getConnection()) {
+            PoolUsage usage = factory.usage(dataSource).orElseThrow();
+
+            assertEquals(1, usage.active());
+            assertEquals(0, usage.awaiting());
+            assertEquals(3, usage.maximumPoolSize());
+        } finally {
+            dataSource.close();
+        }
+        assertEquals(Optional.empty(), factory.usage(dataSource));
+        assertEquals(Optional.empty(), factory.usage(mock(DataSource.class)));
+    }
+
+    @Test
+    void resizesOpenHikariPoolsInBothDirections() {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:resize");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(4);
+        properties.setMinimumIdle(2);
+
+        HikariDataSource dataSource = (HikariDataSource) factory.create(properties);
+        try {
+            assertTrue(factory.resize(dataSource, 8, 8));
+            assertEquals(8, dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+            assertEquals(8, dataSource.getHikariConfigMXBean().getMinimumIdle());
+
+            assertTrue(factory.resize(dataSource, 2, 1));
+            assertEquals(2, dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+            assertEquals(1, dataSource.getHikariConfigMXBean().getMinimumIdle());
+            assertEquals(2, factory.usage(dataSource).orElseThrow().maximumPoolSize());
+        } finally {
+            dataSource.close();
+        }
+        assertFalse(factory.resize(dataSource, 4, 4));
+        assertFalse(factory.resize(mock(DataSource.class), 4, 4));
+    }
+
+    @Test
+    void defaultFactoriesRefuseToSizeReportOrResize() {
+        DataSource created = mock(DataSource.class);
+        DataSourceFactory plain = p -> created;
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setMaximumPoolSize(4);
+
+        assertSame(created, plain.create(properties, 4));
+        IllegalStateException sized = assertThrows(IllegalStateException.class, () -> plain.create(properties, 2));
+        assertTrue(sized.getMessage().endsWith(" cannot create a pool of 2 connections instead of the configured 4"));
+        IllegalStateException usage =
+                assertThrows(IllegalStateException.class, () -> plain.usage(mock(DataSource.class)));
+        assertTrue(usage.getMessage().endsWith(" does not report pool usage"));
+        IllegalStateException resized =
+                assertThrows(IllegalStateException.class, () -> plain.resize(mock(DataSource.class), 4, 4));
+        assertTrue(resized.getMessage().endsWith(" cannot resize pools at runtime"));
+    }
 }
@@ -0,0 +1,85 @@
+package com.example.multids.datasource.fault;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+public class FaultInjectingDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource delegate;
+    private final FaultInjection faults;
+
+    public FaultInjectingDataSource(DataSource delegate, FaultInjection faults) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate is required");
+        this.faults = Objects.requireNonNull(faults, "faults are required");
+    }
+
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    public FaultInjection getFaults() {
+        return faults;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        faults.beforeBorrow();
+        return delegate.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        faults.beforeBorrow();
+        return delegate.getConnection(username, password);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.multids.datasource.fault;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.Optional;
+import javax.sql.DataSource;
+
+public class FaultInjectingDataSourceFactory implements DataSourceFactory {
+
+    private final DataSourceFactory delegate;
+    private final FaultInjection faults;
+    private volatile SingleDatasourceProperties lastCreated;
+
+    public FaultInjectingDataSourceFactory(DataSourceFactory delegate) {
+        this(delegate, new FaultInjection());
+    }
+
+    public FaultInjectingDataSourceFactory(DataSourceFactory delegate, FaultInjection faults) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate is required");
+        this.faults = Objects.requireNonNull(faults, "faults are required");
+    }
+
+    public FaultInjection faults() {
+        return faults;
+    }
+
+    @Override
+    public DataSource create(SingleDatasourceProperties properties) {
+        lastCreated = properties;
+        return new FaultInjectingDataSource(delegate.create(properties), faults);
+    }
+
+    @Override
+    public DataSource create(SingleDatasourceProperties properties, int maximumPoolSize) {
+        lastCreated = properties;
+        return new FaultInjectingDataSource(delegate.create(properties, maximumPoolSize), faults);
+    }
+
+    @Override
+    public boolean softEvict(DataSource dataSource) {
+        return delegate.softEvict(unwrapped(dataSource));
+    }
+
+    @Override
+    public Optional<PoolUsage> usage(DataSource dataSource) {
+        return delegate.usage(unwrapped(dataSource));
+    }
+
+    @Override
+    public boolean resize(DataSource dataSource, int maximumPoolSize, int minimumIdle) {
+        return delegate.resize(unwrapped(dataSource), maximumPoolSize, minimumIdle);
+    }
+
+    // Refuses new borrows and, for H2, shuts the database down so connections already pooled break too.
+    public void kill() {
+        faults.kill();
+        SingleDatasourceProperties properties = lastCreated;
+        if (properties != null && properties.getUrl() != null && properties.getUrl().startsWith("jdbc:h2:")) {
+            shutdownH2(properties);
+        }
+    }
+
+    public void revive() {
+        faults.revive();
+    }
+
+    private static DataSource unwrapped(DataSource dataSource) {
+        return dataSource instanceof FaultInjectingDataSource injecting ? injecting.getDelegate() : dataSource;
+    }
+
+    private static void shutdownH2(SingleDatasourceProperties properties) {
+        try (Connection connection = DriverManager.getConnection(
+                properties.getUrl(), properties.getUsername(), properties.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not shut down H2 database " + properties.getUrl(), ex);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.multids.datasource.fault;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.factory.DataSourceFactory;
+import com.example.multids.datasource.factory.HikariDataSourceFactory;
+import com.example.multids.datasource.factory.PoolUsage;
+import com.example.multids.datasource.health.JdbcDataSourceHealthStrategy;
+import com.example.multids.routing.HealingRoutingDataSource;
+import com.example.multids.routing.RoutingObserver;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.SequencedMap;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class FaultInjectingDataSourceFactoryTest {
+
+    @Test
+    void constructorRejectsNullArguments() {
+        DataSourceFactory delegate = p -> mock(DataSource.class);
+
+        assertThrows(NullPointerException.class, () -> new FaultInjectingDataSourceFactory(null));
+        assertThrows(NullPointerException.class, () -> new FaultInjectingDataSourceFactory(delegate, null));
+    }
+
+    @Test
+    void everyCreatedPoolSharesTheFaults() throws Exception {
+        FaultInjectingDataSourceFactory factory = new FaultInjectingDataSourceFactory(p -> mock(DataSource.class));
+        FaultInjectingDataSource first = (FaultInjectingDataSource) factory.create(new SingleDatasourceProperties());
+        FaultInjectingDataSource second = (FaultInjectingDataSource) factory.create(new SingleDatasourceProperties());
+
+        factory.kill();
+
+        assertSame(factory.faults(), first.getFaults());
+        assertSame(factory.faults(), second.getFaults());
+        assertThrows(SQLException.class, first::getConnection);
+        assertThrows(SQLException.class, second::getConnection);
+
+        factory.revive();
+        assertFalse(factory.faults().isKilled());
+    }
+
+    @Test
+    void softEvictsTheWrappedPool() {
+        DataSource pool = mock(DataSource.class);
+        DataSourceFactory delegate = mock(DataSourceFactory.class);
+        when(delegate.create(any())).thenReturn(pool);
+        when(delegate.softEvict(pool)).thenReturn(true);
+        FaultInjectingDataSourceFactory factory = new FaultInjectingDataSourceFactory(delegate);
+
+        assertTrue(factory.softEvict(factory.create(new SingleDatasourceProperties())));
+        assertTrue(factory.softEvict(pool));
+    }
+
+    @Test
+    void forwardsSizingUsageAndResizeToTheWrappedPool() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        PoolUsage usage = new PoolUsage(1, 2, 0, 3);
+        DataSourceFactory delegate = mock(DataSourceFactory.class);
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        when(delegate.create(properties, 3)).thenReturn(pool);
+        when(delegate.usage(pool)).thenReturn(Optional.of(usage));
+        when(delegate.resize(pool, 5, 2)).thenReturn(true);
+        FaultInjectingDataSourceFactory factory = new FaultInjectingDataSourceFactory(delegate);
+
+        FaultInjectingDataSource created = (FaultInjectingDataSource) factory.create(properties, 3);
+
+        assertSame(pool, created.getDelegate());
+        assertEquals(Optional.of(usage), factory.usage(created));
+        assertTrue(factory.resize(created, 5, 2));
+        assertTrue(factory.resize(pool, 5, 2));
+        factory.kill();
+        assertThrows(SQLException.class, created::getConnection);
+    }
+
+    @Test
+    void killShutsDownTheH2DatabaseUnderPooledConnections() throws Exception {
+        FaultInjectingDataSourceFactory factory = new FaultInjectingDataSourceFactory(new HikariDataSourceFactory());
+        FaultInjectingDataSource dataSource = (FaultInjectingDataSource) factory.create(h2("fault-kill"));
+        try (Connection pooled = dataSource.getConnection()) {
+            factory.kill();
+
+            assertThrows(SQLException.class, () -> execute(pooled, "SELECT 1"));
+            assertThrows(SQLException.class, dataSource::getConnection);
+        } catch (SQLException ignored) {
+            // Returning a connection to the pool after its database died may fail.
+        } finally {
+            factory.revive();
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void killFailsWhenTheH2DatabaseCannotBeReached() {
+        SingleDatasourceProperties properties = h2("fault-unreachable");
+        properties.setUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        FaultInjectingDataSourceFactory factory = new FaultInjectingDataSourceFactory(p -> mock(DataSource.class));
+        factory.create(properties);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, factory::kill);
+
+        assertInstanceOf(SQLException.class, thrown.getCause());
+        assertTrue(factory.faults().isKilled());
+    }
+
+    @Test
+    void routerFailsOverToTheSecondaryAndBackWithinTheFailoverTimeout() throws Exception {
+        FaultInjectingDataSourceFactory primaryFactory =
+                new FaultInjectingDataSourceFactory(new HikariDataSourceFactory());
+        ManagedDataSource primary = new ManagedDataSource(
+                "primary", h2("fault-primary"), primaryFactory, new JdbcDataSourceHealthStrategy());
+        ManagedDataSource secondary = new ManagedDataSource(
+                "secondary", h2("fault-secondary"), new HikariDataSourceFactory(), new JdbcDataSourceHealthStrategy());
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", primary);
+        datasources.put("secondary", secondary);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(datasources);
+        LastRouted observer = new LastRouted();
+        routing.setObserver(observer);
+        try {
+            routing.getConnection().close();
+            assertEquals("primary", observer.key);
+
+            primaryFactory.kill();
+            long killed = System.nanoTime();
+            routing.getConnection().close();
+            Duration failover = Duration.ofNanos(System.nanoTime() - killed);
+
+            assertEquals("secondary", observer.key);
+            assertTrue(observer.failover);
+            assertFalse(primary.isMarkedHealthy());
+            assertTrue(failover.compareTo(routing.getFailoverTimeout()) < 0, "failover took " + failover);
+
+            primaryFactory.revive();
+            long revived = System.nanoTime();
+            assertTrue(primary.healIfNeeded());
+            routing.getConnection().close();
+            Duration failback = Duration.ofNanos(System.nanoTime() - revived);
+
+            assertEquals("primary", observer.key);
+            assertTrue(failback.compareTo(routing.getHealTimeout()) < 0, "failback took " + failback);
+        } finally {
+            ((AutoCloseable) primary.current()).close();
+            ((AutoCloseable) secondary.current()).close();
+        }
+    }
+
+    private static SingleDatasourceProperties h2(String name) {
+        SingleDatasourceProperties properties = new SingleDatasourceProperties();
+        properties.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setMaximumPoolSize(2);
+        return properties;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static final class LastRouted implements RoutingObserver {
+        private volatile String key;
+        private volatile boolean failover;
+
+        @Override
+        public void routed(String key, boolean readOnly, boolean failover) {
+            this.key = key;
+            this.failover = failover;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.multids.datasource.fault;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class FaultInjectingDataSourceTest {
+
+    private final DataSource delegate = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final FaultInjection faults = new FaultInjection();
+    private final FaultInjectingDataSource dataSource = new FaultInjectingDataSource(delegate, faults);
+
+    @Test
+    void constructorRejectsNullArguments() {
+        assertThrows(NullPointerException.class, () -> new FaultInjectingDataSource(null, faults));
+        assertThrows(NullPointerException.class, () -> new FaultInjectingDataSource(delegate, null));
+    }
+
+    @Test
+    void passesBorrowsThroughWithoutFaults() throws Exception {
+        when(delegate.getConnection()).thenReturn(connection);
+        when(delegate.getConnection("u", "p")).thenReturn(connection);
+
+        assertSame(connection, dataSource.getConnection());
+        assertSame(connection, dataSource.getConnection("u", "p"));
+        assertSame(delegate, dataSource.getDelegate());
+        assertSame(faults, dataSource.getFaults());
+    }
+
+    @Test
+    void addsLatencyToEveryBorrow() throws Exception {
+        when(delegate.getConnection()).thenReturn(connection);
+        faults.setLatency(Duration.ofMillis(50));
+
+        long started = System.nanoTime();
+        dataSource.getConnection();
+
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void failsBorrowsAtTheConfiguredRate() throws Exception {
+        when(delegate.getConnection()).thenReturn(connection);
+
+        faults.setFailureRate(1.0d);
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(delegate, never()).getConnection();
+
+        faults.setFailureRate(0.0d);
+        assertSame(connection, dataSource.getConnection());
+    }
+
+    @Test
+    void hangsBorrowsUntilResumed() throws Exception {
+        when(delegate.getConnection()).thenReturn(connection);
+        faults.hang();
+        assertTrue(faults.isHung());
+
+        CompletableFuture<Connection> borrow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(borrow.isDone());
+
+        faults.resume();
+        assertSame(connection, borrow.get(5, TimeUnit.SECONDS));
+        assertFalse(faults.isHung());
+    }
+
+    @Test
+    void hungBorrowFailsWhenInterrupted() throws Exception {
+        faults.hang();
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Thread borrower = Thread.ofVirtual().start(() -> {
+            try {
+                dataSource.getConnection();
+                failure.complete(null);
+            } catch (SQLException ex) {
+                failure.complete(ex);
+            }
+        });
+        Thread.sleep(50);
+        borrower.interrupt();
+
+        Throwable thrown = failure.get(5, TimeUnit.SECONDS);
+        assertInstanceOf(SQLException.class, thrown);
+        assertInstanceOf(InterruptedException.class, thrown.getCause());
+    }
+
+    @Test
+    void killRefusesBorrowsUntilRevived() throws Exception {
+        when(delegate.getConnection()).thenReturn(connection);
+        faults.hang();
+
+        faults.kill();
+        assertTrue(faults.isKilled());
+        assertFalse(faults.isHung());
+        assertThrows(SQLNonTransientConnectionException.class, dataSource::getConnection);
+
+        faults.revive();
+        assertSame(connection, dataSource.getConnection());
+    }
+
+    @Test
+    void resetClearsEveryFault() {
+        faults.setLatency(Duration.ofSeconds(1));
+        faults.setFailureRate(0.5d);
+        faults.hang();
+        faults.kill();
+
+        faults.reset();
+
+        assertEquals(Duration.ZERO, faults.getLatency());
+        assertEquals(0.0d, faults.getFailureRate());
+        assertFalse(faults.isHung());
+        assertFalse(faults.isKilled());
+    }
+
+    @Test
+    void rejectsInvalidFaults() {
+        assertThrows(NullPointerException.class, () -> faults.setLatency(null));
+        assertThrows(IllegalArgumentException.class, () -> faults.setLatency(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> faults.setFailureRate(-0.1d));
+        assertThrows(IllegalArgumentException.class, () -> faults.setFailureRate(1.1d));
+        assertThrows(IllegalArgumentException.class, () -> faults.setFailureRate(Double.NaN));
+    }
+
+    @Test
+    void unwrapsToItselfOrTheDelegate() throws Exception {
+        when(delegate.isWrapperFor(Connection.class)).thenReturn(true);
+        when(delegate.unwrap(Connection.class)).thenReturn(connection);
+
+        assertSame(dataSource, dataSource.unwrap(FaultInjectingDataSource.class));
+        assertTrue(dataSource.isWrapperFor(FaultInjectingDataSource.class));
+        assertSame(connection, dataSource.unwrap(Connection.class));
+        assertTrue(dataSource.isWrapperFor(Connection.class));
+    }
+
+    @Test
+    void closesCloseableDelegates() throws Exception {
+        AutoCloseableDataSource closeable = mock(AutoCloseableDataSource.class);
+
+        new FaultInjectingDataSource(closeable, faults).close();
+        dataSource.close();
+
+        verify(closeable).close();
+    }
+
+    private interface AutoCloseableDataSource extends DataSource, AutoCloseable { }
+}
@@ -0,0 +1,105 @@
+package com.example.multids.datasource.fault;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Faults shared by every pool a FaultInjectingDataSourceFactory creates, so they survive pool rebuilds.
+public class FaultInjection {
+
+    private static final String CONNECTION_FAILURE = "08001";
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double failureRate;
+    private volatile CountDownLatch hang;
+    private volatile boolean killed;
+
+    public Duration getLatency() {
+        return latency;
+    }
+
+    public void setLatency(Duration latency) {
+        Objects.requireNonNull(latency, "latency is required");
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("latency must be >= 0");
+        }
+        this.latency = latency;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        if (!(failureRate >= 0.0d && failureRate <= 1.0d)) {
+            throw new IllegalArgumentException("failureRate must be between 0 and 1");
+        }
+        this.failureRate = failureRate;
+    }
+
+    public boolean isHung() {
+        return hang != null;
+    }
+
+    public synchronized void hang() {
+        if (hang == null) {
+            hang = new CountDownLatch(1);
+        }
+    }
+
+    public synchronized void resume() {
+        CountDownLatch released = hang;
+        hang = null;
+        if (released != null) {
+            released.countDown();
+        }
+    }
+
+    public boolean isKilled() {
+        return killed;
+    }
+
+    // Borrows parked by hang() are released and then refused.
+    public void kill() {
+        killed = true;
+        resume();
+    }
+
+    public void revive() {
+        killed = false;
+    }
+
+    public void reset() {
+        latency = Duration.ZERO;
+        failureRate = 0.0d;
+        revive();
+        resume();
+    }
+
+    void beforeBorrow() throws SQLException {
+        try {
+            CountDownLatch parked = hang;
+            if (parked != null) {
+                parked.await();
+            }
+            if (killed) {
+                throw new SQLNonTransientConnectionException("Injected fault: database killed", CONNECTION_FAILURE);
+            }
+            Duration delay = latency;
+            if (!delay.isZero()) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while injecting a fault", ex);
+        }
+        double rate = failureRate;
+        if (rate > 0.0d && ThreadLocalRandom.current().nextDouble() < rate) {
+            throw new SQLTransientConnectionException("Injected fault: borrow failed", CONNECTION_FAILURE);
+        }
+    }
+}
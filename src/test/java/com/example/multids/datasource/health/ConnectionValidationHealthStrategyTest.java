@@ -0,0 +1,185 @@
+package com.example.multids.datasource.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class ConnectionValidationHealthStrategyTest {
+
+    private final ConnectionValidationHealthStrategy strategy =
+            new ConnectionValidationHealthStrategy(Duration.ofSeconds(1));
+
+    @Test
+    void rejectsMissingOrNonPositiveTimeout() {
+        assertThrows(NullPointerException.class, () -> new ConnectionValidationHealthStrategy(null));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionValidationHealthStrategy(Duration.ZERO));
+        assertThrows(NullPointerException.class,
+                () -> new ConnectionValidationHealthStrategy(Duration.ofSeconds(1), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionValidationHealthStrategy(Duration.ofSeconds(1), Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void probesSaturatedPoolWithoutBorrowingFromIt() throws Exception {
+        try (HikariDataSource pool = pool("jdbc:h2:mem:validation-saturated;DB_CLOSE_DELAY=-1");
+             Connection onlyPooledConnection = pool.getConnection()) {
+            assertTrue(strategy.isHealthy(pool, null));
+            assertTrue(strategy.isHealthy(pool, null));
+
+            assertEquals(1, strategy.openProbeConnections());
+            assertEquals(1, pool.getHikariPoolMXBean().getTotalConnections());
+            assertTrue(onlyPooledConnection.isValid(1));
+        } finally {
+            strategy.close();
+        }
+        assertEquals(0, strategy.openProbeConnections());
+    }
+
+    @Test
+    void closedPoolIsUnhealthyAndDropsItsProbeConnection() {
+        HikariDataSource pool = pool("jdbc:h2:mem:validation-closed;DB_CLOSE_DELAY=-1");
+        assertTrue(strategy.isHealthy(pool, null));
+
+        pool.close();
+
+        assertFalse(strategy.isHealthy(pool, null));
+        assertEquals(0, strategy.openProbeConnections());
+    }
+
+    @Test
+    void unreachableDatabaseWithIdlePoolIsUnhealthy() {
+        try (HikariDataSource pool = pool("jdbc:h2:tcp://localhost:1/unreachable")) {
+            assertFalse(strategy.isHealthy(pool, null));
+            assertEquals(0, strategy.openProbeConnections());
+        }
+    }
+
+    @Test
+    void refusedProbeOfFullyCheckedOutPoolCountsAsBusyOnlyAfterARecentValidation() throws Exception {
+        HikariDataSource pool = saturatedPool();
+        DataSource target = pool.getDataSource();
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(1)).thenReturn(true, false);
+        when(target.getConnection()).thenThrow(new SQLException("too many connections"));
+
+        assertFalse(strategy.isHealthy(pool, null));
+
+        doReturn(connection).doThrow(new SQLException("too many connections")).when(target).getConnection();
+        assertTrue(strategy.isHealthy(pool, null));
+        assertTrue(strategy.isHealthy(pool, null));
+
+        when(pool.getHikariPoolMXBean().getActiveConnections()).thenReturn(1);
+        when(pool.getHikariPoolMXBean().getIdleConnections()).thenReturn(1);
+        assertFalse(strategy.isHealthy(pool, null));
+    }
+
+    @Test
+    void busyPoolIsNoLongerVouchedForOnceTheLivenessWindowHasPassed() throws Exception {
+        ConnectionValidationHealthStrategy shortWindow =
+                new ConnectionValidationHealthStrategy(Duration.ofSeconds(1), Duration.ZERO);
+        HikariDataSource pool = saturatedPool();
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(1)).thenReturn(true, false);
+        when(pool.getDataSource().getConnection())
+                .thenReturn(connection)
+                .thenThrow(new SQLException("too many connections"));
+
+        assertTrue(shortWindow.isHealthy(pool, null));
+        Thread.sleep(1);
+        assertFalse(shortWindow.isHealthy(pool, null));
+    }
+
+    @Test
+    void hungDatabaseWithExhaustedPoolIsUnhealthy() throws Exception {
+        HikariDataSource pool = saturatedPool();
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(1)).thenReturn(true, false);
+        when(pool.getDataSource().getConnection()).thenReturn(connection).thenAnswer(i -> {
+            Thread.sleep(1_050);
+            throw new SQLException("connect timed out");
+        });
+
+        assertTrue(strategy.isHealthy(pool, null));
+
+        assertEquals(HealthCheckResult.TIMED_OUT, strategy.check(pool, null, null));
+        assertEquals(0, strategy.openProbeConnections());
+    }
+
+    @Test
+    void probesThroughConfiguredTargetDataSource() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getDataSource()).thenReturn(target);
+        when(pool.getUsername()).thenReturn("sa");
+        when(pool.getPassword()).thenReturn("pw");
+        when(target.getConnection("sa", "pw")).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(true, false, false);
+
+        assertTrue(strategy.isHealthy(pool, null));
+        assertFalse(strategy.isHealthy(pool, null));
+        assertEquals(0, strategy.openProbeConnections());
+    }
+
+    @Test
+    void validatesPooledConnectionForOtherDataSources() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(true);
+
+        assertTrue(strategy.isHealthy(dataSource, "SELECT 1"));
+
+        when(dataSource.getConnection()).thenThrow(new IllegalStateException("boom"));
+        assertFalse(strategy.isHealthy(dataSource, "SELECT 1"));
+    }
+
+    @Test
+    void validationThatUsesTheWholeTimeoutCountsAsTimedOut() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenAnswer(i -> {
+            Thread.sleep(1_050);
+            return false;
+        });
+
+        assertEquals(HealthCheckResult.TIMED_OUT, strategy.check(dataSource, null, Duration.ofMillis(100)));
+
+        when(connection.isValid(1)).thenReturn(false);
+        assertEquals(HealthCheckResult.UNHEALTHY, strategy.check(dataSource, null, Duration.ofMinutes(1)));
+    }
+
+    // Every pooled connection checked out, with probe connections opened through a mocked target datasource.
+    private static HikariDataSource saturatedPool() {
+        HikariPoolMXBean stats = mock(HikariPoolMXBean.class);
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getDataSource()).thenReturn(mock(DataSource.class));
+        when(pool.getMaximumPoolSize()).thenReturn(2);
+        when(pool.getHikariPoolMXBean()).thenReturn(stats);
+        when(stats.getActiveConnections()).thenReturn(2);
+        return pool;
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setMaximumPoolSize(1);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.multids.datasource.health;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.time.Duration;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
 
@@ -52,4 +59,35 @@ class JdbcDataSourceHealthStrategyTest {
 
         assertFalse(strategy.isHealthy(dataSource, null));
     }
+
+    @Test
+    void boundsValidationQueryByProbeTimeout() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        assertEquals(HealthCheckResult.HEALTHY, strategy.check(dataSource, null, Duration.ofMillis(1500)));
+        verify(statement).setQueryTimeout(2);
+
+        when(statement.execute("SELECT 1")).thenThrow(new SQLTimeoutException("cancelled"));
+        assertEquals(HealthCheckResult.TIMED_OUT, strategy.check(dataSource, null, Duration.ofMillis(10)));
+        verify(statement).setQueryTimeout(1);
+
+        doThrow(new SQLException("down")).when(statement).execute("SELECT 1");
+        assertEquals(HealthCheckResult.UNHEALTHY, strategy.check(dataSource, null, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void leavesQueryTimeoutUnsetWithoutProbeTimeout() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        assertEquals(HealthCheckResult.HEALTHY, strategy.check(dataSource, "SELECT 1", null));
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
 }
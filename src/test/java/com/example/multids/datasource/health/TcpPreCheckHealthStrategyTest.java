@@ -0,0 +1,113 @@
+package com.example.multids.datasource.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class TcpPreCheckHealthStrategyTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+
+    @Test
+    void rejectsMissingDelegate() {
+        assertThrows(NullPointerException.class, () -> new TcpPreCheckHealthStrategy(null, "jdbc:h2:mem:test"));
+    }
+
+    @Test
+    void escalatesToDelegateOnceSocketConnects() throws Exception {
+        AtomicInteger delegateCalls = new AtomicInteger();
+        AtomicReference<Duration> delegateTimeout = new AtomicReference<>();
+        DataSourceHealthStrategy delegate = new DataSourceHealthStrategy() {
+            @Override
+            public boolean isHealthy(DataSource dataSource, String validationQuery) {
+                delegateCalls.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public HealthCheckResult check(DataSource dataSource, String validationQuery, Duration timeout) {
+                delegateTimeout.set(timeout);
+                return DataSourceHealthStrategy.super.check(dataSource, validationQuery, timeout);
+            }
+        };
+        try (ServerSocket database = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            TcpPreCheckHealthStrategy strategy = new TcpPreCheckHealthStrategy(
+                    delegate, "jdbc:postgresql://127.0.0.1:" + database.getLocalPort() + "/app");
+
+            assertEquals(HealthCheckResult.HEALTHY, strategy.check(dataSource, "SELECT 1", Duration.ofSeconds(2)));
+            assertTrue(delegateTimeout.get().compareTo(Duration.ofSeconds(2)) <= 0);
+            assertTrue(strategy.isHealthy(dataSource, "SELECT 1"));
+        }
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void closedPortFailsWithoutTouchingJdbc() throws Exception {
+        int port;
+        try (ServerSocket database = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = database.getLocalPort();
+        }
+        AtomicInteger delegateCalls = new AtomicInteger();
+        TcpPreCheckHealthStrategy strategy = new TcpPreCheckHealthStrategy(
+                (d, q) -> delegateCalls.incrementAndGet() > 0, "jdbc:mysql://127.0.0.1:" + port + "/app");
+
+        assertEquals(HealthCheckResult.UNHEALTHY, strategy.check(dataSource, null, Duration.ofSeconds(2)));
+        assertFalse(strategy.isHealthy(dataSource, null));
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void unresolvableHostIsUnhealthy() {
+        TcpPreCheckHealthStrategy strategy = new TcpPreCheckHealthStrategy(
+                (d, q) -> true, "jdbc:postgresql://no-such-host.invalid:5432/app");
+
+        assertEquals(HealthCheckResult.UNHEALTHY, strategy.check(dataSource, null, Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void urlsWithoutNetworkEndpointGoStraightToDelegate() {
+        TcpPreCheckHealthStrategy strategy = new TcpPreCheckHealthStrategy((d, q) -> true, "jdbc:h2:mem:test");
+
+        assertEquals(HealthCheckResult.HEALTHY, strategy.check(dataSource, null, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void parsesEndpointsFromCommonJdbcUrls() {
+        assertEndpoint("db.internal", 5433, "jdbc:postgresql://db.internal:5433/app?ssl=true");
+        assertEndpoint("db.internal", 5432, "jdbc:postgresql://db.internal/app");
+        assertEndpoint("db.internal", 3306, "jdbc:mysql://user:pw@db.internal/app");
+        assertEndpoint("db.internal", 1433, "jdbc:sqlserver://db.internal;databaseName=app");
+        assertEndpoint("db.internal", 1522, "jdbc:oracle:thin:@db.internal:1522:ORCL");
+        assertEndpoint("db.internal", 1521, "jdbc:oracle:thin:@//db.internal/service");
+        assertEndpoint("localhost", 9092, "jdbc:h2:tcp://localhost/~/test");
+        assertEndpoint("::1", 5432, "jdbc:postgresql://[::1]:5432/app");
+        assertEndpoint("::1", 3306, "jdbc:mariadb://[::1]/app");
+
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf(null));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("postgresql://db/app"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:h2:mem:test"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:mysql://a:3306,b:3306/app"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:unknown://db/app"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:postgresql://db:port/app"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:postgresql://[::1/app"));
+        assertEquals(Optional.empty(), TcpPreCheckHealthStrategy.endpointOf("jdbc:postgresql:///app"));
+    }
+
+    private static void assertEndpoint(String host, int port, String url) {
+        InetSocketAddress endpoint = TcpPreCheckHealthStrategy.endpointOf(url).orElseThrow();
+        assertEquals(host, endpoint.getHostString());
+        assertEquals(port, endpoint.getPort());
+    }
+}
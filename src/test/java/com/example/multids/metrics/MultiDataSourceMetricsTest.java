@@ -0,0 +1,129 @@
+package com.example.multids.metrics;
+
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.ManagedDataSource;
+import com.example.multids.datasource.MultiDataSourceRegistry;
+import com.example.multids.routing.HealingRoutingDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class MultiDataSourceMetricsTest {
+
+    @Test
+    void recordsRoutingBorrowAndFailureMeters() throws Exception {
+        DataSource primaryPool = mock(DataSource.class);
+        DataSource replicaPool = mock(DataSource.class);
+        when(primaryPool.getConnection()).thenThrow(new SQLException("primary down"));
+        when(replicaPool.getConnection()).thenReturn(mock(Connection.class));
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", managed("primary", primaryPool));
+        datasources.put("reporting", managed("reporting", replicaPool));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(new LinkedHashMap<>(datasources));
+        routing.setTargetDataSources(new LinkedHashMap<Object, Object>(datasources));
+        routing.afterPropertiesSet();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+        new MultiDataSourceMetrics(new MultiDataSourceRegistry(datasources), routing).bindTo(meters);
+        assertEquals(1.0, meters.get("multids.routing.active").tag("datasource", "primary").gauge().value());
+
+        routing.getConnection();
+        routing.getConnection();
+
+        assertEquals(1.0, meters.get("multids.datasource.borrow.failures")
+                .tags("datasource", "primary", "exception", "SQLException").counter().count());
+        assertEquals(2, meters.get("multids.datasource.borrow").tag("datasource", "reporting").timer().count());
+        assertEquals(1.0, meters.get("multids.routing.decisions")
+                .tags("datasource", "reporting", "read-only", "false", "failover", "true").counter().count());
+        assertEquals(1.0, meters.get("multids.routing.decisions")
+                .tags("datasource", "reporting", "read-only", "false", "failover", "false").counter().count());
+        assertEquals(1.0, meters.get("multids.routing.active").tag("datasource", "reporting").gauge().value());
+    }
+
+    @Test
+    void recordsHealsAndPoolReplacements() {
+        ManagedDataSource managed = new ManagedDataSource(
+                "primary", new SingleDatasourceProperties(), p -> mock(DataSource.class), (d, q) -> false, false);
+        Map<String, ManagedDataSource> datasources = Map.of("primary", managed);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(new LinkedHashMap<>(datasources));
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MultiDataSourceMetrics(new MultiDataSourceRegistry(datasources), routing).bindTo(meters);
+
+        managed.healIfNeeded();
+
+        assertEquals(1, meters.get("multids.datasource.heal")
+                .tags("datasource", "primary", "outcome", "failed").timer().count());
+        assertEquals(1.0, meters.get("multids.datasource.pool.replacements").counter().count());
+        assertEquals(0.0, meters.get("multids.routing.active").tag("datasource", "primary").gauge().value());
+    }
+
+    @Test
+    void bindsDatasourcesAddedAtRuntime() throws Exception {
+        DataSource replicaPool = mock(DataSource.class);
+        when(replicaPool.getConnection()).thenReturn(mock(Connection.class));
+        ManagedDataSource primary = managed("primary", mock(DataSource.class));
+        ManagedDataSource replica = managed("replica", replicaPool);
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of("primary", primary));
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MultiDataSourceMetrics(registry, new HealingRoutingDataSource(new LinkedHashMap<>(registry.datasources())))
+                .bindTo(meters);
+
+        registry.update(current -> {
+            current.put("replica", replica);
+            return current;
+        });
+        replica.getConnection();
+
+        assertEquals(1, meters.get("multids.datasource.borrow").tag("datasource", "replica").timer().count());
+    }
+
+    @Test
+    void removesTheMetersOfDatasourcesTheRegistryDrops() throws Exception {
+        DataSource replicaPool = mock(DataSource.class);
+        when(replicaPool.getConnection()).thenThrow(new SQLException("replica down"));
+        ManagedDataSource primary = managed("primary", mock(DataSource.class));
+        ManagedDataSource replica = managed("replica", replicaPool);
+        Map<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", primary);
+        datasources.put("replica", replica);
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(datasources);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MultiDataSourceMetrics(registry, new HealingRoutingDataSource(new LinkedHashMap<>(registry.datasources())))
+                .bindTo(meters);
+        assertThrows(SQLException.class, replica::getConnection);
+
+        registry.update(current -> {
+            current.remove("replica");
+            return current;
+        });
+        assertThrows(Exception.class, replica::getConnection);
+
+        assertTrue(meters.find("multids.datasource.borrow").tag("datasource", "replica").meters().isEmpty());
+        assertTrue(meters.find("multids.datasource.borrow.failures").tag("datasource", "replica").meters().isEmpty());
+        assertTrue(meters.find("multids.routing.decisions").tag("datasource", "replica").meters().isEmpty());
+        assertTrue(meters.find("multids.routing.active").tag("datasource", "replica").meters().isEmpty());
+        assertEquals(1, meters.find("multids.routing.active").tag("datasource", "primary").meters().size());
+        assertEquals(4, meters.find("multids.routing.decisions").tag("datasource", "primary").meters().size());
+    }
+
+    @Test
+    void rejectsMissingCollaborators() {
+        MultiDataSourceRegistry registry = new MultiDataSourceRegistry(Map.of());
+        assertThrows(NullPointerException.class, () -> new MultiDataSourceMetrics(null, null));
+        assertThrows(NullPointerException.class, () -> new MultiDataSourceMetrics(registry, null));
+    }
+
+    private static ManagedDataSource managed(String name, DataSource pool) {
+        return new ManagedDataSource(name, new SingleDatasourceProperties(), p -> pool, (d, q) -> true);
+    }
+}
@@ -4,13 +4,12 @@ import com.example.multids.MultiDatasourceApplication;
 import com.example.multids.datasource.ManagedDataSource;
 import com.example.multids.datasource.MultiDataSourceRegistry;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
 import javax.sql.DataSource;
@@ -54,8 +53,8 @@ class HealingRoutingDataSourceIntegrationTest {
         HikariDataSource primaryDelegate = (HikariDataSource) primary.current();
         primaryDelegate.close();
 
-        assertThrows(SQLException.class, () -> querySourceName(routingDataSource));
         assertEquals("reporting", querySourceName(routingDataSource));
+        assertFalse(primary.isMarkedHealthy());
 
         assertTrue(primary.healIfNeeded());
         assertEquals("primary", querySourceName(routingDataSource));
@@ -1,20 +1,53 @@
 package com.example.multids.routing;
 
+import com.example.multids.config.properties.DatasourceRole;
+import com.example.multids.config.properties.SingleDatasourceProperties;
+import com.example.multids.datasource.CircuitOpenException;
+import com.example.multids.datasource.HealthStateListener;
+import com.example.multids.datasource.LatencyStatistics;
 import com.example.multids.datasource.ManagedDataSource;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
 
 class HealingRoutingDataSourceTest {
 
@@ -56,25 +89,11 @@ class HealingRoutingDataSourceTest {
 
     @Test
     void retriesUntilHealthyDatasourceIsFound() throws Exception {
-        ManagedDataSource primary = mock(ManagedDataSource.class);
-        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = failingDataSource("reporting down");
         ManagedDataSource analytics = mock(ManagedDataSource.class);
-        AtomicBoolean primaryHealthy = new AtomicBoolean(true);
-        AtomicBoolean reportingHealthy = new AtomicBoolean(true);
         Connection analyticsConnection = mock(Connection.class);
 
-        when(primary.isMarkedHealthy()).thenAnswer(i -> primaryHealthy.get());
-        when(primary.getConnection()).thenAnswer(i -> {
-            primaryHealthy.set(false);
-            throw new SQLException("primary down");
-        });
-
-        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
-        when(reporting.getConnection()).thenAnswer(i -> {
-            reportingHealthy.set(false);
-            throw new SQLException("reporting down");
-        });
-
         when(analytics.isMarkedHealthy()).thenReturn(true);
         when(analytics.getConnection()).thenReturn(analyticsConnection);
 
@@ -89,6 +108,7 @@ class HealingRoutingDataSourceTest {
         targets.put("analytics", analytics);
         routing.setTargetDataSources(targets);
         routing.afterPropertiesSet();
+        routing.setFailoverAttempts(1);
 
         assertThrows(SQLException.class, routing::getConnection);
         assertThrows(SQLException.class, routing::getConnection);
@@ -99,22 +119,8 @@ class HealingRoutingDataSourceTest {
 
     @Test
     void throwsWhenAllHealthyCandidatesFail() throws Exception {
-        ManagedDataSource primary = mock(ManagedDataSource.class);
-        ManagedDataSource reporting = mock(ManagedDataSource.class);
-        AtomicBoolean primaryHealthy = new AtomicBoolean(true);
-        AtomicBoolean reportingHealthy = new AtomicBoolean(true);
-
-        when(primary.isMarkedHealthy()).thenAnswer(i -> primaryHealthy.get());
-        when(primary.getConnection()).thenAnswer(i -> {
-            primaryHealthy.set(false);
-            throw new SQLException("primary down");
-        });
-
-        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
-        when(reporting.getConnection()).thenAnswer(i -> {
-            reportingHealthy.set(false);
-            throw new SQLException("reporting down");
-        });
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = failingDataSource("reporting down");
 
         SequencedMap<String, ManagedDataSource> map = mapOf(primary, reporting);
         HealingRoutingDataSource routing = new HealingRoutingDataSource(map);
@@ -123,6 +129,7 @@ class HealingRoutingDataSourceTest {
         targets.put("reporting", reporting);
         routing.setTargetDataSources(targets);
         routing.afterPropertiesSet();
+        routing.setFailoverAttempts(1);
 
         SQLException primaryFailure = assertThrows(SQLException.class, routing::getConnection);
         assertEquals("primary down", primaryFailure.getMessage());
@@ -132,6 +139,102 @@ class HealingRoutingDataSourceTest {
         assertEquals("No healthy datasource available", exhausted.getMessage());
     }
 
+    @Test
+    void failsOverInternallyToNextHealthyDatasource() throws Exception {
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = failingDataSource("reporting down");
+        ManagedDataSource analytics = markedDataSource(true);
+        Connection analyticsConnection = mock(Connection.class);
+        when(analytics.getConnection()).thenReturn(analyticsConnection);
+        SequencedMap<String, ManagedDataSource> map = mapOf(primary, reporting);
+        map.put("analytics", analytics);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(map);
+
+        assertSame(analyticsConnection, routing.getConnection());
+        assertEquals(Optional.of("analytics"), routing.getActiveDatasource());
+        assertSame(analyticsConnection, routing.getConnection());
+        verify(primary, times(1)).getConnection();
+        verify(reporting, times(1)).getConnection();
+    }
+
+    @Test
+    void failedBorrowThatKeepsTheDatasourceRoutableKeepsTheSnapshot() throws Exception {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = connectingDataSource(DatasourceRole.WRITER, mock(Connection.class));
+        when(primary.getConnection()).thenThrow(new SQLException("primary busy"));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+        RoutingSnapshot before = routing.snapshot();
+
+        routing.getConnection();
+
+        assertSame(before, routing.snapshot());
+    }
+
+    @Test
+    void surfacesLastFailureWhenAttemptBudgetIsSpent() throws Exception {
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = failingDataSource("reporting down");
+        ManagedDataSource analytics = markedDataSource(true);
+        SequencedMap<String, ManagedDataSource> map = mapOf(primary, reporting);
+        map.put("analytics", analytics);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(map);
+        routing.setFailoverAttempts(2);
+
+        SQLException failure = assertThrows(SQLException.class, routing::getConnection);
+
+        assertEquals("reporting down", failure.getMessage());
+        assertEquals("primary down", failure.getSuppressed()[0].getMessage());
+        verify(analytics, never()).getConnection();
+    }
+
+    @Test
+    void surfacesFailureWhenTimeBudgetIsSpent() throws Exception {
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        ManagedDataSource analytics = markedDataSource(true);
+        when(reporting.isMarkedHealthy()).thenReturn(true);
+        when(reporting.getConnection()).thenAnswer(i -> {
+            Thread.sleep(50);
+            throw new SQLException("reporting slow and down");
+        });
+        SequencedMap<String, ManagedDataSource> map = mapOf(primary, reporting);
+        map.put("analytics", analytics);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(map);
+        routing.setFailoverTimeout(Duration.ofMillis(20));
+
+        SQLException failure = assertThrows(SQLException.class, routing::getConnection);
+
+        assertEquals("reporting slow and down", failure.getMessage());
+        verify(analytics, never()).getConnection();
+    }
+
+    @Test
+    void reportsExhaustionWhenEveryCandidateFailsWithinBudget() throws Exception {
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = failingDataSource("reporting down");
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+
+        SQLException exhausted = assertThrows(SQLException.class, routing::getConnection);
+
+        assertEquals("No healthy datasource available", exhausted.getMessage());
+        assertEquals("reporting down", exhausted.getCause().getMessage());
+    }
+
+    @Test
+    void rejectsInvalidFailoverBudget() {
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(markedDataSource(true), markedDataSource(true)));
+
+        assertEquals(3, routing.getFailoverAttempts());
+        assertEquals(Duration.ofSeconds(5), routing.getFailoverTimeout());
+        assertThrows(IllegalArgumentException.class, () -> routing.setFailoverAttempts(0));
+        assertThrows(NullPointerException.class, () -> routing.setFailoverTimeout(null));
+        assertThrows(IllegalArgumentException.class, () -> routing.setFailoverTimeout(Duration.ZERO));
+        routing.setFailoverAttempts(5);
+        routing.setFailoverTimeout(Duration.ofSeconds(1));
+        assertEquals(5, routing.getFailoverAttempts());
+        assertEquals(Duration.ofSeconds(1), routing.getFailoverTimeout());
+    }
+
     @Test
     void getConnectionThrowsSqlExceptionWhenAllDatasourcesAreMarkedUnhealthy() {
         ManagedDataSource primary = markedDataSource(false);
@@ -177,7 +280,171 @@ class HealingRoutingDataSourceTest {
 
         assertSame(primaryConnection, actual);
         verify(primary, times(1)).healIfNeeded();
-        verify(reporting, times(1)).healIfNeeded();
+        verify(reporting, timeout(1000).times(1)).healIfNeeded();
+    }
+
+    @Test
+    void healsAllDatasourcesConcurrentlyWithinDeadline() throws Exception {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        AtomicBoolean reportingHealthy = new AtomicBoolean(false);
+        CountDownLatch primaryHang = new CountDownLatch(1);
+        Connection reportingConnection = mock(Connection.class);
+
+        when(primary.isMarkedHealthy()).thenReturn(false);
+        when(primary.healIfNeeded()).thenAnswer(i -> primaryHang.await(5, TimeUnit.SECONDS));
+        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
+        when(reporting.healIfNeeded()).thenAnswer(i -> {
+            reportingHealthy.set(true);
+            return true;
+        });
+        when(reporting.getConnection()).thenReturn(reportingConnection);
+
+        HealingRoutingDataSource routing = routingOf(primary, reporting);
+        routing.setHealTimeout(Duration.ofMillis(200));
+
+        long started = System.nanoTime();
+        Connection actual = routing.getConnection();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        primaryHang.countDown();
+
+        assertSame(reportingConnection, actual);
+        assertTrue(elapsedMillis < 2000, "heal pass should be bounded by the deadline, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void prefersHigherPriorityDatasourceThatHealsSlower() throws Exception {
+        ManagedDataSource primary = mock(ManagedDataSource.class);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        AtomicBoolean primaryHealthy = new AtomicBoolean(false);
+        AtomicBoolean reportingHealthy = new AtomicBoolean(false);
+        Connection primaryConnection = mock(Connection.class);
+
+        when(primary.isMarkedHealthy()).thenAnswer(i -> primaryHealthy.get());
+        when(primary.healIfNeeded()).thenAnswer(i -> {
+            Thread.sleep(50);
+            primaryHealthy.set(true);
+            return true;
+        });
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
+        when(reporting.healIfNeeded()).thenAnswer(i -> {
+            reportingHealthy.set(true);
+            return true;
+        });
+
+        HealingRoutingDataSource routing = routingOf(primary, reporting);
+
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void continuesHealingWhenOneDatasourceHealThrows() throws Exception {
+        ManagedDataSource primary = markedDataSource(false);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        AtomicBoolean reportingHealthy = new AtomicBoolean(false);
+        Connection reportingConnection = mock(Connection.class);
+        when(primary.healIfNeeded()).thenThrow(new IllegalStateException("boom"));
+        when(reporting.isMarkedHealthy()).thenAnswer(i -> reportingHealthy.get());
+        when(reporting.healIfNeeded()).thenAnswer(i -> {
+            reportingHealthy.set(true);
+            return true;
+        });
+        when(reporting.getConnection()).thenReturn(reportingConnection);
+
+        assertSame(reportingConnection, routingOf(primary, reporting).getConnection());
+    }
+
+    @Test
+    void rejectsNonPositiveHealTimeout() {
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(markedDataSource(true), markedDataSource(true)));
+
+        assertThrows(NullPointerException.class, () -> routing.setHealTimeout(null));
+        assertThrows(IllegalArgumentException.class, () -> routing.setHealTimeout(Duration.ZERO));
+        routing.setHealTimeout(Duration.ofSeconds(3));
+        assertEquals(Duration.ofSeconds(3), routing.getHealTimeout());
+    }
+
+    @Test
+    void failsFastWithoutHealingWhenOnDemandHealIsDisabled() {
+        ManagedDataSource primary = markedDataSource(false);
+        ManagedDataSource reporting = markedDataSource(false);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+        LinkedHashMap<Object, Object> targets = new LinkedHashMap<>();
+        targets.put("primary", primary);
+        targets.put("reporting", reporting);
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+        routing.setHealOnDemand(false);
+
+        SQLException exhausted = assertThrows(SQLException.class, routing::getConnection);
+        assertEquals("No healthy datasource available", exhausted.getMessage());
+        verify(primary, never()).healIfNeeded();
+        verify(reporting, never()).healIfNeeded();
+    }
+
+    @Test
+    void routingSnapshotIsRebuiltOnlyOnHealthTransitions() throws Exception {
+        DataSource failing = mock(DataSource.class);
+        AtomicBoolean primaryUp = new AtomicBoolean(true);
+        when(failing.getConnection()).thenAnswer(i -> {
+            if (!primaryUp.get()) {
+                throw new SQLException("primary down");
+            }
+            return mock(Connection.class);
+        });
+        ManagedDataSource primary = new ManagedDataSource("primary", new SingleDatasourceProperties(), p -> failing, (d, q) -> true);
+        ManagedDataSource reporting = new ManagedDataSource("reporting", new SingleDatasourceProperties(), p -> failing, (d, q) -> true);
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, reporting));
+
+        RoutingSnapshot initial = routing.snapshot();
+        routing.getConnection();
+        routing.getConnection();
+        assertSame(initial, routing.snapshot());
+        assertEquals("primary", routing.currentLookupKey());
+
+        primary.markUnhealthy();
+        assertEquals("reporting", routing.currentLookupKey());
+        RoutingSnapshot failedOver = routing.snapshot();
+        primary.markUnhealthy();
+        assertSame(failedOver, routing.snapshot());
+
+        primary.healIfNeeded();
+        assertEquals("primary", routing.currentLookupKey());
+        assertSame(primary, routing.targetDataSource());
+    }
+
+    @Test
+    void targetDataSourceIsUnavailableWhenNothingIsHealthy() {
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(markedDataSource(false), markedDataSource(false)));
+
+        assertTrue(routing.snapshot().exhausted());
+        assertThrows(IllegalStateException.class, routing::targetDataSource);
+    }
+
+    @Test
+    void skipsDatasourceThatDoesNotAdmitBorrow() throws Exception {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = markedDataSource(true);
+        Connection reportingConnection = mock(Connection.class);
+        when(primary.getConnection()).thenThrow(new CircuitOpenException("primary"));
+        when(reporting.getConnection()).thenReturn(reportingConnection);
+
+        assertSame(reportingConnection, routingOf(primary, reporting).getConnection());
+        verify(primary, never()).markUnhealthy();
+    }
+
+    @Test
+    void reportsExhaustionWhenNoDatasourceAdmitsBorrow() throws Exception {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = markedDataSource(true);
+        when(primary.getConnection()).thenThrow(new CircuitOpenException("primary"));
+        when(reporting.getConnection()).thenThrow(new CircuitOpenException("reporting"));
+
+        SQLException exhausted = assertThrows(SQLException.class, routingOf(primary, reporting)::getConnection);
+
+        assertEquals("No healthy datasource available", exhausted.getMessage());
+        assertTrue(exhausted.getCause() instanceof CircuitOpenException);
     }
 
     @Test
@@ -191,6 +458,546 @@ class HealingRoutingDataSourceTest {
                 () -> new TestRoutingDataSource(new LinkedHashMap<>()));
     }
 
+    @Test
+    void readOnlyBorrowsAreSpreadAcrossReaders() throws Exception {
+        Connection writerConnection = mock(Connection.class);
+        Connection firstReaderConnection = mock(Connection.class);
+        Connection secondReaderConnection = mock(Connection.class);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, writerConnection);
+        ManagedDataSource replicaOne = connectingDataSource(DatasourceRole.READER, firstReaderConnection);
+        ManagedDataSource replicaTwo = connectingDataSource(DatasourceRole.READER, secondReaderConnection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+
+        assertSame(firstReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+        assertSame(secondReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+        assertSame(firstReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+        assertSame(writerConnection, routing.getConnection());
+        assertEquals(Optional.of("primary"), routing.getActiveDatasource());
+    }
+
+    @Test
+    void readOnlyTransactionRoutesToReaders() throws Exception {
+        Connection writerConnection = mock(Connection.class);
+        Connection readerConnection = mock(Connection.class);
+        when(writerConnection.getAutoCommit()).thenReturn(true);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, writerConnection);
+        ManagedDataSource replica = connectingDataSource(DatasourceRole.READER, readerConnection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replica));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        readOnly.executeWithoutResult(status -> query(dataSource));
+        readWrite.executeWithoutResult(status -> query(dataSource));
+
+        verify(readerConnection).createStatement();
+        verify(readerConnection).setReadOnly(true);
+        verify(readerConnection).commit();
+        verify(writerConnection).createStatement();
+        verify(writerConnection, never()).setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyBorrowFallsBackToOtherReadersAndThenWriters() throws Exception {
+        Connection writerConnection = mock(Connection.class);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, writerConnection);
+        ManagedDataSource replicaOne = failingDataSource("replica one down");
+        ManagedDataSource replicaTwo = failingDataSource("replica two down");
+        when(replicaOne.getRole()).thenReturn(DatasourceRole.READER);
+        when(replicaTwo.getRole()).thenReturn(DatasourceRole.READER);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+        routing.setReaderSelectionStrategy(readers -> readers.size() - 1);
+
+        assertSame(writerConnection, RoutingHints.callReadOnly(routing::getConnection));
+        verify(replicaOne).getConnection();
+        verify(replicaTwo).getConnection();
+        assertEquals(0, routing.snapshot().readerCount());
+    }
+
+    @Test
+    void readOnlyBorrowSucceedsWhenOnlyReadersAreHealthy() throws Exception {
+        Connection readerConnection = mock(Connection.class);
+        ManagedDataSource primary = markedDataSource(false);
+        ManagedDataSource replica = connectingDataSource(DatasourceRole.READER, readerConnection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replica));
+        routing.setHealOnDemand(false);
+
+        assertSame(readerConnection, RoutingHints.callReadOnly(routing::getConnection));
+        SQLException writeFailure = assertThrows(SQLException.class, routing::getConnection);
+        assertEquals("No healthy datasource available", writeFailure.getMessage());
+        verify(replica).getConnection();
+    }
+
+    @Test
+    void rejectsNullReaderSelectionStrategy() {
+        HealingRoutingDataSource routing = routingOf(markedDataSource(true), markedDataSource(true));
+
+        assertTrue(routing.getReaderSelectionStrategy() instanceof RoundRobinReaderSelectionStrategy);
+        assertThrows(NullPointerException.class, () -> routing.setReaderSelectionStrategy(null));
+    }
+
+    @Test
+    void demotesDatasourceSlowerThanItsPeersAndPromotesItOnRecovery() throws Exception {
+        AtomicLong primaryLatency = new AtomicLong(Duration.ofMillis(300).toNanos());
+        ManagedDataSource primary = timedDataSource(DatasourceRole.WRITER, primaryLatency);
+        ManagedDataSource replicaOne = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(20).toNanos()));
+        ManagedDataSource replicaTwo = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(30).toNanos()));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+
+        routing.evaluateLatency();
+
+        assertEquals(Set.of("primary"), routing.getDemotedDatasources());
+        assertEquals(Optional.of("replica-one"), routing.getActiveDatasource());
+        assertEquals("primary", routing.snapshot().key(2));
+        verify(primary, timeout(1000)).getConnection();
+
+        primaryLatency.set(Duration.ofMillis(25).toNanos());
+        routing.evaluateLatency();
+
+        assertEquals(Set.of(), routing.getDemotedDatasources());
+        assertEquals(Optional.of("primary"), routing.getActiveDatasource());
+    }
+
+    @Test
+    void comparesReadersOnlyWithOtherReaders() throws Exception {
+        Connection slowReaderConnection = mock(Connection.class);
+        Connection fastReaderConnection = mock(Connection.class);
+        ManagedDataSource primary = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(1).toNanos()));
+        ManagedDataSource replicaOne = timedDataSource(DatasourceRole.READER, new AtomicLong(Duration.ofMillis(90).toNanos()));
+        ManagedDataSource replicaTwo = timedDataSource(DatasourceRole.READER, new AtomicLong(Duration.ofMillis(20).toNanos()));
+        when(replicaOne.getConnection()).thenReturn(slowReaderConnection);
+        when(replicaTwo.getConnection()).thenReturn(fastReaderConnection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+
+        routing.evaluateLatency();
+
+        assertEquals(Set.of("replica-one"), routing.getDemotedDatasources());
+        assertEquals(1, routing.snapshot().readers().size());
+        assertEquals(2, routing.snapshot().readerCount());
+        assertSame(fastReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+        assertSame(fastReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+    }
+
+    @Test
+    void demotedReaderIsTriedBeforeWritersWhenPreferredReadersFail() throws Exception {
+        Connection demotedReaderConnection = mock(Connection.class);
+        ManagedDataSource primary = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(1).toNanos()));
+        ManagedDataSource replicaOne = timedDataSource(DatasourceRole.READER, new AtomicLong(Duration.ofMillis(90).toNanos()));
+        ManagedDataSource replicaTwo = timedDataSource(DatasourceRole.READER, new AtomicLong(Duration.ofMillis(20).toNanos()));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+        routing.evaluateLatency();
+        verify(replicaOne, timeout(1000)).getConnection();
+        when(replicaOne.getConnection()).thenReturn(demotedReaderConnection);
+        when(replicaTwo.getConnection()).thenThrow(new SQLException("replica two down"));
+
+        assertSame(demotedReaderConnection, RoutingHints.callReadOnly(routing::getConnection));
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void doesNotDemoteBelowLatencyFloorOrWithoutPeers() {
+        ManagedDataSource primary = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(4).toNanos()));
+        ManagedDataSource reporting = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofNanos(100).toNanos()));
+        ManagedDataSource replica = timedDataSource(DatasourceRole.READER, new AtomicLong(Duration.ofSeconds(2).toNanos()));
+        SequencedMap<String, ManagedDataSource> datasources = mapOf(primary, reporting);
+        datasources.put("replica", replica);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(datasources);
+
+        routing.evaluateLatency();
+        assertEquals(Set.of(), routing.getDemotedDatasources());
+
+        routing.setLatencyFloor(Duration.ZERO);
+        routing.evaluateLatency();
+        assertEquals(Set.of("primary"), routing.getDemotedDatasources());
+    }
+
+    @Test
+    void borrowsTriggerLatencyEvaluationWhenEnabled() throws Exception {
+        Connection fastConnection = mock(Connection.class);
+        ManagedDataSource primary = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(300).toNanos()));
+        ManagedDataSource reporting = timedDataSource(DatasourceRole.WRITER, new AtomicLong(Duration.ofMillis(10).toNanos()));
+        when(reporting.getConnection()).thenReturn(fastConnection);
+        HealingRoutingDataSource routing = routingOf(primary, reporting);
+
+        routing.setLatencyEvaluationInterval(Duration.ofHours(1));
+        routing.setLatencyRouting(true);
+        assertTrue(routing.isLatencyRouting());
+
+        assertSame(fastConnection, routing.getConnection());
+        assertSame(fastConnection, routing.getConnection());
+        assertEquals(Set.of("primary"), routing.getDemotedDatasources());
+        verify(primary, timeout(1000).times(1)).getConnection();
+
+        routing.setLatencyRouting(false);
+        assertEquals(Set.of(), routing.getDemotedDatasources());
+        assertEquals(Optional.of("primary"), routing.getActiveDatasource());
+    }
+
+    @Test
+    void rejectsInvalidLatencySettings() {
+        HealingRoutingDataSource routing = routingOf(markedDataSource(true), markedDataSource(true));
+
+        assertEquals(3.0d, routing.getLatencyDemotionMultiple());
+        assertEquals(Duration.ofMillis(5), routing.getLatencyFloor());
+        assertEquals(Duration.ofSeconds(1), routing.getLatencyEvaluationInterval());
+        assertThrows(IllegalArgumentException.class, () -> routing.setLatencyDemotionMultiple(1.0d));
+        assertThrows(IllegalArgumentException.class, () -> routing.setLatencyDemotionMultiple(Double.NaN));
+        assertThrows(NullPointerException.class, () -> routing.setLatencyFloor(null));
+        assertThrows(IllegalArgumentException.class, () -> routing.setLatencyFloor(Duration.ofMillis(-1)));
+        assertThrows(NullPointerException.class, () -> routing.setLatencyEvaluationInterval(null));
+        assertThrows(IllegalArgumentException.class, () -> routing.setLatencyEvaluationInterval(Duration.ZERO));
+
+        routing.setLatencyDemotionMultiple(2.0d);
+        assertEquals(2.0d, routing.getLatencyDemotionMultiple());
+    }
+
+    @Test
+    void spreadsWritesAcrossDatasourcesInTheSameTier() throws Exception {
+        Connection primaryConnection = mock(Connection.class);
+        Connection reportingConnection = mock(Connection.class);
+        ManagedDataSource primary = tieredDataSource(0, 5, primaryConnection);
+        ManagedDataSource reporting = tieredDataSource(0, 0, reportingConnection);
+        ManagedDataSource analytics = tieredDataSource(1, 0, mock(Connection.class));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting, analytics));
+
+        assertSame(reportingConnection, routing.getConnection());
+        when(primary.getLeasedConnections()).thenReturn(0);
+        when(reporting.getLeasedConnections()).thenReturn(5);
+        assertSame(primaryConnection, routing.getConnection());
+        verify(analytics, never()).getConnection();
+    }
+
+    @Test
+    void triesRestOfTierBeforeFallingThroughToNextTier() throws Exception {
+        Connection reportingConnection = mock(Connection.class);
+        Connection analyticsConnection = mock(Connection.class);
+        ManagedDataSource primary = tieredDataSource(0, 0, null);
+        ManagedDataSource reporting = tieredDataSource(0, 3, reportingConnection);
+        ManagedDataSource analytics = tieredDataSource(1, 0, analyticsConnection);
+        when(primary.getConnection()).thenThrow(new SQLException("primary down"));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting, analytics));
+
+        assertSame(reportingConnection, routing.getConnection());
+
+        when(reporting.getConnection()).thenThrow(new SQLException("reporting down"));
+        assertSame(analyticsConnection, routing.getConnection());
+    }
+
+    @Test
+    void explicitPriorityOrdersTiersAheadOfConfiguredPosition() {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = markedDataSource(true);
+        ManagedDataSource analytics = markedDataSource(true);
+        when(analytics.getPriority()).thenReturn(OptionalInt.of(-1));
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, reporting, analytics));
+
+        assertEquals("replica-two", routing.currentLookupKey());
+        assertSame(analytics, routing.targetDataSource());
+        assertEquals(3, routing.snapshot().size());
+        assertEquals(2, routing.snapshot().tierOf(2));
+    }
+
+    @Test
+    void reportsRoutingDecisionsAndExhaustionToObserver() throws Exception {
+        ManagedDataSource primary = failingDataSource("primary down");
+        ManagedDataSource reporting = connectingDataSource(DatasourceRole.WRITER, mock(Connection.class));
+        HealingRoutingDataSource routing = routingOf(primary, reporting);
+        List<String> events = new ArrayList<>();
+        routing.setObserver(new RoutingObserver() {
+            @Override
+            public void routed(String key, boolean readOnly, boolean failover) {
+                events.add(key + (failover ? " after failover" : ""));
+            }
+
+            @Override
+            public void exhausted(boolean readOnly) {
+                events.add("exhausted");
+            }
+        });
+
+        assertEquals(Optional.of("primary"), routing.getActiveDatasource());
+        routing.getConnection();
+        routing.getConnection();
+        assertEquals(Optional.of("reporting"), routing.getActiveDatasource());
+
+        when(reporting.isMarkedHealthy()).thenReturn(false);
+        routing.setHealOnDemand(false);
+        routing.refreshSnapshot();
+        assertThrows(SQLException.class, routing::getConnection);
+
+        assertEquals(List.of("reporting after failover", "reporting", "exhausted"), events);
+        assertEquals(Optional.empty(), routing.getActiveDatasource());
+        assertThrows(NullPointerException.class, () -> routing.setObserver(null));
+    }
+
+    @Test
+    void reportsExhaustedFailoverBudgetToObserver() throws Exception {
+        HealingRoutingDataSource routing = routingOf(failingDataSource("primary down"), failingDataSource("down"));
+        AtomicLong exhausted = new AtomicLong();
+        routing.setObserver(new RoutingObserver() {
+            @Override
+            public void exhausted(boolean readOnly) {
+                exhausted.incrementAndGet();
+            }
+        });
+
+        routing.setFailoverAttempts(1);
+        assertThrows(SQLException.class, routing::getConnection);
+        assertEquals(1, exhausted.get());
+    }
+
+    @Test
+    void emitsFlightRecorderEventsWhenRoutingIsExhausted() throws Exception {
+        HealingRoutingDataSource failing = routingOf(failingDataSource("primary down"), failingDataSource("down"));
+        failing.setFailoverAttempts(1);
+        ManagedDataSource primary = markedDataSource(false);
+        ManagedDataSource reporting = markedDataSource(false);
+        HealingRoutingDataSource down = routingOf(primary, reporting);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(RoutingExhaustedEvent.class);
+            recording.enable(OnDemandHealEvent.class);
+            recording.start();
+            assertThrows(SQLException.class, failing::getConnection);
+            assertThrows(SQLException.class, down::getConnection);
+            recording.stop();
+            Path file = Files.createTempFile("routing", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<String> summary = events.stream()
+                .sorted(Comparator.comparing(RecordedEvent::getEndTime))
+                .map(e -> e.getEventType().getName() + ":" + e.getString("datasource") + ":" + e.getString("outcome"))
+                .toList();
+        assertEquals(List.of(
+                "com.example.multids.RoutingExhausted:primary:failover-budget-spent",
+                "com.example.multids.OnDemandHeal:null:exhausted",
+                "com.example.multids.RoutingExhausted:null:no-healthy-datasource"), summary);
+        assertFalse(EventType.getEventType(RoutingExhaustedEvent.class).isEnabled());
+    }
+
+    @Test
+    void setDatasourcesReroutesWhileEarlierSnapshotsStayIntact() {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = markedDataSource(true);
+        ManagedDataSource replica = markedDataSource(true);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+        RoutingSnapshot inFlight = routing.snapshot();
+        SequencedMap<String, ManagedDataSource> replacement = new LinkedHashMap<>();
+        replacement.put("replica", replica);
+        replacement.put("reporting", reporting);
+
+        routing.setDatasources(replacement);
+
+        assertEquals("replica", routing.determineCurrentLookupKey());
+        assertSame(replacement, routing.getDatasources());
+        assertEquals(Set.of("replica", "reporting"), routing.getResolvedDataSources().keySet());
+        assertEquals("primary", inFlight.key(0));
+        verify(reporting, times(1)).addHealthStateListener(any());
+        verify(replica).addHealthStateListener(any());
+    }
+
+    @Test
+    void setDatasourcesStopsListeningToRetiredDatasources() {
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = markedDataSource(true);
+        List<HealthStateListener> listeners = new ArrayList<>();
+        doAnswer(i -> listeners.add(i.getArgument(0))).when(primary).addHealthStateListener(any());
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+        SequencedMap<String, ManagedDataSource> replacement = new LinkedHashMap<>();
+        replacement.put("reporting", reporting);
+
+        routing.setDatasources(replacement);
+
+        verify(primary).removeHealthStateListener(listeners.getFirst());
+        verify(reporting, never()).removeHealthStateListener(any());
+    }
+
+    @Test
+    void setDatasourcesRejectsMissingDatasources() {
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(
+                mapOf(markedDataSource(true), markedDataSource(true)));
+
+        assertThrows(NullPointerException.class, () -> routing.setDatasources(null));
+        assertThrows(IllegalArgumentException.class, () -> routing.setDatasources(new LinkedHashMap<>()));
+        assertEquals("primary", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void routesToTheDatasourceNamedByTheContext() throws Exception {
+        Connection primaryConnection = mock(Connection.class);
+        Connection reportingConnection = mock(Connection.class);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, primaryConnection);
+        ManagedDataSource reporting = connectingDataSource(DatasourceRole.WRITER, reportingConnection);
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, reporting));
+        RoutingContext context = RoutingContext.preferDatasource("reporting");
+
+        assertSame(reportingConnection, context.call(routing::getConnection));
+        assertEquals("reporting", context.call(routing::currentLookupKey));
+        assertSame(reporting, context.call(routing::targetDataSource));
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals("primary", routing.currentLookupKey());
+    }
+
+    @Test
+    void routesToTaggedDatasourcesInPriorityOrder() throws Exception {
+        Connection connection = mock(Connection.class);
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource replicaOne = tieredDataSource(5, 0, mock(Connection.class));
+        ManagedDataSource replicaTwo = tieredDataSource(1, 0, connection);
+        when(replicaOne.getTags()).thenReturn(Set.of("analytics"));
+        when(replicaTwo.getTags()).thenReturn(Set.of("analytics", "archive"));
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, replicaOne, replicaTwo));
+        RoutingContext context = RoutingContext.preferTag("analytics");
+
+        assertSame(connection, context.call(routing::getConnection));
+        assertEquals("replica-two", context.call(routing::currentLookupKey));
+
+        when(replicaTwo.isMarkedHealthy()).thenReturn(false);
+        assertEquals("replica-one", context.call(routing::currentLookupKey));
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void strictContextFailsWhenNoMatchingDatasourceCanServe() throws SQLException {
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, mock(Connection.class));
+        ManagedDataSource reporting = markedDataSource(false);
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, reporting));
+        routing.setHealOnDemand(false);
+        RoutingObserver observer = mock(RoutingObserver.class);
+        routing.setObserver(observer);
+        RoutingContext context = RoutingContext.preferDatasource("reporting");
+
+        SQLException ex = assertThrows(SQLException.class, () -> context.call(routing::getConnection));
+        assertEquals("No healthy datasource available for datasource reporting (fallback FAIL)", ex.getMessage());
+        assertThrows(IllegalStateException.class, () -> context.call(routing::currentLookupKey));
+        assertThrows(IllegalStateException.class, () -> context.call(routing::targetDataSource));
+        assertThrows(SQLException.class,
+                () -> RoutingContext.preferDatasource("missing").call(routing::getConnection));
+        verify(primary, never()).getConnection();
+        verify(observer, times(2)).exhausted(false);
+    }
+
+    @Test
+    void failoverContextFallsBackToNormalRouting() throws Exception {
+        Connection connection = mock(Connection.class);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, connection);
+        ManagedDataSource reporting = failingDataSource("reporting down");
+        TestRoutingDataSource routing = new TestRoutingDataSource(mapOf(primary, reporting));
+        RoutingContext context = RoutingContext.preferDatasource("reporting").withFallback(RoutingFallback.FAILOVER);
+
+        assertSame(connection, context.call(routing::getConnection));
+        assertEquals("primary", context.call(routing::currentLookupKey));
+        assertSame(primary, context.call(routing::targetDataSource));
+        assertSame(connection, RoutingContext.preferTag("missing").withFallback(RoutingFallback.FAILOVER)
+                .call(routing::getConnection));
+        verify(reporting, times(1)).getConnection();
+    }
+
+    @Test
+    void healsOnlyTheMatchingDatasourcesOnDemand() throws Exception {
+        Connection connection = mock(Connection.class);
+        ManagedDataSource primary = markedDataSource(true);
+        ManagedDataSource reporting = mock(ManagedDataSource.class);
+        AtomicBoolean healthy = new AtomicBoolean();
+        when(reporting.isMarkedHealthy()).thenAnswer(i -> healthy.get());
+        when(reporting.healIfNeeded()).thenAnswer(i -> {
+            healthy.set(true);
+            return true;
+        });
+        when(reporting.getConnection()).thenReturn(connection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+
+        assertSame(connection, RoutingContext.preferDatasource("reporting").call(routing::getConnection));
+        verify(reporting).healIfNeeded();
+        verify(primary, never()).healIfNeeded();
+    }
+
+    @Test
+    void preferredBorrowsFailOverWithinTheMatchesAndSpendTheBudget() throws Exception {
+        Connection connection = mock(Connection.class);
+        ManagedDataSource rejecting = markedDataSource(true);
+        when(rejecting.getTags()).thenReturn(Set.of("analytics"));
+        when(rejecting.getConnection()).thenThrow(new CircuitOpenException("replica-one"));
+        ManagedDataSource failing = failingDataSource("replica-two down");
+        when(failing.getTags()).thenReturn(Set.of("analytics"));
+        ManagedDataSource serving = connectingDataSource(DatasourceRole.WRITER, connection);
+        when(serving.getTags()).thenReturn(Set.of("analytics"));
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(rejecting, failing, serving));
+        RoutingObserver observer = mock(RoutingObserver.class);
+        routing.setObserver(observer);
+        RoutingContext context = RoutingContext.preferTag("analytics");
+
+        assertSame(connection, context.call(routing::getConnection));
+        verify(observer).routed("replica-two", false, true);
+
+        ManagedDataSource firstFailing = failingDataSource("first down");
+        when(firstFailing.getTags()).thenReturn(Set.of("analytics"));
+        ManagedDataSource secondFailing = failingDataSource("second down");
+        when(secondFailing.getTags()).thenReturn(Set.of("analytics"));
+        routing.setDatasources(mapOf(firstFailing, secondFailing, serving));
+        routing.setFailoverAttempts(1);
+        routing.setHealOnDemand(false);
+
+        SQLException ex = assertThrows(SQLException.class, () -> context.call(routing::getConnection));
+        assertEquals("first down", ex.getCause().getMessage());
+        verify(secondFailing, never()).getConnection();
+    }
+
+    @Test
+    void structuredSubtasksRouteWithTheContextOfTheirScope() throws Exception {
+        Connection primaryConnection = mock(Connection.class);
+        Connection reportingConnection = mock(Connection.class);
+        ManagedDataSource primary = connectingDataSource(DatasourceRole.WRITER, primaryConnection);
+        ManagedDataSource reporting = connectingDataSource(DatasourceRole.WRITER, reportingConnection);
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+
+        List<Connection> connections = RoutingContext.preferDatasource("reporting").call(() -> {
+            try (StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure()) {
+                StructuredTaskScope.Subtask<Connection> first = scope.fork(routing::getConnection);
+                StructuredTaskScope.Subtask<Connection> second = scope.fork(routing::getConnection);
+                scope.join().throwIfFailed();
+                return List.of(first.get(), second.get());
+            }
+        });
+
+        assertEquals(List.of(reportingConnection, reportingConnection), connections);
+        verify(primary, never()).getConnection();
+    }
+
+    private static HealingRoutingDataSource routingOf(ManagedDataSource primary, ManagedDataSource reporting) {
+        HealingRoutingDataSource routing = new HealingRoutingDataSource(mapOf(primary, reporting));
+        LinkedHashMap<Object, Object> targets = new LinkedHashMap<>();
+        targets.put("primary", primary);
+        targets.put("reporting", reporting);
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // Trips like a real datasource on its first failed borrow and tells the registered listeners.
+    private static ManagedDataSource failingDataSource(String message) throws SQLException {
+        ManagedDataSource managed = mock(ManagedDataSource.class);
+        AtomicBoolean healthy = new AtomicBoolean(true);
+        List<HealthStateListener> listeners = new ArrayList<>();
+        when(managed.isMarkedHealthy()).thenAnswer(i -> healthy.get());
+        doAnswer(i -> listeners.add(i.getArgument(0))).when(managed).addHealthStateListener(any());
+        when(managed.getConnection()).thenAnswer(i -> {
+            if (healthy.getAndSet(false)) {
+                listeners.forEach(listener -> listener.healthChanged(managed, false));
+            }
+            throw new SQLException(message);
+        });
+        return managed;
+    }
+
     private static ManagedDataSource markedDataSource(boolean markedHealthy) {
         ManagedDataSource managed = mock(ManagedDataSource.class);
         when(managed.isMarkedHealthy()).thenReturn(markedHealthy);
@@ -204,6 +1011,49 @@ class HealingRoutingDataSourceTest {
         return map;
     }
 
+    private static void query(DataSource dataSource) {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static ManagedDataSource connectingDataSource(DatasourceRole role, Connection connection) throws SQLException {
+        ManagedDataSource managed = markedDataSource(true);
+        when(managed.getRole()).thenReturn(role);
+        when(managed.getConnection()).thenReturn(connection);
+        return managed;
+    }
+
+    private static ManagedDataSource tieredDataSource(int priority, int leased, Connection connection) throws SQLException {
+        ManagedDataSource managed = markedDataSource(true);
+        when(managed.getPriority()).thenReturn(OptionalInt.of(priority));
+        when(managed.getLeasedConnections()).thenReturn(leased);
+        when(managed.getConnection()).thenReturn(connection);
+        return managed;
+    }
+
+    private static ManagedDataSource timedDataSource(DatasourceRole role, AtomicLong latencyNanos) {
+        ManagedDataSource managed = markedDataSource(true);
+        when(managed.getRole()).thenReturn(role);
+        when(managed.getLatencyStatistics()).thenAnswer(i -> new LatencyStatistics(
+                Duration.ofNanos(latencyNanos.get()), 10, Duration.ZERO, 0));
+        return managed;
+    }
+
+    private static SequencedMap<String, ManagedDataSource> mapOf(
+            ManagedDataSource primary,
+            ManagedDataSource replicaOne,
+            ManagedDataSource replicaTwo
+    ) {
+        SequencedMap<String, ManagedDataSource> map = new LinkedHashMap<>();
+        map.put("primary", primary);
+        map.put("replica-one", replicaOne);
+        map.put("replica-two", replicaTwo);
+        return map;
+    }
+
     private static final class TestRoutingDataSource extends HealingRoutingDataSource {
         private TestRoutingDataSource(SequencedMap<String, ManagedDataSource> datasources) {
             super(datasources);
@@ -212,5 +1062,9 @@ class HealingRoutingDataSourceTest {
         private Object currentLookupKey() {
             return determineCurrentLookupKey();
         }
+
+        private DataSource targetDataSource() {
+            return determineTargetDataSource();
+        }
     }
 }
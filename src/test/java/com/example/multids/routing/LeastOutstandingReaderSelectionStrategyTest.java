@@ -0,0 +1,44 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LeastOutstandingReaderSelectionStrategyTest {
+
+    @Test
+    void picksReaderWithFewestLeasedConnections() {
+        LeastOutstandingReaderSelectionStrategy strategy = new LeastOutstandingReaderSelectionStrategy();
+        List<ManagedDataSource> readers = List.of(reader(4), reader(1), reader(7));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, strategy.select(readers));
+        }
+        assertEquals(0, strategy.select(List.of(reader(3))));
+    }
+
+    @Test
+    void spreadsTiesAcrossReaders() {
+        LeastOutstandingReaderSelectionStrategy strategy = new LeastOutstandingReaderSelectionStrategy();
+        List<ManagedDataSource> readers = List.of(reader(0), reader(0), reader(0));
+        Set<Integer> selected = new HashSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            selected.add(strategy.select(readers));
+        }
+        assertTrue(selected.size() > 1);
+    }
+
+    private static ManagedDataSource reader(int leased) {
+        ManagedDataSource reader = mock(ManagedDataSource.class);
+        when(reader.getLeasedConnections()).thenReturn(leased);
+        return reader;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PowerOfTwoChoicesSelectionStrategyTest {
+
+    @Test
+    void prefersLessLoadedOfTwoCandidates() {
+        PowerOfTwoChoicesSelectionStrategy strategy = new PowerOfTwoChoicesSelectionStrategy();
+        List<ManagedDataSource> candidates = List.of(candidate(5), candidate(0));
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1, strategy.select(candidates));
+        }
+        assertEquals(0, strategy.select(List.of(candidate(9))));
+    }
+
+    @Test
+    void neverPicksMostLoadedCandidate() {
+        PowerOfTwoChoicesSelectionStrategy strategy = new PowerOfTwoChoicesSelectionStrategy();
+        List<ManagedDataSource> candidates = List.of(candidate(1), candidate(2), candidate(30), candidate(3));
+        int[] picks = new int[candidates.size()];
+
+        for (int i = 0; i < 1_000; i++) {
+            picks[strategy.select(candidates)]++;
+        }
+
+        assertEquals(0, picks[2]);
+        assertNotEquals(0, picks[0]);
+        assertNotEquals(0, picks[1]);
+    }
+
+    private static ManagedDataSource candidate(int leased) {
+        ManagedDataSource candidate = mock(ManagedDataSource.class);
+        when(candidate.getLeasedConnections()).thenReturn(leased);
+        return candidate;
+    }
+}
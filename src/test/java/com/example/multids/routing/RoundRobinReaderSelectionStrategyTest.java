@@ -0,0 +1,24 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RoundRobinReaderSelectionStrategyTest {
+
+    @Test
+    void cyclesThroughReaders() {
+        RoundRobinReaderSelectionStrategy strategy = new RoundRobinReaderSelectionStrategy();
+        List<ManagedDataSource> readers = List.of(
+                mock(ManagedDataSource.class), mock(ManagedDataSource.class), mock(ManagedDataSource.class));
+
+        assertEquals(0, strategy.select(readers));
+        assertEquals(1, strategy.select(readers));
+        assertEquals(2, strategy.select(readers));
+        assertEquals(0, strategy.select(readers));
+        assertEquals(0, strategy.select(List.of(readers.get(0))));
+    }
+}
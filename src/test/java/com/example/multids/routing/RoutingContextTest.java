@@ -0,0 +1,122 @@
+package com.example.multids.routing;
+
+import com.example.multids.datasource.ManagedDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class RoutingContextTest {
+
+    @Test
+    void factoriesRejectBlankTargets() {
+        assertThrows(IllegalArgumentException.class, () -> RoutingContext.preferDatasource(null));
+        assertThrows(IllegalArgumentException.class, () -> RoutingContext.preferDatasource(" "));
+        assertThrows(IllegalArgumentException.class, () -> RoutingContext.preferTag(null));
+        assertThrows(IllegalArgumentException.class, () -> RoutingContext.preferTag(""));
+        assertThrows(NullPointerException.class, () -> RoutingContext.preferTag("analytics").withFallback(null));
+        assertThrows(NullPointerException.class, () -> RoutingContext.preferTag("analytics").run(null));
+        assertThrows(NullPointerException.class, () -> RoutingContext.preferTag("analytics").call(null));
+    }
+
+    @Test
+    void describesItsTargetAndFallback() {
+        RoutingContext named = RoutingContext.preferDatasource("reporting");
+        RoutingContext tagged = RoutingContext.preferTag("analytics").withFallback(RoutingFallback.FAILOVER);
+
+        assertEquals(Optional.of("reporting"), named.getDatasource());
+        assertEquals(Optional.empty(), named.getTag());
+        assertEquals(RoutingFallback.FAIL, named.getFallback());
+        assertEquals(Optional.empty(), tagged.getDatasource());
+        assertEquals(Optional.of("analytics"), tagged.getTag());
+        assertEquals(RoutingFallback.FAILOVER, tagged.getFallback());
+        assertEquals("datasource reporting (fallback FAIL)", named.toString());
+        assertEquals("tag analytics (fallback FAILOVER)", tagged.toString());
+    }
+
+    @Test
+    void resolvesByNameOrByTagInRoutingOrder() {
+        ManagedDataSource primary = dataSource(OptionalInt.of(5), Set.of("analytics"));
+        ManagedDataSource reporting = dataSource(OptionalInt.empty(), Set.of("analytics", "archive"));
+        SequencedMap<String, ManagedDataSource> datasources = new LinkedHashMap<>();
+        datasources.put("primary", primary);
+        datasources.put("reporting", reporting);
+        RoutingSnapshot snapshot = RoutingSnapshot.of(datasources);
+
+        assertEquals(List.of(Map.entry("reporting", reporting)),
+                RoutingContext.preferDatasource("reporting").resolve(snapshot));
+        assertEquals(List.of(), RoutingContext.preferDatasource("missing").resolve(snapshot));
+        assertEquals(List.of(Map.entry("reporting", reporting), Map.entry("primary", primary)),
+                RoutingContext.preferTag("analytics").resolve(snapshot));
+        assertEquals(List.of(Map.entry("reporting", reporting)), RoutingContext.preferTag("archive").resolve(snapshot));
+        assertEquals(List.of(), RoutingContext.preferTag("unknown").resolve(snapshot));
+    }
+
+    @Test
+    void contextIsScopedToTheCallAndNests() throws Exception {
+        RoutingContext outer = RoutingContext.preferDatasource("reporting");
+        RoutingContext inner = RoutingContext.preferTag("analytics");
+        assertTrue(RoutingContext.current().isEmpty());
+
+        String result = outer.call(() -> {
+            inner.run(() -> assertSame(inner, RoutingContext.current().orElseThrow()));
+            assertSame(outer, RoutingContext.current().orElseThrow());
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertTrue(RoutingContext.current().isEmpty());
+    }
+
+    @Test
+    void contextIsClearedWhenWorkFails() {
+        assertThrows(IllegalStateException.class, () -> RoutingContext.preferDatasource("reporting").run(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertTrue(RoutingContext.current().isEmpty());
+    }
+
+    @Test
+    void structuredSubtasksInheritTheContextButUnstructuredThreadsDoNot() throws Exception {
+        RoutingContext context = RoutingContext.preferTag("analytics");
+        AtomicReference<Optional<RoutingContext>> unstructured = new AtomicReference<>();
+
+        RoutingContext forked = context.call(() -> {
+            Thread thread = Thread.ofVirtual().start(() -> unstructured.set(RoutingContext.current()));
+            thread.join();
+            try (StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure()) {
+                StructuredTaskScope.Subtask<RoutingContext> subtask =
+                        scope.fork(() -> RoutingContext.current().orElseThrow());
+                scope.join().throwIfFailed();
+                return subtask.get();
+            }
+        });
+
+        assertSame(context, forked);
+        assertEquals(Optional.empty(), unstructured.get());
+        assertEquals(Optional.empty(), CompletableFuture.supplyAsync(RoutingContext::current).join());
+    }
+
+    // Unhealthy, so the datasource is indexed for contexts but routed by neither role.
+    private static ManagedDataSource dataSource(OptionalInt priority, Set<String> tags) {
+        ManagedDataSource dataSource = mock(ManagedDataSource.class);
+        when(dataSource.getPriority()).thenReturn(priority);
+        when(dataSource.getTags()).thenReturn(tags);
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.multids.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RoutingHintsTest {
+
+    @Test
+    void readOnlyHintIsScopedToTheCall() throws Exception {
+        assertFalse(RoutingHints.isReadOnly());
+
+        String result = RoutingHints.callReadOnly(() -> {
+            RoutingHints.runReadOnly(() -> assertTrue(RoutingHints.isReadOnly()));
+            assertTrue(RoutingHints.isReadOnly());
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertFalse(RoutingHints.isReadOnly());
+    }
+
+    @Test
+    void hintIsClearedWhenWorkFails() {
+        assertThrows(IllegalStateException.class, () -> RoutingHints.runReadOnly(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertFalse(RoutingHints.isReadOnly());
+    }
+}